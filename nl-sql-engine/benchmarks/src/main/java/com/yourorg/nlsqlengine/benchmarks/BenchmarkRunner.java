@@ -0,0 +1,34 @@
+package com.yourorg.nlsqlengine.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Point d'entrée du jar de benchmarks : options JMH de la ligne de commande (filtre, forks,
+ * paramètres...) avec le profiler GC toujours actif, pour rapporter le débit et le taux
+ * d'allocation ({@code gc.alloc.rate.norm}, octets alloués par opération) de chaque chemin.
+ * Exemple : {@code java -jar target/benchmarks.jar SqlValidatorBenchmark -p size=large}
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        new Runner(new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,54 @@
+package com.yourorg.nlsqlengine.llm;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extraction du SQL ({@link LlmClient#extractSql}) depuis des réponses brutes réalistes du modèle :
+ * SQL seul, préfixe "SQL :", bloc markdown suivi d'explications, et réponse bavarde.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LlmClientBenchmark {
+
+    private static final String SQL = "SELECT p.name, pl.name AS planet\nFROM people p\n"
+            + "JOIN planets pl ON p.homeworld_id = pl.id\nWHERE pl.name = 'Tatooine'\nORDER BY p.name";
+
+    @Param({"plain", "prefixed", "markdown", "verbose"})
+    String output;
+
+    private final LlmClient client = new LlmClient();
+    private String raw;
+
+    @Setup
+    public void setUp() {
+        raw = switch (output) {
+            case "plain" -> SQL;
+            case "prefixed" -> "SQL : " + SQL + ";";
+            case "markdown" -> "```sql\n" + SQL + ";\n```\n\nCette requête joint les personnages à leur planète d'origine.";
+            case "verbose" -> "Requête : " + SQL + "\n\nExplication : la table people est jointe à planets via "
+                    + "homeworld_id, puis filtrée sur le nom de la planète. ".repeat(20);
+            default -> throw new IllegalArgumentException("Sortie inconnue : " + output);
+        };
+    }
+
+    @Benchmark
+    public String extractSql() {
+        return client.extractSql(raw);
+    }
+}
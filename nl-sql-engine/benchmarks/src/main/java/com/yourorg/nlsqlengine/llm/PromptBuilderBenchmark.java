@@ -0,0 +1,78 @@
+package com.yourorg.nlsqlengine.llm;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction du prompt utilisateur ({@link PromptBuilder#buildUserPrompt}) avec un schéma
+ * de {@code tables} tables de 15 colonnes, les règles métier, trois exemples few-shot
+ * et l'erreur d'une tentative précédente.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PromptBuilderBenchmark {
+
+    @Param({"20", "200"})
+    int tables;
+
+    @Param({"STABLE", "LEGACY"})
+    PromptLayout layout;
+
+    private final PromptBuilder builder = new PromptBuilder();
+    private String schema;
+    private List<String> rules;
+    private List<Map.Entry<String, String>> examples;
+
+    @Setup
+    public void setUp() {
+        builder.layout = layout;
+        schema = largeSchema(tables);
+        rules = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rules.add("Règle métier " + i + " : pour joindre table_" + i + " à table_" + (i + 1)
+                    + ", utiliser la colonne table_" + (i + 1) + "_id");
+        }
+        examples = List.of(
+                Map.entry("Combien de lignes dans table_0 ?", "SELECT COUNT(id) AS total FROM table_0"),
+                Map.entry("Noms de table_1 triés", "SELECT name FROM table_1 ORDER BY name"),
+                Map.entry("Valeur moyenne de table_2", "SELECT AVG(amount) AS moyenne FROM table_2"));
+    }
+
+    @Benchmark
+    public String buildUserPrompt() {
+        return builder.buildUserPrompt("Quels sont les enregistrements de table_3 liés à table_4 en 2024 ?",
+                schema, rules, examples, "Exécution SQL : ERROR: column \"nom\" does not exist");
+    }
+
+    static String largeSchema(int tables) {
+        StringBuilder sb = new StringBuilder();
+        for (int t = 0; t < tables; t++) {
+            sb.append("### table_").append(t).append('\n')
+                    .append("Description : table métier numéro ").append(t).append(" du domaine de test\n");
+            for (int c = 0; c < 15; c++) {
+                sb.append("- column_").append(c).append(c % 3 == 0 ? " (INTEGER)" : " (VARCHAR)")
+                        .append(" : attribut ").append(c).append(" de table_").append(t).append('\n');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,139 @@
+package com.yourorg.nlsqlengine.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Charge en boucle ouverte sur {@code POST /api/query} : les requêtes partent à cadence fixe
+ * ({@code rps}), quel que soit le temps de réponse du moteur, chacune sur son thread virtuel.
+ * La latence est mesurée depuis l'instant d'envoi prévu (et non réel) : un moteur saturé
+ * n'abaisse pas la cadence et ses files d'attente apparaissent dans les percentiles
+ * (pas d'omission coordonnée). Les requêtes de la période de chauffe ne sont pas comptées.
+ * Le rapport donne aussi le nombre maximal de requêtes simultanément en cours : au-delà du pool
+ * de workers du serveur, il montre que la concurrence n'est plus bornée que par le moteur lui-même.
+ * Lancer avec : {@code java -cp target/benchmarks.jar com.yourorg.nlsqlengine.loadtest.LoadDriver --rps=5 --duration=60}
+ */
+public final class LoadDriver {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    record Options(URI target, double rps, int durationSeconds, int warmupSeconds, int timeoutSeconds,
+                   String answerMode, Long domainId) {
+
+        static Options from(Args args) {
+            String domain = args.string("domain-id", null);
+            return new Options(
+                    URI.create(args.string("target", "http://localhost:8080") + "/api/query"),
+                    args.decimal("rps", 5),
+                    args.integer("duration", 60),
+                    args.integer("warmup", 10),
+                    args.integer("timeout", 120),
+                    args.string("answer-mode", "template"),
+                    domain != null ? Long.valueOf(domain) : null);
+        }
+    }
+
+    private final Options options;
+    private final List<String> questions;
+    private final Queue<LoadReport.Outcome> outcomes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    LoadDriver(Options options, List<String> questions) {
+        this.options = options;
+        this.questions = questions;
+    }
+
+    LoadReport run() throws InterruptedException {
+        long intervalNanos = (long) (1_000_000_000L / options.rps());
+        int sent = 0;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .executor(executor)
+                    .build();
+            long start = System.nanoTime();
+            long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds());
+            long end = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds());
+
+            for (long i = 0; ; i++) {
+                long intended = start + i * intervalNanos;
+                if (intended >= end) {
+                    break;
+                }
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                boolean measured = intended >= measureFrom;
+                if (measured) {
+                    sent++;
+                }
+                String question = questions.get((int) (i % questions.size()));
+                executor.execute(() -> send(client, question, intended, measured));
+            }
+            // La fermeture de l'executor attend les requêtes encore en cours (bornées par le timeout)
+        }
+        return LoadReport.of(sent, outcomes, options.durationSeconds(), maxInFlight.get());
+    }
+
+    private void send(HttpClient client, String question, long intendedNanos, boolean measured) {
+        int status;
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            HttpResponse<Void> response = client.send(request(question), HttpResponse.BodyHandlers.discarding());
+            status = response.statusCode();
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        if (measured) {
+            outcomes.add(new LoadReport.Outcome(status, System.nanoTime() - intendedNanos));
+        }
+    }
+
+    private HttpRequest request(String question) throws IOException {
+        ObjectNode body = MAPPER.createObjectNode()
+                .put("question", question)
+                .put("answerMode", options.answerMode());
+        if (options.domainId() != null) {
+            body.put("domainId", options.domainId());
+        }
+        return HttpRequest.newBuilder(options.target())
+                .timeout(Duration.ofSeconds(options.timeoutSeconds()))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Args arguments = new Args(args);
+        Options options = Options.from(arguments);
+        List<String> questions = Workload.load(arguments.string("questions", null)).questions();
+        System.out.printf("Charge : %.1f req/s pendant %d s (chauffe %d s) sur %s, %d questions%n",
+                options.rps(), options.durationSeconds(), options.warmupSeconds(), options.target(), questions.size());
+        LoadReport report = new LoadDriver(options, questions).run();
+        System.out.println(report.format());
+    }
+}
@@ -0,0 +1,63 @@
+package com.yourorg.nlsqlengine.loadtest;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Synthèse d'une campagne de charge : percentiles de latence (rang le plus proche, sur toutes
+ * les réponses, erreurs comprises), taux d'erreur par statut HTTP et débit obtenu.
+ * Le statut {@code -1} regroupe les échecs sans réponse (timeout, connexion refusée).
+ * {@code maxInFlight} est le nombre maximal de requêtes simultanément en attente de réponse.
+ */
+record LoadReport(int sent, int completed, long errors, Map<Integer, Long> statuses, double durationSeconds,
+                  long p50Ms, long p95Ms, long p99Ms, long maxMs, int maxInFlight) {
+
+    record Outcome(int status, long latencyNanos) {
+        boolean isSuccess() {
+            return status == 200;
+        }
+    }
+
+    static LoadReport of(int sent, Collection<Outcome> outcomes, double durationSeconds, int maxInFlight) {
+        long[] latencies = outcomes.stream().mapToLong(Outcome::latencyNanos).sorted().toArray();
+        Map<Integer, Long> statuses = new TreeMap<>();
+        long errors = 0;
+        for (Outcome outcome : outcomes) {
+            statuses.merge(outcome.status(), 1L, Long::sum);
+            if (!outcome.isSuccess()) {
+                errors++;
+            }
+        }
+        return new LoadReport(sent, latencies.length, errors, statuses, durationSeconds,
+                percentileMs(latencies, 0.50), percentileMs(latencies, 0.95), percentileMs(latencies, 0.99),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1_000_000, maxInFlight);
+    }
+
+    static long percentileMs(long[] sortedNanos, double quantile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sortedNanos.length);
+        return sortedNanos[Math.max(0, Math.min(sortedNanos.length, rank) - 1)] / 1_000_000;
+    }
+
+    double errorRate() {
+        return completed == 0 ? 0 : (double) errors / completed;
+    }
+
+    double throughput() {
+        return durationSeconds == 0 ? 0 : (completed - errors) / durationSeconds;
+    }
+
+    String format() {
+        return String.format("""
+                Requêtes envoyées : %d, terminées : %d
+                Statuts : %s
+                Taux d'erreur : %.2f %%
+                Débit (succès) : %.2f req/s
+                Latence (ms) : p50 %d, p95 %d, p99 %d, max %d
+                Requêtes simultanées (max) : %d""",
+                sent, completed, statuses, errorRate() * 100, throughput(), p50Ms, p95Ms, p99Ms, maxMs, maxInFlight);
+    }
+}
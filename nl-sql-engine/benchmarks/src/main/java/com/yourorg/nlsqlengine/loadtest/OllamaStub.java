@@ -0,0 +1,276 @@
+package com.yourorg.nlsqlengine.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serveur compatible Ollama ({@code /api/chat}, {@code /api/embed}, {@code /api/tags}, et {@code /api/generate}
+ * pour le seul préchargement du modèle au préchauffage du moteur) aux réponses
+ * déterministes, pour mesurer le moteur sans GPU ni réseau :
+ * <ul>
+ *   <li>génération SQL : SQL du jeu de questions pour la question du prompt ({@code ## Question}),
+ *       {@code defaultSql} sinon ;</li>
+ *   <li>formulation de la réponse : phrase fixe ;</li>
+ *   <li>embeddings : vecteur unitaire pseudo-aléatoire dérivé du texte (même texte, même vecteur) ;</li>
+ *   <li>latence artificielle (base + gigue uniforme) et taux d'échec (HTTP 500) configurables,
+ *       tirés d'un générateur initialisé par {@code seed} pour des campagnes reproductibles.</li>
+ * </ul>
+ * Le nombre maximal d'appels chat simultanés est relevé : c'est la concurrence effectivement
+ * obtenue côté LLM, à comparer à la limite {@code nlsql.llm.limiter.max-limit} du moteur.
+ * Lancer avec : {@code java -cp target/benchmarks.jar com.yourorg.nlsqlengine.loadtest.OllamaStub --port=11435}
+ */
+public final class OllamaStub implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String QUESTION_MARKER = "## Question\n";
+    private static final String ANSWER_MARKER = "Réponds à la question en langage naturel";
+
+    record Options(int port, long chatLatencyMs, long embedLatencyMs, long jitterMs, double failureRate,
+                   int dimension, long seed, String defaultSql) {
+
+        static Options from(Args args) {
+            return new Options(
+                    args.integer("port", 11435),
+                    args.longValue("chat-latency-ms", 800),
+                    args.longValue("embed-latency-ms", 50),
+                    args.longValue("jitter-ms", 200),
+                    args.decimal("failure-rate", 0.0),
+                    args.integer("dimension", 4096),
+                    args.longValue("seed", 42),
+                    args.string("default-sql", "SELECT p.name FROM people p ORDER BY p.name LIMIT 10"));
+        }
+    }
+
+    private final Options options;
+    private final Workload workload;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SplittableRandom random;
+    private final AtomicLong chatCalls = new AtomicLong();
+    private final AtomicLong embedCalls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicInteger chatInFlight = new AtomicInteger();
+    private final AtomicInteger maxChatInFlight = new AtomicInteger();
+
+    private OllamaStub(Options options, Workload workload) throws IOException {
+        this.options = options;
+        this.workload = workload;
+        this.random = new SplittableRandom(options.seed());
+        this.server = HttpServer.create(new InetSocketAddress(options.port()), 256);
+        server.createContext("/api/tags", exchange -> respond(exchange, 200,
+                "{\"models\":[{\"name\":\"stub\",\"model\":\"stub\"}]}", "application/json"));
+        server.createContext("/api/chat", this::chat);
+        server.createContext("/api/embed", this::embed);
+        // Préchargement sans prompt (préchauffage du moteur) : rien à charger
+        server.createContext("/api/generate", exchange -> respond(exchange, 200,
+                "{\"model\":\"stub\",\"response\":\"\",\"done\":true}", "application/json"));
+        server.setExecutor(executor);
+    }
+
+    static OllamaStub start(Options options, Workload workload) throws IOException {
+        OllamaStub stub = new OllamaStub(options, workload);
+        stub.server.start();
+        return stub;
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    long chatCalls() {
+        return chatCalls.get();
+    }
+
+    long embedCalls() {
+        return embedCalls.get();
+    }
+
+    long failures() {
+        return failures.get();
+    }
+
+    int maxChatInFlight() {
+        return maxChatInFlight.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void chat(HttpExchange exchange) throws IOException {
+        chatCalls.incrementAndGet();
+        maxChatInFlight.accumulateAndGet(chatInFlight.incrementAndGet(), Math::max);
+        try {
+            doChat(exchange);
+        } finally {
+            chatInFlight.decrementAndGet();
+        }
+    }
+
+    private void doChat(HttpExchange exchange) throws IOException {
+        JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+        if (simulate(exchange, options.chatLatencyMs())) {
+            return;
+        }
+        String prompt = lastUserMessage(request);
+        String content = prompt.contains(ANSWER_MARKER) ? "Réponse simulée par le stub Ollama." : sqlFor(prompt);
+        String model = request.path("model").asText("stub");
+
+        if (request.path("stream").asBoolean(false)) {
+            String chunk = MAPPER.writeValueAsString(chatChunk(model, content, false, prompt));
+            String done = MAPPER.writeValueAsString(chatChunk(model, "", true, prompt).put("eval_count", tokens(content)));
+            respond(exchange, 200, chunk + "\n" + done + "\n", "application/x-ndjson");
+        } else {
+            respond(exchange, 200, MAPPER.writeValueAsString(
+                    chatChunk(model, content, true, prompt).put("eval_count", tokens(content))), "application/json");
+        }
+    }
+
+    private void embed(HttpExchange exchange) throws IOException {
+        embedCalls.incrementAndGet();
+        JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+        if (simulate(exchange, options.embedLatencyMs())) {
+            return;
+        }
+        List<String> inputs = new ArrayList<>();
+        JsonNode input = request.path("input");
+        if (input.isArray()) {
+            input.forEach(node -> inputs.add(node.asText()));
+        } else {
+            inputs.add(input.asText());
+        }
+
+        ObjectNode response = MAPPER.createObjectNode().put("model", request.path("model").asText("stub"));
+        ArrayNode embeddings = response.putArray("embeddings");
+        for (String text : inputs) {
+            ArrayNode vector = embeddings.addArray();
+            for (float value : embedding(text, options.dimension(), options.seed())) {
+                vector.add(value);
+            }
+        }
+        respond(exchange, 200, MAPPER.writeValueAsString(response), "application/json");
+    }
+
+    /**
+     * Applique la latence artificielle puis, selon le taux d'échec, répond HTTP 500.
+     *
+     * @return true si l'appel a été mis en échec (réponse déjà envoyée)
+     */
+    private boolean simulate(HttpExchange exchange, long latencyMs) throws IOException {
+        double draw;
+        long jitter;
+        synchronized (random) {
+            draw = random.nextDouble();
+            jitter = options.jitterMs() > 0 ? random.nextLong(options.jitterMs() + 1) : 0;
+        }
+        try {
+            Thread.sleep(latencyMs + jitter);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (draw < options.failureRate()) {
+            failures.incrementAndGet();
+            respond(exchange, 500, "{\"error\":\"panne simulée par le stub\"}", "application/json");
+            return true;
+        }
+        return false;
+    }
+
+    String sqlFor(String prompt) {
+        int marker = prompt.lastIndexOf(QUESTION_MARKER);
+        if (marker >= 0) {
+            String sql = workload.sqlFor(prompt.substring(marker + QUESTION_MARKER.length()).strip());
+            if (sql != null) {
+                return sql;
+            }
+        }
+        return options.defaultSql();
+    }
+
+    /**
+     * Vecteur unitaire déterministe : même texte (et même graine), même vecteur.
+     */
+    static float[] embedding(String text, int dimension, long seed) {
+        SplittableRandom generator = new SplittableRandom(seed ^ text.hashCode());
+        float[] vector = new float[dimension];
+        double norm = 0;
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) (generator.nextDouble() * 2 - 1);
+            norm += vector[i] * vector[i];
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < dimension; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    private static String lastUserMessage(JsonNode request) {
+        String content = "";
+        for (JsonNode message : request.path("messages")) {
+            if ("user".equals(message.path("role").asText())) {
+                content = message.path("content").asText();
+            }
+        }
+        return content;
+    }
+
+    private static ObjectNode chatChunk(String model, String content, boolean done, String prompt) {
+        ObjectNode chunk = MAPPER.createObjectNode()
+                .put("model", model)
+                .put("created_at", Instant.now().toString())
+                .put("done", done);
+        chunk.putObject("message").put("role", "assistant").put("content", content);
+        if (done) {
+            chunk.put("done_reason", "stop").put("prompt_eval_count", tokens(prompt));
+        }
+        return chunk;
+    }
+
+    private static int tokens(String text) {
+        return Math.max(1, text.length() / 4);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body, String contentType) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Args arguments = new Args(args);
+        Options options = Options.from(arguments);
+        OllamaStub stub = start(options, Workload.load(arguments.string("questions", null)));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.printf("Stub arrêté : %d appels chat (max %d simultanés), %d appels embed, %d échecs simulés%n",
+                    stub.chatCalls(), stub.maxChatInFlight(), stub.embedCalls(), stub.failures());
+            stub.close();
+        }));
+        System.out.printf("Stub Ollama sur http://localhost:%d (chat %d ms, embed %d ms, gigue %d ms, échecs %.1f %%)%n",
+                stub.port(), options.chatLatencyMs(), options.embedLatencyMs(), options.jitterMs(),
+                options.failureRate() * 100);
+        Thread.currentThread().join();
+    }
+}
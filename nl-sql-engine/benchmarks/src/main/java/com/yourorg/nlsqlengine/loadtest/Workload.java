@@ -0,0 +1,75 @@
+package com.yourorg.nlsqlengine.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Jeu de questions de la charge et SQL associé, lu depuis un fichier {@code question<TAB>SQL}
+ * (lignes vides et commentaires {@code #} ignorés). Partagé par le driver (questions envoyées)
+ * et le stub Ollama (SQL renvoyé pour chaque question).
+ */
+final class Workload {
+
+    static final String DEFAULT_RESOURCE = "loadtest/questions.tsv";
+
+    private final Map<String, String> sqlByQuestion;
+
+    private Workload(Map<String, String> sqlByQuestion) {
+        this.sqlByQuestion = Collections.unmodifiableMap(sqlByQuestion);
+    }
+
+    /**
+     * @param file fichier à lire, ou null pour le jeu fourni avec le module
+     */
+    static Workload load(String file) throws IOException {
+        if (file != null) {
+            try (InputStream in = Files.newInputStream(Path.of(file))) {
+                return parse(in);
+            }
+        }
+        try (InputStream in = Workload.class.getClassLoader().getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Jeu de questions introuvable : " + DEFAULT_RESOURCE);
+            }
+            return parse(in);
+        }
+    }
+
+    static Workload parse(InputStream in) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            int tab = line.indexOf('\t');
+            if (tab < 0) {
+                throw new IllegalArgumentException("Ligne sans tabulation : " + line);
+            }
+            entries.put(line.substring(0, tab).strip(), line.substring(tab + 1).strip());
+        }
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("Jeu de questions vide");
+        }
+        return new Workload(entries);
+    }
+
+    List<String> questions() {
+        return new ArrayList<>(sqlByQuestion.keySet());
+    }
+
+    String sqlFor(String question) {
+        return sqlByQuestion.get(question);
+    }
+}
@@ -0,0 +1,39 @@
+package com.yourorg.nlsqlengine.rag;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calcul du hash SHA-256 du contenu indexé ({@link SchemaEmbeddingService#computeContentHash}) :
+ * description du schéma Star Wars et règles métier, recalculé à chaque démarrage et synchronisation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaEmbeddingServiceBenchmark {
+
+    private final SchemaEmbeddingService service = new SchemaEmbeddingService();
+
+    @Setup
+    public void setUp() {
+        service.schemaProvider = new SchemaProvider();
+    }
+
+    @Benchmark
+    public String computeContentHash() {
+        return service.computeContentHash();
+    }
+}
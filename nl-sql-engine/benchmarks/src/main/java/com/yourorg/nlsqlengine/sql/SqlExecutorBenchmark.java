@@ -0,0 +1,104 @@
+package com.yourorg.nlsqlengine.sql;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion d'un ResultSet en {@link ResultTable} ({@link SqlExecutor#readTable}) : colonnes et lignes
+ * positionnelles, sur un ResultSet synthétique en mémoire (CachedRowSet du JDK, sans base de données)
+ * de 8 colonnes aux types variés. {@code asMaps} mesure en plus le parcours de la vue {@code {colonne: valeur}}
+ * utilisée par la formulation de la réponse et le format JSON rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqlExecutorBenchmark {
+
+    private static final String[] COLUMNS = {"id", "name", "height", "mass", "birth_year", "gender", "credits", "release_date"};
+    private static final int[] TYPES = {Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.VARCHAR, Types.NUMERIC, Types.DATE};
+    private static final String[] TYPE_NAMES = {"int4", "varchar", "varchar", "varchar", "varchar", "varchar",
+            "numeric", "date"};
+
+    @Param({"100", "10000"})
+    int rows;
+
+    private final SqlExecutor executor = new SqlExecutor();
+    private CachedRowSet resultSet;
+
+    @Setup
+    public void setUp() throws SQLException {
+        resultSet = syntheticResultSet(rows);
+    }
+
+    @Benchmark
+    public ResultTable readTable() throws SQLException {
+        // Rembobinage du curseur (coût négligeable devant la conversion des lignes)
+        resultSet.beforeFirst();
+        return executor.readTable(resultSet);
+    }
+
+    @Benchmark
+    public void asMaps(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        for (Map<String, Object> row : executor.readTable(resultSet).asMaps()) {
+            for (Map.Entry<String, Object> cell : row.entrySet()) {
+                blackhole.consume(cell.getValue());
+            }
+        }
+    }
+
+    static CachedRowSet syntheticResultSet(int rows) throws SQLException {
+        RowSetMetaDataImpl meta = new RowSetMetaDataImpl();
+        meta.setColumnCount(COLUMNS.length);
+        for (int i = 0; i < COLUMNS.length; i++) {
+            meta.setColumnName(i + 1, COLUMNS[i]);
+            meta.setColumnLabel(i + 1, COLUMNS[i]);
+            meta.setColumnType(i + 1, TYPES[i]);
+            meta.setColumnTypeName(i + 1, TYPE_NAMES[i]);
+        }
+
+        CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+        rowSet.setMetaData(meta);
+        LocalDate firstRelease = LocalDate.of(1977, 5, 25);
+        for (int row = 0; row < rows; row++) {
+            rowSet.moveToInsertRow();
+            rowSet.updateInt(1, row);
+            rowSet.updateString(2, "Personnage " + row);
+            rowSet.updateString(3, row % 7 == 0 ? "unknown" : Integer.toString(150 + row % 80));
+            rowSet.updateString(4, row % 5 == 0 ? "n/a" : Integer.toString(40 + row % 120));
+            rowSet.updateString(5, (row % 100) + "BBY");
+            rowSet.updateString(6, row % 2 == 0 ? "male" : "female");
+            rowSet.updateBigDecimal(7, BigDecimal.valueOf(row * 1250L, 2));
+            rowSet.updateDate(8, Date.valueOf(firstRelease.plusDays(row)));
+            rowSet.insertRow();
+            rowSet.moveToCurrentRow();
+        }
+        rowSet.beforeFirst();
+        return rowSet;
+    }
+}
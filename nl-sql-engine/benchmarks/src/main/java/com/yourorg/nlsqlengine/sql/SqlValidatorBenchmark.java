@@ -0,0 +1,76 @@
+package com.yourorg.nlsqlengine.sql;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation (parsing JSqlParser + contrôles) d'une requête typique générée par le LLM
+ * et d'une requête très volumineuse (UNION ALL de nombreuses branches avec jointures,
+ * CASE et listes IN), pour mesurer le coût du parsing en fonction de la taille.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqlValidatorBenchmark {
+
+    private static final String SMALL = "SELECT p.name, pl.name AS planet FROM people p "
+            + "JOIN planets pl ON p.homeworld_id = pl.id "
+            + "WHERE p.height ~ '^[0-9]+(\\.[0-9]+)?$' AND CAST(p.height AS NUMERIC) > 180 "
+            + "ORDER BY p.name LIMIT 10";
+
+    @Param({"small", "large"})
+    String size;
+
+    @Param({"200"})
+    int branches;
+
+    private final SqlValidator validator = new SqlValidator();
+    private String sql;
+
+    @Setup
+    public void setUp() {
+        sql = "small".equals(size) ? SMALL : largeStatement(branches);
+    }
+
+    @Benchmark
+    public SqlValidationResult validate() {
+        return validator.validate(sql);
+    }
+
+    static String largeStatement(int branches) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < branches; i++) {
+            if (i > 0) {
+                sb.append("\nUNION ALL\n");
+            }
+            sb.append("SELECT p.name, f.title, s.name AS starship, ")
+                    .append("CASE WHEN p.mass ~ '^[0-9]+$' AND CAST(p.mass AS NUMERIC) > ").append(i)
+                    .append(" THEN 'lourd' WHEN p.mass = 'unknown' THEN 'inconnu' ELSE 'léger' END AS categorie ")
+                    .append("FROM people p ")
+                    .append("JOIN film_characters fc ON fc.person_id = p.id ")
+                    .append("JOIN films f ON f.id = fc.film_id ")
+                    .append("LEFT JOIN starship_pilots sp ON sp.person_id = p.id ")
+                    .append("LEFT JOIN starships s ON s.id = sp.starship_id ")
+                    .append("WHERE f.episode_id IN (");
+            for (int j = 0; j < 20; j++) {
+                sb.append(j > 0 ? ", " : "").append(i * 20 + j);
+            }
+            sb.append(") AND p.name LIKE '%").append(i).append("%'");
+        }
+        return sb.append("\nORDER BY name LIMIT 100").toString();
+    }
+}
@@ -0,0 +1,92 @@
+package com.yourorg.nlsqlengine.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.yourorg.nlsqlengine.sql.ResultTable;
+import com.yourorg.nlsqlengine.sql.RowWriter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Écrit les lignes d'un export directement dans la réponse JSON, au format de {@link QueryResponse}
+ * ({@code generatedSql}, puis {@code results} ou {@code columns}/{@code rows} selon le format)
+ * complété de {@code rowCount}.
+ */
+class JsonRowWriter implements RowWriter {
+
+    private final JsonGenerator json;
+    private final boolean columnar;
+    private List<ResultTable.Column> columns;
+    private boolean[] shadowed;
+    private long rowCount;
+    private boolean ended;
+
+    JsonRowWriter(JsonGenerator json, ResultFormat format) {
+        this.json = json;
+        this.columnar = format == ResultFormat.COLUMNAR;
+    }
+
+    @Override
+    public void start(String sql, List<ResultTable.Column> columns) throws IOException {
+        this.columns = columns;
+        json.writeStringField("generatedSql", sql);
+        if (columnar) {
+            json.writeNullField("results");
+            json.writeArrayFieldStart("columns");
+            for (ResultTable.Column column : columns) {
+                json.writeStartObject();
+                json.writeStringField("name", column.name());
+                json.writeStringField("type", column.type());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeArrayFieldStart("rows");
+        } else {
+            // Même objet que la vue ResultTable.asMaps() : une seule valeur par nom de colonne
+            shadowed = ResultTable.shadowedColumns(columns);
+            json.writeArrayFieldStart("results");
+        }
+    }
+
+    @Override
+    public void row(Object[] values) throws IOException {
+        if (columnar) {
+            json.writeStartArray();
+            for (Object value : values) {
+                json.writeObject(value);
+            }
+            json.writeEndArray();
+        } else {
+            json.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                if (!shadowed[i]) {
+                    json.writeFieldName(columns.get(i).name());
+                    json.writeObject(values[i]);
+                }
+            }
+            json.writeEndObject();
+        }
+        rowCount++;
+    }
+
+    @Override
+    public void end(long rowCount) throws IOException {
+        json.writeEndArray();
+        json.writeNumberField("rowCount", rowCount);
+        ended = true;
+    }
+
+    /**
+     * Complète les champs du résultat : SQL sans lignes si l'exécution n'a pas abouti,
+     * fermeture du tableau si le flux a été interrompu.
+     */
+    void finish(String sql) throws IOException {
+        if (columns == null) {
+            json.writeStringField("generatedSql", sql);
+            json.writeNullField("results");
+            json.writeNumberField("rowCount", 0);
+        } else if (!ended) {
+            end(rowCount);
+        }
+    }
+}
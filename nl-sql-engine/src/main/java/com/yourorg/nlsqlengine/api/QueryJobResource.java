@@ -0,0 +1,123 @@
+package com.yourorg.nlsqlengine.api;
+
+import com.yourorg.nlsqlengine.job.QueryJob;
+import com.yourorg.nlsqlengine.job.QueryJobService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * API asynchrone : la question est mise en file et un identifiant de job est retourné
+ * immédiatement (202). Le résultat se récupère par GET, éventuellement en long-poll
+ * ({@code ?wait=secondes}), ou par abonnement Server-Sent Events. Le long-poll et l'abonnement
+ * attendent la fin du job sur un thread virtuel, comme {@link QueryResource} : ils n'occupent pas
+ * un worker pendant l'attente.
+ */
+@Path("/api/query/jobs")
+@Consumes(MediaType.APPLICATION_JSON)
+@Produces(MediaType.APPLICATION_JSON)
+public class QueryJobResource {
+
+    @Inject
+    QueryJobService jobService;
+
+    @ConfigProperty(name = "nlsql.jobs.max-wait-seconds", defaultValue = "25")
+    long maxWaitSeconds;
+
+    @POST
+    public Response submit(QueryRequest request, @Context UriInfo uriInfo) {
+        if (request == null || request.question() == null || request.question().isBlank()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(QueryResponse.error(null, "La question est obligatoire"))
+                    .build();
+        }
+
+        QueryJob job;
+        try {
+            job = jobService.submit(request.question(), request.domainId(), request.answerMode());
+        } catch (RejectedExecutionException e) {
+            return Response.status(Response.Status.TOO_MANY_REQUESTS)
+                    .header("Retry-After", 5)
+                    .entity(QueryResponse.error(request.question(), "File d'attente pleine, réessayez plus tard"))
+                    .build();
+        }
+        return Response.accepted(QueryJobResponse.from(job))
+                .location(uriInfo.getAbsolutePathBuilder().path(job.id()).build())
+                .build();
+    }
+
+    /**
+     * @param wait délai maximal (secondes) d'attente de la fin du job avant de répondre,
+     *             plafonné par {@code nlsql.jobs.max-wait-seconds} ; 0 = réponse immédiate
+     */
+    @GET
+    @Path("/{id}")
+    @RunOnVirtualThread
+    public Response get(@PathParam("id") String id, @QueryParam("wait") @DefaultValue("0") long wait) {
+        QueryJob job = jobService.get(id);
+        if (job == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(QueryResponse.error(null, "Job inconnu ou expiré : " + id))
+                    .build();
+        }
+        if (wait > 0 && !job.isDone()) {
+            job.await(Duration.ofSeconds(Math.min(wait, maxWaitSeconds)));
+        }
+        return Response.ok(QueryJobResponse.from(job)).build();
+    }
+
+    /**
+     * Abonnement SSE : émet l'état courant ("status"), puis les étapes du pipeline encore à venir
+     * (context, sql, retry, rows, token) et enfin "done" ou "error" avec l'état final du job.
+     */
+    @GET
+    @Path("/{id}/events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RunOnVirtualThread
+    public void events(@PathParam("id") String id, @Context SseEventSink sink, @Context Sse sse) {
+        SsePipelineListener listener = new SsePipelineListener(sink, sse);
+        try (sink) {
+            QueryJob job = jobService.get(id);
+            if (job == null) {
+                listener.send("error", QueryResponse.error(null, "Job inconnu ou expiré : " + id))
+                        .toCompletableFuture().join();
+                return;
+            }
+
+            // Abonnement avant l'état courant : aucune étape émise entre les deux n'est perdue
+            job.subscribe(listener);
+            try {
+                listener.send("status", QueryJobResponse.from(job)).toCompletableFuture().join();
+                // Attente de la fin du job tant que le client reste connecté
+                boolean done = false;
+                while (!done && !sink.isClosed()) {
+                    done = job.await(Duration.ofSeconds(maxWaitSeconds));
+                }
+            } finally {
+                job.unsubscribe(listener);
+            }
+            if (job.isDone()) {
+                QueryJobResponse response = QueryJobResponse.from(job);
+                listener.send(response.error() == null ? "done" : "error", response)
+                        .toCompletableFuture().join();
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.yourorg.nlsqlengine.api;
+
+import com.yourorg.nlsqlengine.job.QueryJob;
+import com.yourorg.nlsqlengine.orchestration.OrchestratorResult;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * État d'un job asynchrone : statut, horodatage, durées (file d'attente, exécution)
+ * et, une fois terminé, le contenu d'un {@link QueryResponse}.
+ */
+public record QueryJobResponse(
+        String id,
+        QueryJob.Status status,
+        String question,
+        String submittedAt,
+        long queueMs,
+        Long runMs,
+        String generatedSql,
+        List<Map<String, Object>> results,
+        String answer,
+        String error
+) {
+    static QueryJobResponse from(QueryJob job) {
+        OrchestratorResult result = job.result();
+        return new QueryJobResponse(
+                job.id(),
+                job.status(),
+                job.question(),
+                job.submittedAt().toString(),
+                job.queueMs(),
+                job.runMs(),
+                result != null ? result.generatedSql() : null,
+                result != null ? result.results() : null,
+                result != null ? result.answer() : null,
+                result != null ? result.error() : null
+        );
+    }
+}
@@ -1,4 +1,15 @@
 package com.yourorg.nlsqlengine.api;
 
-public record QueryRequest(String question, Long domainId) {
+import com.yourorg.nlsqlengine.llm.AnswerMode;
+
+/**
+ * @param answerMode mode de formulation de la réponse (none, template, llm) ;
+ *                   null = mode par défaut {@code nlsql.answer.default-mode}
+ * @param format     format des lignes (rows, columnar) ; null = rows
+ */
+public record QueryRequest(String question, Long domainId, AnswerMode answerMode, ResultFormat format) {
+
+    public QueryRequest(String question, Long domainId, AnswerMode answerMode) {
+        this(question, domainId, answerMode, null);
+    }
 }
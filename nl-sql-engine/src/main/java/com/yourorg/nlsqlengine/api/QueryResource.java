@@ -1,52 +1,230 @@
 package com.yourorg.nlsqlengine.api;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourorg.nlsqlengine.cancel.CancellationToken;
+import com.yourorg.nlsqlengine.cancel.QueryCancelledException;
+import com.yourorg.nlsqlengine.cancel.QueryRegistry;
+import com.yourorg.nlsqlengine.llm.LlmOverloadedException;
 import com.yourorg.nlsqlengine.orchestration.NlSqlOrchestrator;
 import com.yourorg.nlsqlengine.orchestration.OrchestratorResult;
+import com.yourorg.nlsqlengine.orchestration.PipelineListener;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.vertx.core.http.HttpServerResponse;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Point d'entrée NL → SQL. Le pipeline enchaîne des appels bloquants (embedding, JDBC, deux à quatre
+ * appels Ollama de jusqu'à 120 s) : chaque requête s'exécute sur son propre thread virtuel, si bien
+ * que le nombre de requêtes en cours n'est plus plafonné par le pool de workers mais par le limiteur
+ * de concurrence devant Ollama ({@code nlsql.llm.limiter.*}) et le pool JDBC.
+ * <p>
+ * Chaque requête porte un identifiant (en-tête {@code X-Query-Id}, fourni par le client ou généré) :
+ * {@code DELETE /api/query/{id}} ou la déconnexion du client l'annulent, ce qui interrompt l'appel
+ * Ollama et la requête SQL en cours au lieu de les laisser aller à leur terme pour rien.
+ * <p>
+ * {@code "format": "columnar"} remplace {@code results} (une map par ligne) par {@code columns}
+ * et des lignes positionnelles {@code rows} ({@link ResultFormat}) ; le flux SSE garde le format rows.
+ */
 @Path("/api/query")
 @Consumes(MediaType.APPLICATION_JSON)
 @Produces(MediaType.APPLICATION_JSON)
 public class QueryResource {
 
+    static final String QUERY_ID_HEADER = "X-Query-Id";
+
+    /** Statut non standard (nginx) d'une requête abandonnée par le client. */
+    private static final int CLIENT_CLOSED_REQUEST = 499;
+
     @Inject
     NlSqlOrchestrator orchestrator;
 
+    @Inject
+    QueryRegistry registry;
+
+    @Inject
+    ObjectMapper objectMapper;
+
     @POST
-    public Response query(QueryRequest request) {
+    @RunOnVirtualThread
+    public Response query(QueryRequest request, @HeaderParam(QUERY_ID_HEADER) String queryId,
+                          @Context HttpServerResponse httpResponse) {
         if (request == null || request.question() == null || request.question().isBlank()) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(QueryResponse.error(null, "La question est obligatoire"))
                     .build();
         }
 
+        String id = queryId != null && !queryId.isBlank() ? queryId : UUID.randomUUID().toString();
+        CancellationToken token = registry.register(id, httpResponse::closed);
+        if (token == null) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(QueryResponse.error(request.question(), "Une requête est déjà en cours avec l'identifiant " + id))
+                    .build();
+        }
         try {
-            OrchestratorResult result = orchestrator.process(request.question(), request.domainId());
+            OrchestratorResult result = token.bind(() -> orchestrator.process(request.question(), request.domainId(),
+                    request.answerMode(), PipelineListener.NONE));
 
-            QueryResponse response = new QueryResponse(
-                    result.question(),
-                    result.generatedSql(),
-                    result.results(),
-                    result.answer(),
-                    result.error()
-            );
+            QueryResponse response = QueryResponse.from(result, request.format());
 
             if (result.isSuccess()) {
-                return Response.ok(response).build();
+                return Response.ok(response).header(QUERY_ID_HEADER, id).build();
             } else {
                 return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .header(QUERY_ID_HEADER, id)
                         .entity(response).build();
             }
+        } catch (QueryCancelledException e) {
+            return Response.status(CLIENT_CLOSED_REQUEST)
+                    .header(QUERY_ID_HEADER, id)
+                    .entity(QueryResponse.error(request.question(), e.getMessage()))
+                    .build();
+        } catch (LlmOverloadedException e) {
+            return Response.status(Response.Status.TOO_MANY_REQUESTS)
+                    .header("Retry-After", 5)
+                    .header(QUERY_ID_HEADER, id)
+                    .entity(QueryResponse.error(request.question(), e.getMessage()))
+                    .build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .header(QUERY_ID_HEADER, id)
                     .entity(QueryResponse.error(request.question(), e.getMessage()))
                     .build();
+        } finally {
+            registry.unregister(id, token);
+        }
+    }
+
+    /**
+     * Variante de {@link #query} pour les résultats volumineux : les lignes sont lues sur un curseur
+     * côté serveur et écrites au fil de l'eau dans la réponse (chunked), sans être conservées en mémoire ;
+     * seules les premières servent à formuler la réponse, écrite après les lignes. L'en-tête étant envoyé
+     * avant l'exécution, le statut est 200 et un échec est signalé par le champ {@code error}.
+     */
+    @POST
+    @Path("/export")
+    @RunOnVirtualThread
+    public Response export(QueryRequest request, @HeaderParam(QUERY_ID_HEADER) String queryId,
+                           @Context HttpServerResponse httpResponse) {
+        if (request == null || request.question() == null || request.question().isBlank()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(QueryResponse.error(null, "La question est obligatoire"))
+                    .build();
+        }
+
+        String id = queryId != null && !queryId.isBlank() ? queryId : UUID.randomUUID().toString();
+        StreamingOutput output = out -> {
+            // Enregistrée à l'écriture de la réponse seulement, pour être désenregistrée à coup sûr
+            CancellationToken token = registry.register(id, httpResponse::closed);
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                if (token == null) {
+                    objectMapper.writeValue(json, QueryResponse.error(request.question(),
+                            "Une requête est déjà en cours avec l'identifiant " + id));
+                    return;
+                }
+                JsonRowWriter rows = new JsonRowWriter(json, request.format());
+                json.writeStartObject();
+                json.writeStringField("question", request.question());
+                String sql = null;
+                String answer = null;
+                String error;
+                try {
+                    OrchestratorResult result = token.bind(() -> orchestrator.export(request.question(),
+                            request.domainId(), request.answerMode(), rows));
+                    sql = result.generatedSql();
+                    answer = result.answer();
+                    error = result.error();
+                } catch (Exception e) {
+                    error = e.getMessage();
+                }
+                rows.finish(sql);
+                json.writeStringField("answer", answer);
+                json.writeStringField("error", error);
+                json.writeEndObject();
+            } finally {
+                if (token != null) {
+                    registry.unregister(id, token);
+                }
+            }
+        };
+        return Response.ok(output).header(QUERY_ID_HEADER, id).build();
+    }
+
+    /**
+     * Annule la requête {@code id} en cours (synchrone ou SSE) : 204 si elle était en cours, 404 sinon.
+     */
+    @DELETE
+    @Path("/{id}")
+    public Response cancel(@PathParam("id") String id) {
+        if (!registry.cancel(id, "annulée par DELETE")) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(QueryResponse.error(null, "Requête inconnue ou terminée : " + id))
+                    .build();
+        }
+        return Response.noContent().build();
+    }
+
+    /**
+     * Variante Server-Sent Events de {@link #query} : chaque étape est émise dès qu'elle est terminée
+     * (contexte, SQL, retries, lignes) puis la réponse est streamée fragment par fragment.
+     * Le premier événement ("query") donne l'identifiant de la requête, utilisable pour l'annuler.
+     */
+    @POST
+    @Path("/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RunOnVirtualThread
+    public void stream(QueryRequest request, @HeaderParam(QUERY_ID_HEADER) String queryId,
+                       @Context SseEventSink sink, @Context Sse sse) {
+        SsePipelineListener listener = new SsePipelineListener(sink, sse);
+        try (sink) {
+            if (request == null || request.question() == null || request.question().isBlank()) {
+                listener.send("error", QueryResponse.error(null, "La question est obligatoire"))
+                        .toCompletableFuture().join();
+                return;
+            }
+
+            String id = queryId != null && !queryId.isBlank() ? queryId : UUID.randomUUID().toString();
+            CancellationToken token = registry.register(id, sink::isClosed);
+            if (token == null) {
+                listener.send("error", QueryResponse.error(request.question(),
+                        "Une requête est déjà en cours avec l'identifiant " + id)).toCompletableFuture().join();
+                return;
+            }
+            QueryResponse response;
+            String event;
+            try {
+                // Le premier envoi installe aussi la détection de fermeture du flux (sink.isClosed())
+                listener.send("query", Map.of("id", id)).toCompletableFuture().join();
+                OrchestratorResult result = token.bind(() -> orchestrator.process(request.question(),
+                        request.domainId(), request.answerMode(), listener));
+                // Les lignes ont déjà été émises dans l'événement "rows"
+                response = new QueryResponse(result.question(), result.generatedSql(), null,
+                        result.answer(), result.error());
+                event = result.isSuccess() ? "done" : "error";
+            } catch (Exception e) {
+                response = QueryResponse.error(request.question(), e.getMessage());
+                event = "error";
+            } finally {
+                registry.unregister(id, token);
+            }
+            listener.send(event, response).toCompletableFuture().join();
         }
     }
 }
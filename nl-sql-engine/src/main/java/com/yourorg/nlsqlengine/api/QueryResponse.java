@@ -1,15 +1,41 @@
 package com.yourorg.nlsqlengine.api;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.yourorg.nlsqlengine.orchestration.OrchestratorResult;
+import com.yourorg.nlsqlengine.sql.ResultTable;
+
 import java.util.List;
 import java.util.Map;
 
+/**
+ * @param results lignes {@code {colonne: valeur}} (format rows), null en format columnar
+ * @param columns colonnes du résultat (format columnar uniquement)
+ * @param rows    lignes positionnelles, dans l'ordre de {@code columns} (format columnar uniquement)
+ */
 public record QueryResponse(
         String question,
         String generatedSql,
         List<Map<String, Object>> results,
+        @JsonInclude(JsonInclude.Include.NON_NULL) List<ResultTable.Column> columns,
+        @JsonInclude(JsonInclude.Include.NON_NULL) List<Object[]> rows,
         String answer,
         String error
 ) {
+    public QueryResponse(String question, String generatedSql, List<Map<String, Object>> results,
+                         String answer, String error) {
+        this(question, generatedSql, results, null, null, answer, error);
+    }
+
+    public static QueryResponse from(OrchestratorResult result, ResultFormat format) {
+        ResultTable table = result.table();
+        if (format == ResultFormat.COLUMNAR && table != null) {
+            return new QueryResponse(result.question(), result.generatedSql(), null, table.columns(), table.rows(),
+                    result.answer(), result.error());
+        }
+        return new QueryResponse(result.question(), result.generatedSql(), result.results(),
+                result.answer(), result.error());
+    }
+
     public static QueryResponse error(String question, String error) {
         return new QueryResponse(question, null, null, null, error);
     }
@@ -0,0 +1,37 @@
+package com.yourorg.nlsqlengine.api;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
+/**
+ * Format des lignes dans la réponse, choisi par requête.
+ */
+public enum ResultFormat {
+
+    /** Une map {@code {colonne: valeur}} par ligne dans {@code results} (format historique). */
+    ROWS,
+    /**
+     * Format compact : description des colonnes ({@code columns}, nom et type SQL) puis lignes sous forme
+     * de tableaux positionnels ({@code rows}) ; les noms de colonnes ne sont plus répétés à chaque ligne.
+     */
+    COLUMNAR;
+
+    @JsonCreator
+    public static ResultFormat fromValue(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return valueOf(value.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("format inconnu : " + value + " (attendu : rows ou columnar)");
+        }
+    }
+
+    @JsonValue
+    public String value() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,67 @@
+package com.yourorg.nlsqlengine.api;
+
+import com.yourorg.nlsqlengine.orchestration.PipelineListener;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Diffuse chaque étape du pipeline sous forme d'événement Server-Sent Events (données JSON).
+ * Événements : context, sql, retry, rows, token, puis done ou error.
+ */
+class SsePipelineListener implements PipelineListener {
+
+    private final SseEventSink sink;
+    private final Sse sse;
+
+    SsePipelineListener(SseEventSink sink, Sse sse) {
+        this.sink = sink;
+        this.sse = sse;
+    }
+
+    @Override
+    public void onContext(String context) {
+        send("context", Map.of("context", context));
+    }
+
+    @Override
+    public void onCacheHit(String sql) {
+        send("sql", Map.of("attempt", 0, "sql", sql, "cached", true));
+    }
+
+    @Override
+    public void onSqlGenerated(int attempt, String sql) {
+        send("sql", Map.of("attempt", attempt, "sql", String.valueOf(sql), "cached", false));
+    }
+
+    @Override
+    public void onRetry(int attempt, String error) {
+        send("retry", Map.of("attempt", attempt, "error", String.valueOf(error)));
+    }
+
+    @Override
+    public void onResults(List<Map<String, Object>> results) {
+        send("rows", Map.of("rowCount", results.size(), "results", results));
+    }
+
+    @Override
+    public void onAnswerToken(String token) {
+        send("token", Map.of("token", token));
+    }
+
+    CompletionStage<?> send(String name, Object data) {
+        if (sink.isClosed()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return sink.send(sse.newEventBuilder()
+                .name(name)
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .data(data)
+                .build());
+    }
+}
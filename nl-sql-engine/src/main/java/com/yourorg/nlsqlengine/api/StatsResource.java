@@ -0,0 +1,87 @@
+package com.yourorg.nlsqlengine.api;
+
+import com.yourorg.nlsqlengine.cache.ExactQueryCache;
+import com.yourorg.nlsqlengine.cancel.QueryRegistry;
+import com.yourorg.nlsqlengine.cache.QueryEmbeddingCache;
+import com.yourorg.nlsqlengine.cache.SemanticQueryCache;
+import com.yourorg.nlsqlengine.job.QueryJobService;
+import com.yourorg.nlsqlengine.llm.AdaptiveConcurrencyLimiter;
+import com.yourorg.nlsqlengine.llm.LlmBackendPool;
+import com.yourorg.nlsqlengine.llm.PromptAssembler;
+import com.yourorg.nlsqlengine.orchestration.NlSqlOrchestrator;
+import com.yourorg.nlsqlengine.sql.SqlPostProcessor;
+import com.yourorg.nlsqlengine.sql.SqlRepairer;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Path("/api/stats")
+@Produces(MediaType.APPLICATION_JSON)
+public class StatsResource {
+
+    @Inject
+    ExactQueryCache exactCache;
+
+    @Inject
+    SemanticQueryCache semanticCache;
+
+    @Inject
+    QueryEmbeddingCache embeddingCache;
+
+    @Inject
+    QueryJobService jobService;
+
+    @Inject
+    AdaptiveConcurrencyLimiter llmLimiter;
+
+    @Inject
+    LlmBackendPool llmBackends;
+
+    @Inject
+    NlSqlOrchestrator orchestrator;
+
+    @Inject
+    PromptAssembler promptAssembler;
+
+    @Inject
+    SqlRepairer sqlRepairer;
+
+    @Inject
+    SqlPostProcessor sqlPostProcessor;
+
+    @Inject
+    QueryRegistry queryRegistry;
+
+    @GET
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("exactCache", exactCache.stats());
+        stats.put("semanticCache", semanticCache.stats());
+        stats.put("embeddingCache", embeddingCache.stats());
+        stats.put("jobs", jobService.stats());
+        stats.put("llmLimiter", llmLimiter.stats());
+        stats.put("llmBackends", llmBackends.stats());
+        stats.put("coalescing", orchestrator.coalescingStats());
+        stats.put("prompt", promptAssembler.stats());
+        stats.put("sqlRepair", sqlRepairer.stats());
+        stats.put("numericCasting", sqlPostProcessor.stats());
+        stats.put("cancellations", queryRegistry.stats());
+        return stats;
+    }
+
+    @DELETE
+    @Path("/caches")
+    public Response clearCaches() {
+        exactCache.clear();
+        semanticCache.clear();
+        embeddingCache.clear();
+        return Response.noContent().build();
+    }
+}
@@ -1,5 +1,8 @@
 package com.yourorg.nlsqlengine.api;
 
+import com.yourorg.nlsqlengine.tracing.PipelineTracer;
+import io.opentelemetry.api.trace.SpanKind;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
@@ -8,6 +11,7 @@ import org.jboss.resteasy.reactive.RestForm;
 import org.jboss.resteasy.reactive.multipart.FileUpload;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -24,25 +28,27 @@ public class VoiceResource {
     @ConfigProperty(name = "voice.piper.url", defaultValue = "http://piper:5000")
     String piperUrl;
 
+    @Inject
+    PipelineTracer tracer;
+
     private final HttpClient httpClient = HttpClient.newHttpClient();
 
     @POST
     @Path("/transcribe")
     @Consumes(MediaType.MULTIPART_FORM_DATA)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response transcribe(@RestForm("file") FileUpload file) throws IOException, InterruptedException {
+    public Response transcribe(@RestForm("file") FileUpload file) throws IOException {
         byte[] audioBytes = Files.readAllBytes(file.uploadedFile());
         String boundary = UUID.randomUUID().toString();
 
         byte[] multipartBody = buildMultipart(boundary, file.fileName(), audioBytes);
 
-        HttpRequest request = HttpRequest.newBuilder()
+        HttpRequest.Builder request = HttpRequest.newBuilder()
                 .uri(URI.create(whisperUrl + "/v1/audio/transcriptions"))
                 .header("Content-Type", "multipart/form-data; boundary=" + boundary)
-                .POST(HttpRequest.BodyPublishers.ofByteArray(multipartBody))
-                .build();
+                .POST(HttpRequest.BodyPublishers.ofByteArray(multipartBody));
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = send("whisper", request, HttpResponse.BodyHandlers.ofString());
         return Response.status(response.statusCode())
                 .type(MediaType.APPLICATION_JSON)
                 .entity(response.body())
@@ -53,15 +59,14 @@ public class VoiceResource {
     @Path("/speak")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces("audio/wav")
-    public Response speak(SpeakRequest speakRequest) throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
+    public Response speak(SpeakRequest speakRequest) throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder()
                 .uri(URI.create(piperUrl + "/synthesize"))
                 .header("Content-Type", "application/json")
                 .POST(HttpRequest.BodyPublishers.ofString(
-                        "{\"text\":\"" + speakRequest.text().replace("\"", "\\\"") + "\"}"))
-                .build();
+                        "{\"text\":\"" + speakRequest.text().replace("\"", "\\\"") + "\"}"));
 
-        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        HttpResponse<byte[]> response = send("piper", request, HttpResponse.BodyHandlers.ofByteArray());
         return Response.status(response.statusCode())
                 .type("audio/wav")
                 .entity(response.body())
@@ -70,6 +75,27 @@ public class VoiceResource {
 
     public record SpeakRequest(String text) {}
 
+    /**
+     * Appel sortant vers un service vocal dans un span client, avec propagation du contexte de trace.
+     */
+    private <T> HttpResponse<T> send(String service, HttpRequest.Builder builder, HttpResponse.BodyHandler<T> handler)
+            throws IOException {
+        return tracer.inSpan("VoiceResource." + service, SpanKind.CLIENT, span -> {
+            tracer.injectHeaders(builder);
+            HttpRequest request = builder.build();
+            span.setAttribute("http.request.method", request.method());
+            span.setAttribute("url.full", request.uri().toString());
+            try {
+                HttpResponse<T> response = httpClient.send(request, handler);
+                span.setAttribute("http.response.status_code", response.statusCode());
+                return response;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Appel " + service + " interrompu");
+            }
+        });
+    }
+
     private byte[] buildMultipart(String boundary, String filename, byte[] fileBytes) {
         String header = "--" + boundary + "\r\n"
                 + "Content-Disposition: form-data; name=\"file\"; filename=\"" + filename + "\"\r\n"
@@ -0,0 +1,171 @@
+package com.yourorg.nlsqlengine.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache exact question normalisée → SQL validé, à deux niveaux :
+ * un LRU borné en mémoire (niveau chaud) et un fichier append-only
+ * qui survit aux redémarrages (niveau persistant).
+ * Une entrée trouvée uniquement sur disque est promue dans le niveau chaud.
+ */
+@ApplicationScoped
+public class ExactQueryCache {
+
+    private static final Logger LOG = Logger.getLogger(ExactQueryCache.class);
+
+    @ConfigProperty(name = "nlsql.cache.exact.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "nlsql.cache.exact.max-entries", defaultValue = "1000")
+    int maxEntries;
+
+    @ConfigProperty(name = "nlsql.cache.exact.persistent", defaultValue = "true")
+    boolean persistent;
+
+    @ConfigProperty(name = "nlsql.cache.exact.file", defaultValue = "data/sql-cache.jsonl")
+    String file;
+
+    private final AtomicLong hotHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private final LinkedHashMap<String, String> hot = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    private SqlCacheFileStore store;
+
+    @PostConstruct
+    void init() {
+        if (enabled && persistent) {
+            open(Path.of(file));
+        }
+    }
+
+    void open(Path path) {
+        try {
+            store = SqlCacheFileStore.open(path);
+        } catch (IOException e) {
+            LOG.warnf(e, "Cache SQL persistant indisponible (%s), seul le niveau mémoire est actif", path);
+            store = null;
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        if (store != null) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                LOG.warn("Erreur à la fermeture du cache SQL persistant", e);
+            }
+        }
+    }
+
+    public String get(Long domainId, String question) {
+        if (!enabled) {
+            return null;
+        }
+        String key = QuestionNormalizer.key(domainId, question);
+        String sql;
+        synchronized (hot) {
+            sql = hot.get(key);
+        }
+        if (sql != null) {
+            hotHits.incrementAndGet();
+            return sql;
+        }
+
+        sql = readFromDisk(key);
+        if (sql != null) {
+            diskHits.incrementAndGet();
+            synchronized (hot) {
+                hot.put(key, sql);
+            }
+            return sql;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(Long domainId, String question, String sql) {
+        if (!enabled || sql == null) {
+            return;
+        }
+        String key = QuestionNormalizer.key(domainId, question);
+        String previous;
+        synchronized (hot) {
+            previous = hot.put(key, sql);
+        }
+        if (store != null && !sql.equals(previous)) {
+            try {
+                store.put(key, sql);
+            } catch (IOException e) {
+                LOG.warnf("Écriture impossible dans le cache SQL persistant : %s", e.getMessage());
+            }
+        }
+    }
+
+    public void invalidate(Long domainId, String question) {
+        String key = QuestionNormalizer.key(domainId, question);
+        synchronized (hot) {
+            hot.remove(key);
+        }
+        if (store != null) {
+            try {
+                store.remove(key);
+            } catch (IOException e) {
+                LOG.warnf("Suppression impossible dans le cache SQL persistant : %s", e.getMessage());
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (hot) {
+            hot.clear();
+        }
+        if (store != null) {
+            try {
+                store.clear();
+            } catch (IOException e) {
+                LOG.warnf("Purge impossible du cache SQL persistant : %s", e.getMessage());
+            }
+        }
+    }
+
+    public Stats stats() {
+        int hotSize;
+        synchronized (hot) {
+            hotSize = hot.size();
+        }
+        return new Stats(hotHits.get(), diskHits.get(), misses.get(), hotSize, store != null ? store.size() : 0);
+    }
+
+    private String readFromDisk(String key) {
+        if (store == null) {
+            return null;
+        }
+        try {
+            return store.get(key);
+        } catch (IOException e) {
+            LOG.warnf("Lecture impossible dans le cache SQL persistant : %s", e.getMessage());
+            return null;
+        }
+    }
+
+    public record Stats(long hotHits, long diskHits, long misses, int hotSize, int diskSize) {
+    }
+}
@@ -0,0 +1,99 @@
+package com.yourorg.nlsqlengine.cache;
+
+import dev.langchain4j.data.embedding.Embedding;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache texte normalisé → embedding, pour ne pas recalculer l'embedding (e5-mistral-7b,
+ * 4096 dimensions, plusieurs centaines de ms sur CPU) d'une question déjà vue.
+ * Les vecteurs sont stockés en float[] ou, si {@code float16} est activé, en demi-précision
+ * (2 octets par dimension, soit 8 Ko au lieu de 16 Ko par entrée) au prix d'une perte de
+ * précision négligeable pour la similarité cosinus. Éviction LRU au-delà de la taille maximale.
+ */
+@ApplicationScoped
+public class QueryEmbeddingCache {
+
+    @ConfigProperty(name = "nlsql.cache.embedding.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "nlsql.cache.embedding.max-entries", defaultValue = "2000")
+    int maxEntries;
+
+    @ConfigProperty(name = "nlsql.cache.embedding.float16", defaultValue = "false")
+    boolean float16;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private final LinkedHashMap<String, Object> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * Retourne l'embedding en cache du texte, ou le calcule avec {@code embedder} et le met en cache.
+     * Le calcul se fait hors verrou : deux appels simultanés pour un même texte absent
+     * peuvent tous deux le calculer.
+     */
+    public Embedding computeIfAbsent(String text, Function<String, Embedding> embedder) {
+        if (!enabled) {
+            return embedder.apply(text);
+        }
+        String key = QuestionNormalizer.normalize(text);
+        Object packed;
+        synchronized (entries) {
+            packed = entries.get(key);
+        }
+        if (packed != null) {
+            hits.incrementAndGet();
+            return Embedding.from(unpack(packed));
+        }
+
+        misses.incrementAndGet();
+        Embedding embedding = embedder.apply(text);
+        Object value = float16 ? toFloat16(embedding.vector()) : embedding.vector().clone();
+        synchronized (entries) {
+            entries.put(key, value);
+        }
+        return embedding;
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public CacheStats stats() {
+        synchronized (entries) {
+            return new CacheStats(hits.get(), misses.get(), entries.size());
+        }
+    }
+
+    private static float[] unpack(Object packed) {
+        if (packed instanceof short[] half) {
+            float[] vector = new float[half.length];
+            for (int i = 0; i < half.length; i++) {
+                vector[i] = Float.float16ToFloat(half[i]);
+            }
+            return vector;
+        }
+        return ((float[]) packed).clone();
+    }
+
+    private static short[] toFloat16(float[] vector) {
+        short[] half = new short[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            half[i] = Float.floatToFloat16(vector[i]);
+        }
+        return half;
+    }
+}
@@ -0,0 +1,40 @@
+package com.yourorg.nlsqlengine.cache;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalise une question utilisateur pour en faire une clé de cache stable :
+ * minuscules, accents supprimés, apostrophes unifiées, espaces compactés
+ * et ponctuation finale retirée.
+ */
+public final class QuestionNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern APOSTROPHES = Pattern.compile("[’‘`´]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[\\s?!.]+$");
+
+    private QuestionNormalizer() {
+    }
+
+    public static String normalize(String question) {
+        if (question == null) {
+            return "";
+        }
+        String s = Normalizer.normalize(question, Normalizer.Form.NFD);
+        s = DIACRITICS.matcher(s).replaceAll("");
+        s = APOSTROPHES.matcher(s).replaceAll("'");
+        s = s.toLowerCase(Locale.ROOT);
+        s = WHITESPACE.matcher(s).replaceAll(" ").strip();
+        return TRAILING_PUNCTUATION.matcher(s).replaceAll("");
+    }
+
+    /**
+     * Clé de cache d'une question, préfixée par le domaine ("*" si aucun domaine).
+     */
+    public static String key(Long domainId, String question) {
+        return (domainId == null ? "*" : domainId.toString()) + "|" + normalize(question);
+    }
+}
@@ -0,0 +1,140 @@
+package com.yourorg.nlsqlengine.cache;
+
+import dev.langchain4j.data.embedding.Embedding;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache sémantique question → SQL validé, indexé par (domainId, embedding de la question).
+ * Une question dont l'embedding est suffisamment proche (similarité cosinus) d'une question
+ * déjà traitée avec succès réutilise directement le SQL, sans appel LLM de génération.
+ * Les entrées expirent après un TTL et les moins récemment utilisées sont évincées
+ * au-delà de la taille maximale.
+ */
+@ApplicationScoped
+public class SemanticQueryCache {
+
+    @ConfigProperty(name = "nlsql.cache.semantic.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "nlsql.cache.semantic.similarity-threshold", defaultValue = "0.95")
+    double similarityThreshold;
+
+    @ConfigProperty(name = "nlsql.cache.semantic.ttl-minutes", defaultValue = "60")
+    long ttlMinutes;
+
+    @ConfigProperty(name = "nlsql.cache.semantic.max-entries", defaultValue = "500")
+    int maxEntries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long nextId;
+
+    // Ordre d'accès : l'entrée la plus ancienne est la moins récemment utilisée
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * Retourne le SQL associé à la question la plus proche du même domaine,
+     * ou null si aucune entrée ne dépasse le seuil de similarité.
+     */
+    public synchronized String lookup(Long domainId, Embedding questionEmbedding) {
+        if (!enabled) {
+            return null;
+        }
+        float[] query = normalize(questionEmbedding.vector());
+        long now = System.nanoTime();
+
+        Long bestId = null;
+        double bestScore = similarityThreshold;
+        Iterator<Map.Entry<Long, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Entry> candidate = it.next();
+            Entry entry = candidate.getValue();
+            if (isExpired(entry, now)) {
+                it.remove();
+                continue;
+            }
+            if (!Objects.equals(entry.domainId(), domainId) || entry.vector().length != query.length) {
+                continue;
+            }
+            double score = dot(query, entry.vector());
+            if (score >= bestScore) {
+                bestScore = score;
+                bestId = candidate.getKey();
+            }
+        }
+
+        if (bestId == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        // get() déplace l'entrée en fin d'ordre d'accès (LRU)
+        return entries.get(bestId).sql();
+    }
+
+    public synchronized void put(Long domainId, Embedding questionEmbedding, String sql) {
+        if (!enabled || sql == null) {
+            return;
+        }
+        entries.put(nextId++, new Entry(domainId, normalize(questionEmbedding.vector()), sql, System.nanoTime()));
+    }
+
+    /**
+     * Supprime les entrées d'un domaine pointant vers un SQL qui n'est plus exécutable.
+     */
+    public synchronized void invalidate(Long domainId, String sql) {
+        entries.values().removeIf(e -> Objects.equals(e.domainId(), domainId) && e.sql().equals(sql));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits.get(), misses.get(), entries.size());
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdAt() >= TimeUnit.MINUTES.toNanos(ttlMinutes);
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        norm = Math.sqrt(norm);
+        float[] normalized = new float[vector.length];
+        if (norm == 0) {
+            return normalized;
+        }
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = (float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private record Entry(Long domainId, float[] vector, String sql, long createdAt) {
+    }
+}
@@ -0,0 +1,251 @@
+package com.yourorg.nlsqlengine.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.jboss.logging.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stockage disque append-only des entrées clé → SQL, une ligne JSON par écriture.
+ * Seul l'index (clé → position dans le fichier) est gardé en mémoire ; le SQL est relu
+ * à la demande. Une suppression est un enregistrement "sql": null (tombstone).
+ * Au chargement, le fichier est relu (mémoire mappée) et une éventuelle dernière ligne
+ * tronquée par un arrêt brutal est ignorée. Une écriture identique à l'entrée déjà sur disque
+ * (clé remise dans le cache après éviction du niveau mémoire) n'ajoute pas d'enregistrement ;
+ * le fichier est compacté, au chargement comme en cours de fonctionnement, dès que la majorité
+ * des enregistrements sont obsolètes.
+ */
+class SqlCacheFileStore implements Closeable {
+
+    private static final Logger LOG = Logger.getLogger(SqlCacheFileStore.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int COMPACTION_MIN_RECORDS = 100;
+
+    private final Path file;
+    private final Map<String, Location> index = new HashMap<>();
+    // Verrou plutôt que synchronized : lectures, écritures, force et compaction sont des E/S disque
+    // bloquantes, qui ne doivent pas épingler le thread porteur des appelants virtuels
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel channel;
+    private long records;
+
+    private SqlCacheFileStore(Path file) {
+        this.file = file;
+    }
+
+    static SqlCacheFileStore open(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        SqlCacheFileStore store = new SqlCacheFileStore(file);
+        store.load();
+        if (store.needsCompaction()) {
+            store.compact();
+        }
+        store.channel = openChannel(file);
+        return store;
+    }
+
+    private static FileChannel openChannel(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+    }
+
+    String get(String key) throws IOException {
+        lock.lock();
+        try {
+            Location location = index.get(key);
+            if (location == null) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(location.length());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, location.offset() + buffer.position()) < 0) {
+                    throw new IOException("Fin de fichier inattendue dans " + file);
+                }
+            }
+            JsonNode node = MAPPER.readTree(buffer.array());
+            return node.path("sql").asText(null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void put(String key, String sql) throws IOException {
+        lock.lock();
+        try {
+            if (sql != null && index.containsKey(key) && sql.equals(get(key))) {
+                return;
+            }
+            Location location = append(key, sql);
+            if (sql == null) {
+                index.remove(key);
+            } else {
+                index.put(key, location);
+            }
+            if (needsCompaction()) {
+                channel.force(true);
+                channel.close();
+                compact();
+                channel = openChannel(file);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long records() {
+        return records;
+    }
+
+    void remove(String key) throws IOException {
+        lock.lock();
+        try {
+            if (index.containsKey(key)) {
+                put(key, null);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void clear() throws IOException {
+        lock.lock();
+        try {
+            channel.truncate(0);
+            index.clear();
+            records = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (channel != null) {
+                channel.force(true);
+                channel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Location append(String key, String sql) throws IOException {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("key", key);
+        node.put("sql", sql);
+        byte[] json = MAPPER.writeValueAsBytes(node);
+
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        long offset = channel.size();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, offset + buffer.position());
+        }
+        records++;
+        return new Location(offset, json.length);
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        long validLength = 0;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            int lineStart = 0;
+            for (int i = 0; i < mapped.limit(); i++) {
+                if (mapped.get(i) != '\n') {
+                    continue;
+                }
+                int length = i - lineStart;
+                if (length > 0) {
+                    byte[] line = new byte[length];
+                    mapped.get(lineStart, line);
+                    indexLine(line, lineStart);
+                }
+                lineStart = i + 1;
+                validLength = lineStart;
+            }
+        }
+        if (validLength < Files.size(file)) {
+            LOG.warnf("Dernier enregistrement incomplet ignoré dans %s", file);
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ch.truncate(validLength);
+            }
+        }
+        LOG.infof("Cache SQL persistant chargé : %d entrées (%d enregistrements)", index.size(), records);
+    }
+
+    private void indexLine(byte[] line, long offset) {
+        try {
+            JsonNode node = MAPPER.readTree(line);
+            String key = node.path("key").asText(null);
+            if (key == null) {
+                return;
+            }
+            records++;
+            if (node.path("sql").isNull()) {
+                index.remove(key);
+            } else {
+                index.put(key, new Location(offset, line.length));
+            }
+        } catch (IOException e) {
+            LOG.warnf("Enregistrement illisible ignoré à la position %d de %s", offset, file);
+        }
+    }
+
+    private boolean needsCompaction() {
+        return records >= COMPACTION_MIN_RECORDS && records > 2L * index.size();
+    }
+
+    private void compact() throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Map<String, Location> compacted = new HashMap<>();
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Map.Entry<String, Location> entry : index.entrySet()) {
+                Location location = entry.getValue();
+                ByteBuffer buffer = ByteBuffer.allocate(location.length() + 1);
+                source.read(buffer, location.offset());
+                buffer.flip();
+                long offset = target.position();
+                target.write(buffer);
+                compacted.put(entry.getKey(), new Location(offset, location.length()));
+            }
+            target.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOG.infof("Cache SQL persistant compacté : %d -> %d enregistrements", records, compacted.size());
+        index.clear();
+        index.putAll(compacted);
+        records = compacted.size();
+    }
+
+    private record Location(long offset, int length) {
+    }
+}
@@ -0,0 +1,161 @@
+package com.yourorg.nlsqlengine.cancel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Jeton d'annulation d'une requête. Rattaché au thread qui traite la requête ({@link #bind}) et hérité
+ * par les threads virtuels qu'il crée (étapes parallèles, candidats spéculatifs), il permet aux appels
+ * bloquants de s'interrompre : chaque appel enregistre une action d'annulation ({@link #onCancel})
+ * pour sa durée, exécutée immédiatement si la requête est annulée entre-temps
+ * ({@code Statement.cancel()} pour JDBC, interruption du thread pour un appel au LLM).
+ * <p>
+ * Les actions s'exécutent sous un verrou également pris au désenregistrement : une fois
+ * {@link Registration#close()} revenu, l'action ne peut plus se déclencher.
+ */
+public final class CancellationToken {
+
+    /** Jeton des traitements non annulables (jobs, tâches de démarrage, tests). */
+    public static final CancellationToken NONE = new CancellationToken();
+
+    private static final InheritableThreadLocal<CancellationToken> CURRENT = new InheritableThreadLocal<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Runnable> actions = new ArrayList<>();
+    private volatile String reason;
+
+    /** Jeton du thread courant, {@link #NONE} hors d'une requête annulable. */
+    public static CancellationToken current() {
+        CancellationToken token = CURRENT.get();
+        return token != null ? token : NONE;
+    }
+
+    /**
+     * Exécute {@code body} avec ce jeton comme jeton courant du thread (et des threads qu'il crée).
+     */
+    public <T> T bind(Supplier<T> body) {
+        CancellationToken previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return body.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Annule la requête et déclenche les actions enregistrées.
+     *
+     * @return false si la requête était déjà annulée
+     */
+    public boolean cancel(String reason) {
+        if (this == NONE) {
+            return false;
+        }
+        lock.lock();
+        try {
+            if (this.reason != null) {
+                return false;
+            }
+            this.reason = reason;
+            for (Runnable action : actions) {
+                action.run();
+            }
+            actions.clear();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isCancelled() {
+        return reason != null;
+    }
+
+    public String reason() {
+        return reason;
+    }
+
+    /**
+     * @throws QueryCancelledException si la requête a été annulée
+     */
+    public void throwIfCancelled() {
+        if (reason != null) {
+            throw cancelled();
+        }
+    }
+
+    /**
+     * Enregistre {@code action} jusqu'à la fermeture de l'enregistrement retourné.
+     * Si la requête est déjà annulée, l'action est exécutée immédiatement.
+     */
+    public Registration onCancel(Runnable action) {
+        if (this == NONE) {
+            return () -> { };
+        }
+        lock.lock();
+        try {
+            if (reason != null) {
+                action.run();
+                return () -> { };
+            }
+            actions.add(action);
+        } finally {
+            lock.unlock();
+        }
+        return () -> {
+            lock.lock();
+            try {
+                actions.remove(action);
+            } finally {
+                lock.unlock();
+            }
+        };
+    }
+
+    /**
+     * Exécute un appel bloquant interruptible (client HTTP, attente d'un créneau) : l'annulation
+     * interrompt le thread appelant. Si la requête a été annulée, l'appel se termine par une
+     * {@link QueryCancelledException}, quelle que soit son issue, et le statut d'interruption
+     * du thread est effacé pour ne pas affecter les traitements suivants.
+     */
+    public <T> T interruptible(Supplier<T> call) {
+        if (this == NONE) {
+            return call.get();
+        }
+        throwIfCancelled();
+        Thread caller = Thread.currentThread();
+        T result;
+        try (Registration ignored = onCancel(caller::interrupt)) {
+            result = call.get();
+        } catch (RuntimeException e) {
+            if (isCancelled()) {
+                Thread.interrupted();
+                throw cancelled();
+            }
+            throw e;
+        }
+        if (isCancelled()) {
+            Thread.interrupted();
+            throw cancelled();
+        }
+        return result;
+    }
+
+    private QueryCancelledException cancelled() {
+        return new QueryCancelledException("Requête annulée : " + reason);
+    }
+
+    /** Enregistrement d'une action d'annulation, à fermer à la fin de l'appel protégé. */
+    public interface Registration extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
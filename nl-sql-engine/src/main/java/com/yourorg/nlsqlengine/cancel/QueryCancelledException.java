@@ -0,0 +1,12 @@
+package com.yourorg.nlsqlengine.cancel;
+
+/**
+ * Levée par une étape du pipeline quand la requête a été annulée (client déconnecté ou
+ * {@code DELETE /api/query/{id}}) : le pipeline s'arrête sans retry ni réponse rédigée.
+ */
+public class QueryCancelledException extends RuntimeException {
+
+    public QueryCancelledException(String message) {
+        super(message);
+    }
+}
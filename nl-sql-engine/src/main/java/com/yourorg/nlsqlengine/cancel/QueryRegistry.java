@@ -0,0 +1,107 @@
+package com.yourorg.nlsqlengine.cancel;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Requêtes en cours par identifiant, pour les annuler depuis une autre requête
+ * ({@code DELETE /api/query/{id}}) ou sur déconnexion du client.
+ * La déconnexion est détectée par une vérification périodique ({@code nlsql.query.disconnect-check-ms})
+ * de l'état de la connexion de chaque requête : le gestionnaire de fermeture de la réponse Vert.x
+ * est unique et déjà utilisé par le flux SSE, il ne peut pas servir aux deux.
+ */
+@ApplicationScoped
+public class QueryRegistry {
+
+    private static final Logger LOG = Logger.getLogger(QueryRegistry.class);
+
+    @ConfigProperty(name = "nlsql.query.disconnect-check-ms", defaultValue = "500")
+    long disconnectCheckMs = 500;
+
+    private final Map<String, RunningQuery> running = new ConcurrentHashMap<>();
+    private final AtomicLong cancelled = new AtomicLong();
+    private ScheduledExecutorService watcher;
+
+    @PostConstruct
+    void init() {
+        if (disconnectCheckMs > 0) {
+            watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "nlsql-query-disconnect");
+                thread.setDaemon(true);
+                return thread;
+            });
+            watcher.scheduleWithFixedDelay(this::cancelDisconnected, disconnectCheckMs, disconnectCheckMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+    }
+
+    /**
+     * Enregistre une requête et retourne son jeton, ou null si l'identifiant est déjà utilisé
+     * par une requête en cours.
+     *
+     * @param disconnected vrai une fois le client déconnecté : la requête est alors annulée
+     */
+    public CancellationToken register(String id, BooleanSupplier disconnected) {
+        CancellationToken token = new CancellationToken();
+        return running.putIfAbsent(id, new RunningQuery(token, disconnected)) == null ? token : null;
+    }
+
+    public void unregister(String id, CancellationToken token) {
+        running.computeIfPresent(id, (key, query) -> query.token() == token ? null : query);
+    }
+
+    /**
+     * Annule la requête {@code id}. Retourne false si elle est inconnue ou déjà terminée.
+     */
+    public boolean cancel(String id, String reason) {
+        RunningQuery query = running.get(id);
+        if (query == null) {
+            return false;
+        }
+        if (query.token().cancel(reason)) {
+            cancelled.incrementAndGet();
+            LOG.infof("Requête %s annulée (%s)", id, reason);
+        }
+        return true;
+    }
+
+    public CancellationStats stats() {
+        return new CancellationStats(running.size(), cancelled.get());
+    }
+
+    void cancelDisconnected() {
+        running.forEach((id, query) -> {
+            try {
+                if (!query.token().isCancelled() && query.disconnected().getAsBoolean()) {
+                    cancel(id, "client déconnecté");
+                }
+            } catch (RuntimeException e) {
+                LOG.debugf("Vérification de la connexion de la requête %s en échec : %s", id, e.getMessage());
+            }
+        });
+    }
+
+    private record RunningQuery(CancellationToken token, BooleanSupplier disconnected) {
+    }
+
+    public record CancellationStats(int running, long cancelled) {
+    }
+}
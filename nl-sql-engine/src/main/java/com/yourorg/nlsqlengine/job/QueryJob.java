@@ -0,0 +1,204 @@
+package com.yourorg.nlsqlengine.job;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.yourorg.nlsqlengine.llm.AnswerMode;
+import com.yourorg.nlsqlengine.orchestration.OrchestratorResult;
+import com.yourorg.nlsqlengine.orchestration.PipelineListener;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Requête NL → SQL exécutée en arrière-plan. Conserve son état, ses horodatages et son résultat,
+ * et relaie les étapes du pipeline aux abonnés (SSE) présents au moment où elles se produisent.
+ */
+public final class QueryJob {
+
+    private static final Logger LOG = Logger.getLogger(QueryJob.class);
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED;
+
+        @JsonValue
+        public String value() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final String id;
+    private final String question;
+    private final Long domainId;
+    private final AnswerMode answerMode;
+    private final Instant submittedAt = Instant.now();
+    private final CompletableFuture<QueryJob> completion = new CompletableFuture<>();
+    private final List<PipelineListener> subscribers = new CopyOnWriteArrayList<>();
+    private final PipelineListener fanOut = new FanOutListener();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile OrchestratorResult result;
+
+    QueryJob(String id, String question, Long domainId, AnswerMode answerMode) {
+        this.id = id;
+        this.question = question;
+        this.domainId = domainId;
+        this.answerMode = answerMode;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public String question() {
+        return question;
+    }
+
+    public Long domainId() {
+        return domainId;
+    }
+
+    AnswerMode answerMode() {
+        return answerMode;
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    public Instant submittedAt() {
+        return submittedAt;
+    }
+
+    public Instant startedAt() {
+        return startedAt;
+    }
+
+    public Instant finishedAt() {
+        return finishedAt;
+    }
+
+    /** Résultat de l'orchestrateur, null tant que le job n'est pas terminé. */
+    public OrchestratorResult result() {
+        return result;
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    /** Temps passé dans la file d'attente (jusqu'à maintenant si le job n'a pas démarré). */
+    public long queueMs() {
+        Instant end = startedAt != null ? startedAt : Instant.now();
+        return Duration.between(submittedAt, end).toMillis();
+    }
+
+    /** Temps d'exécution du pipeline, null si le job n'a pas démarré. */
+    public Long runMs() {
+        if (startedAt == null) {
+            return null;
+        }
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        return Duration.between(startedAt, end).toMillis();
+    }
+
+    /**
+     * Attend la fin du job au plus {@code timeout}.
+     *
+     * @return true si le job est terminé
+     */
+    public boolean await(Duration timeout) {
+        try {
+            completion.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return completion.isDone();
+        }
+    }
+
+    public void subscribe(PipelineListener listener) {
+        subscribers.add(listener);
+    }
+
+    public void unsubscribe(PipelineListener listener) {
+        subscribers.remove(listener);
+    }
+
+    PipelineListener listener() {
+        return fanOut;
+    }
+
+    void start() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void complete(OrchestratorResult result) {
+        this.result = result;
+        finishedAt = Instant.now();
+        status = result.isSuccess() ? Status.SUCCEEDED : Status.FAILED;
+        completion.complete(this);
+    }
+
+    /**
+     * Diffuse chaque événement à tous les abonnés ; un abonné défaillant (connexion fermée)
+     * n'interrompt ni les autres ni le job.
+     */
+    private final class FanOutListener implements PipelineListener {
+
+        @Override
+        public void onContext(String context) {
+            notify(l -> l.onContext(context));
+        }
+
+        @Override
+        public void onCacheHit(String sql) {
+            notify(l -> l.onCacheHit(sql));
+        }
+
+        @Override
+        public void onSqlGenerated(int attempt, String sql) {
+            notify(l -> l.onSqlGenerated(attempt, sql));
+        }
+
+        @Override
+        public void onRetry(int attempt, String error) {
+            notify(l -> l.onRetry(attempt, error));
+        }
+
+        @Override
+        public void onResults(List<Map<String, Object>> results) {
+            notify(l -> l.onResults(results));
+        }
+
+        @Override
+        public void onAnswerToken(String token) {
+            notify(l -> l.onAnswerToken(token));
+        }
+
+        private void notify(Consumer<PipelineListener> event) {
+            for (PipelineListener subscriber : subscribers) {
+                try {
+                    event.accept(subscriber);
+                } catch (Exception e) {
+                    LOG.debugf("Abonné du job %s en échec : %s", id, e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.yourorg.nlsqlengine.job;
+
+import com.yourorg.nlsqlengine.llm.AnswerMode;
+import com.yourorg.nlsqlengine.orchestration.NlSqlOrchestrator;
+import com.yourorg.nlsqlengine.orchestration.OrchestratorResult;
+import io.opentelemetry.context.Context;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exécution asynchrone des requêtes NL → SQL : un pool borné de workers devant l'orchestrateur,
+ * alimenté par une file d'attente de capacité fixe. Quand la file est pleine, la soumission est
+ * refusée immédiatement ({@link RejectedExecutionException}) plutôt que d'accumuler du retard.
+ * Les jobs terminés restent consultables pendant la durée de rétention.
+ */
+@ApplicationScoped
+public class QueryJobService {
+
+    private static final Logger LOG = Logger.getLogger(QueryJobService.class);
+
+    @Inject
+    NlSqlOrchestrator orchestrator;
+
+    @ConfigProperty(name = "nlsql.jobs.workers", defaultValue = "4")
+    int workers;
+
+    @ConfigProperty(name = "nlsql.jobs.queue-capacity", defaultValue = "32")
+    int queueCapacity;
+
+    @ConfigProperty(name = "nlsql.jobs.retention-minutes", defaultValue = "30")
+    long retentionMinutes;
+
+    private final Map<String, QueryJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "nlsql-job-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Met la question en file d'attente et retourne immédiatement le job créé.
+     *
+     * @throws RejectedExecutionException si la file d'attente est pleine
+     */
+    public QueryJob submit(String question, Long domainId, AnswerMode answerMode) {
+        purgeExpired();
+        QueryJob job = new QueryJob(UUID.randomUUID().toString(), question, domainId, answerMode);
+        jobs.put(job.id(), job);
+        try {
+            // Le job reste rattaché à la trace de la requête POST qui l'a soumis
+            executor.execute(Context.current().wrap(() -> run(job)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id());
+            rejected.incrementAndGet();
+            LOG.warnf("File des jobs pleine (%d en attente), question refusée : %s", queueCapacity, question);
+            throw e;
+        }
+        return job;
+    }
+
+    /** Retourne le job, ou null s'il est inconnu ou a expiré. */
+    public QueryJob get(String id) {
+        purgeExpired();
+        return jobs.get(id);
+    }
+
+    public JobStats stats() {
+        return new JobStats(executor.getQueue().size(), executor.getActiveCount(), jobs.size(),
+                completed.get(), rejected.get());
+    }
+
+    /**
+     * Le job passe toujours son listener de diffusion aux abonnés SSE : il n'est donc jamais regroupé
+     * avec une requête identique en cours (regroupement réservé aux appels sans listener) et sa réponse
+     * est générée en streaming, même sans abonné.
+     */
+    private void run(QueryJob job) {
+        job.start();
+        OrchestratorResult result;
+        try {
+            result = orchestrator.process(job.question(), job.domainId(), job.answerMode(), job.listener());
+        } catch (Exception e) {
+            LOG.errorf(e, "Job %s en échec", job.id());
+            result = OrchestratorResult.error(job.question(), null, e.getMessage());
+        }
+        // Compté avant de réveiller les attentes : un client qui voit le job terminé le voit dans les stats
+        completed.incrementAndGet();
+        job.complete(result);
+        LOG.infof("Job %s terminé (%s) : attente %d ms, exécution %d ms",
+                job.id(), job.status().value(), job.queueMs(), job.runMs());
+    }
+
+    private void purgeExpired() {
+        Instant limit = Instant.now().minus(Duration.ofMinutes(retentionMinutes));
+        jobs.values().removeIf(job -> job.finishedAt() != null && job.finishedAt().isBefore(limit));
+    }
+
+    public record JobStats(int queued, int running, int retained, long completed, long rejected) {
+    }
+}
@@ -0,0 +1,179 @@
+package com.yourorg.nlsqlengine.llm;
+
+import com.yourorg.nlsqlengine.cancel.CancellationToken;
+import com.yourorg.nlsqlengine.cancel.QueryCancelledException;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Contrôle d'admission devant Ollama : borne le nombre d'appels LLM simultanés avec une limite
+ * adaptative AIMD. Chaque appel réussi sous la latence cible augmente la limite d'environ un appel
+ * par "fenêtre" (+1/limite) ; un appel en erreur ou plus lent que la cible la réduit
+ * multiplicativement. Au-delà de la limite, les appels attendent dans une file bornée ;
+ * si la file est pleine ou l'attente trop longue, l'appel échoue immédiatement
+ * ({@link LlmOverloadedException}) au lieu d'aggraver la saturation d'Ollama.
+ * <p>
+ * Verrou {@link ReentrantLock} plutôt que {@code synchronized} : les appelants peuvent être
+ * des threads virtuels, qui ne doivent pas rester épinglés à leur porteur pendant l'attente.
+ */
+@ApplicationScoped
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger LOG = Logger.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    @ConfigProperty(name = "nlsql.llm.limiter.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "nlsql.llm.limiter.initial-limit", defaultValue = "4")
+    int initialLimit;
+
+    @ConfigProperty(name = "nlsql.llm.limiter.min-limit", defaultValue = "1")
+    int minLimit;
+
+    @ConfigProperty(name = "nlsql.llm.limiter.max-limit", defaultValue = "16")
+    int maxLimit;
+
+    @ConfigProperty(name = "nlsql.llm.limiter.max-queue", defaultValue = "32")
+    int maxQueue;
+
+    @ConfigProperty(name = "nlsql.llm.limiter.max-wait-ms", defaultValue = "30000")
+    long maxWaitMs;
+
+    @ConfigProperty(name = "nlsql.llm.limiter.latency-target-ms", defaultValue = "20000")
+    long latencyTargetMs;
+
+    @ConfigProperty(name = "nlsql.llm.limiter.backoff-ratio", defaultValue = "0.75")
+    double backoffRatio;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition permitReleased = lock.newCondition();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private double limit = Double.NaN;
+    private int inFlight;
+    private int waiting;
+
+    /**
+     * Exécute {@code call} dès qu'une place se libère sous la limite courante,
+     * puis ajuste la limite selon la latence et l'issue de l'appel.
+     *
+     * @throws LlmOverloadedException si la file d'attente est pleine ou l'attente dépasse max-wait-ms
+     */
+    public <T> T execute(Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        acquire();
+        long start = System.nanoTime();
+        boolean success = false;
+        boolean cancelled = false;
+        try {
+            T result = call.get();
+            success = true;
+            return result;
+        } catch (QueryCancelledException e) {
+            cancelled = true;
+            throw e;
+        } finally {
+            release(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), success, cancelled);
+        }
+    }
+
+    public LimiterStats stats() {
+        lock.lock();
+        try {
+            return new LimiterStats(currentLimit(), inFlight, waiting, completed.get(), rejected.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire() {
+        lock.lock();
+        try {
+            if (inFlight < currentLimit() && waiting == 0) {
+                inFlight++;
+                return;
+            }
+            if (waiting >= maxQueue) {
+                throw reject("File d'attente LLM pleine (" + waiting + " appels en attente)");
+            }
+
+            waiting++;
+            long remaining = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+            try {
+                while (inFlight >= currentLimit()) {
+                    if (remaining <= 0) {
+                        throw reject("Attente d'un créneau LLM supérieure à " + maxWaitMs + " ms");
+                    }
+                    remaining = permitReleased.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                // Interruption due à l'annulation de la requête : 499 côté client, pas une erreur serveur
+                CancellationToken token = CancellationToken.current();
+                if (token.isCancelled()) {
+                    throw new QueryCancelledException("Requête annulée : " + token.reason());
+                }
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Requête interrompue en attente d'un créneau LLM", e);
+            } finally {
+                waiting--;
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param cancelled appel abandonné par le client : ni succès ni signe de saturation, la limite est inchangée ;
+     *                  le créneau n'est rendu qu'au retour de l'appel amont, jamais sur simple abandon de l'appelant
+     */
+    private void release(long latencyMs, boolean success, boolean cancelled) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (cancelled) {
+                permitReleased.signalAll();
+                return;
+            }
+            completed.incrementAndGet();
+            int previous = currentLimit();
+            if (success && latencyMs <= latencyTargetMs) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            } else {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            }
+            if (currentLimit() != previous) {
+                LOG.infof("Limite de concurrence LLM : %d -> %d (latence %d ms, %s)",
+                        previous, currentLimit(), latencyMs, success ? "succès" : "échec");
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int currentLimit() {
+        if (Double.isNaN(limit)) {
+            limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        }
+        return (int) limit;
+    }
+
+    private LlmOverloadedException reject(String message) {
+        rejected.incrementAndGet();
+        LOG.warn(message);
+        return new LlmOverloadedException("Service LLM saturé : " + message);
+    }
+
+    public record LimiterStats(int limit, int inFlight, int queued, long completed, long rejected) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.yourorg.nlsqlengine.llm;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
+/**
+ * Mode de formulation de la réponse en langage naturel, choisi par requête.
+ */
+public enum AnswerMode {
+
+    /** Pas de réponse rédigée : seuls le SQL et les lignes sont retournés. */
+    NONE,
+    /** Phrase générée sans LLM pour les résultats simples, LLM en repli pour les autres. */
+    TEMPLATE,
+    /** Réponse toujours rédigée par le LLM. */
+    LLM;
+
+    @JsonCreator
+    public static AnswerMode fromValue(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return valueOf(value.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("answerMode inconnu : " + value + " (attendu : none, template ou llm)");
+        }
+    }
+
+    @JsonValue
+    public String value() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
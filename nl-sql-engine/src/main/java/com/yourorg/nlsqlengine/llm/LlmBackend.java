@@ -0,0 +1,132 @@
+package com.yourorg.nlsqlengine.llm;
+
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Un serveur Ollama du pool : ses modèles (chat streamé, embedding) et son état de routage
+ * (appels en cours, santé, échecs consécutifs, latences).
+ */
+final class LlmBackend {
+
+    private final String baseUrl;
+    private final StreamingChatModel streamingChatModel;
+    private final EmbeddingModel embeddingModel;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong failures = new AtomicLong();
+    private final Timer latency;
+    private volatile boolean healthy = true;
+    private volatile boolean ejectedForSlowness;
+    private volatile long slowEjectionEndNanos;
+
+    /**
+     * @param latency timer Micrometer du backend ({@code nlsql.llm.backend.latency}, tag {@code backend})
+     */
+    LlmBackend(String baseUrl, StreamingChatModel streamingChatModel, EmbeddingModel embeddingModel, Timer latency) {
+        this.baseUrl = baseUrl;
+        this.streamingChatModel = streamingChatModel;
+        this.embeddingModel = embeddingModel;
+        this.latency = latency;
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    StreamingChatModel streamingChatModel() {
+        return streamingChatModel;
+    }
+
+    EmbeddingModel embeddingModel() {
+        return embeddingModel;
+    }
+
+    int outstanding() {
+        return outstanding.get();
+    }
+
+    boolean isHealthy() {
+        return healthy;
+    }
+
+    void acquire() {
+        outstanding.incrementAndGet();
+    }
+
+    /**
+     * Fin d'un appel. Retourne true si le backend vient d'atteindre {@code ejectAfter} échecs
+     * (ou appels trop lents) consécutifs et doit être écarté.
+     */
+    boolean release(long latencyMs, boolean failed, boolean slow, int ejectAfter) {
+        outstanding.decrementAndGet();
+        latency.record(latencyMs, TimeUnit.MILLISECONDS);
+        if (failed) {
+            failures.incrementAndGet();
+        }
+        if (!failed && !slow) {
+            consecutiveFailures.set(0);
+            return false;
+        }
+        return consecutiveFailures.incrementAndGet() >= ejectAfter && healthy;
+    }
+
+    /**
+     * Fin d'un appel annulé par le client, une fois l'appel amont effectivement terminé (voir
+     * {@code LlmClient.call}) : ni latence ni issue enregistrées.
+     */
+    void abandon() {
+        outstanding.decrementAndGet();
+    }
+
+    void markHealthy() {
+        consecutiveFailures.set(0);
+        ejectedForSlowness = false;
+        healthy = true;
+    }
+
+    /**
+     * Écarte le backend pour lenteur pendant {@code cooldownMs} : il répond encore à la sonde,
+     * qui ne suffit donc pas à le réintégrer avant la fin de ce délai.
+     */
+    void markSlow(long cooldownMs) {
+        slowEjectionEndNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(cooldownMs);
+        ejectedForSlowness = true;
+        healthy = false;
+    }
+
+    /**
+     * True si une sonde réussie peut réintégrer le backend : toujours, sauf pendant
+     * la mise à l'écart d'un backend écarté pour lenteur.
+     */
+    boolean readmittableByProbe() {
+        return !ejectedForSlowness || System.nanoTime() - slowEjectionEndNanos >= 0;
+    }
+
+    void markUnhealthy() {
+        healthy = false;
+    }
+
+    LlmBackendPool.BackendStats stats() {
+        HistogramSnapshot snapshot = latency.takeSnapshot();
+        return new LlmBackendPool.BackendStats(baseUrl, healthy, outstanding.get(), snapshot.count(), failures.get(),
+                percentileMs(snapshot, 0.5), percentileMs(snapshot, 0.95), percentileMs(snapshot, 0.99));
+    }
+
+    private static long percentileMs(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return (long) Math.ceil(value.value(TimeUnit.MILLISECONDS));
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,335 @@
+package com.yourorg.nlsqlengine.llm;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.yourorg.nlsqlengine.cancel.QueryCancelledException;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.ollama.OllamaEmbeddingModel;
+import dev.langchain4j.model.ollama.OllamaStreamingChatModel;
+import dev.langchain4j.model.output.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Pool de serveurs Ollama ({@code nlsql.llm.backends}) pour le chat et les embeddings.
+ * Chaque appel part vers le backend sain ayant le moins d'appels en cours (à égalité, tour à tour).
+ * Un backend est écarté après {@code eject.consecutive-failures} échecs ou appels trop lents
+ * consécutifs, ou si la sonde {@code /api/tags} échoue ; il est réintégré à la sonde réussie suivante.
+ * La sonde ne mesure que la joignabilité : un backend écarté pour lenteur n'est réintégré
+ * qu'après {@code eject.slow-cooldown-ms}.
+ * Si aucun backend n'est sain, tous restent utilisables plutôt que de refuser la requête.
+ * Sans liste configurée, le pool contient un seul backend : les modèles Quarkus de
+ * {@code quarkus.langchain4j.ollama.*}.
+ */
+@ApplicationScoped
+public class LlmBackendPool {
+
+    private static final Logger LOG = Logger.getLogger(LlmBackendPool.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Inject
+    StreamingChatModel streamingChatModel;
+
+    @Inject
+    EmbeddingModel embeddingModel;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "nlsql.llm.backends")
+    Optional<List<String>> backendUrls;
+
+    @ConfigProperty(name = "quarkus.langchain4j.ollama.base-url", defaultValue = "http://localhost:11434")
+    String defaultBaseUrl;
+
+    @ConfigProperty(name = "quarkus.langchain4j.ollama.chat-model.model-id", defaultValue = "mistral")
+    String chatModelId;
+
+    @ConfigProperty(name = "quarkus.langchain4j.ollama.chat-model.temperature", defaultValue = "0.0")
+    double temperature;
+
+    @ConfigProperty(name = "quarkus.langchain4j.ollama.embedding-model.model-id")
+    String embeddingModelId;
+
+    @ConfigProperty(name = "quarkus.langchain4j.ollama.timeout", defaultValue = "120s")
+    Duration timeout;
+
+    @ConfigProperty(name = "nlsql.llm.health.interval-seconds", defaultValue = "10")
+    long healthIntervalSeconds = 10;
+
+    @ConfigProperty(name = "nlsql.llm.health.timeout-ms", defaultValue = "2000")
+    long healthTimeoutMs = 2000;
+
+    @ConfigProperty(name = "nlsql.llm.eject.consecutive-failures", defaultValue = "3")
+    int ejectAfterFailures = 3;
+
+    @ConfigProperty(name = "nlsql.llm.eject.slow-call-ms", defaultValue = "60000")
+    long slowCallMs = 60_000;
+
+    @ConfigProperty(name = "nlsql.llm.eject.slow-cooldown-ms", defaultValue = "120000")
+    long slowCooldownMs = 120_000;
+
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private final EmbeddingModel routedEmbeddingModel = new RoutedEmbeddingModel();
+    private volatile List<LlmBackend> backends = List.of();
+    private HttpClient probeClient;
+    private ScheduledExecutorService prober;
+
+    @PostConstruct
+    void init() {
+        List<String> urls = backendUrls.orElse(List.of()).stream().filter(url -> !url.isBlank()).toList();
+        if (urls.isEmpty()) {
+            start(List.of(new LlmBackend(defaultBaseUrl, streamingChatModel, embeddingModel,
+                    latencyTimer(defaultBaseUrl))));
+        } else {
+            start(urls.stream().map(this::buildBackend).toList());
+        }
+        LOG.infof("Pool LLM : %d backend(s) %s", backends.size(),
+                backends.stream().map(LlmBackend::baseUrl).toList());
+    }
+
+    /**
+     * Démarre le pool sur les backends donnés, avec la sonde de santé périodique si l'intervalle est positif.
+     */
+    void start(List<LlmBackend> pool) {
+        backends = List.copyOf(pool);
+        probeClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(healthTimeoutMs))
+                .build();
+        if (healthIntervalSeconds > 0) {
+            prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "nlsql-llm-health");
+                thread.setDaemon(true);
+                return thread;
+            });
+            prober.scheduleWithFixedDelay(this::probeAll, healthIntervalSeconds, healthIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (prober != null) {
+            prober.shutdownNow();
+        }
+    }
+
+    /**
+     * Exécute un appel sur le backend le moins chargé et enregistre sa latence et son issue.
+     * Un appel annulé par le client n'est pas enregistré : il ne dit rien de la santé du backend.
+     * L'appel reste compté en cours jusqu'au retour de {@code call}, donc de l'appel amont.
+     */
+    <T> T execute(Function<LlmBackend, T> call) {
+        LlmBackend backend = select();
+        backend.acquire();
+        long start = System.nanoTime();
+        boolean failed = true;
+        boolean cancelled = false;
+        try {
+            T result = call.apply(backend);
+            failed = false;
+            return result;
+        } catch (QueryCancelledException e) {
+            cancelled = true;
+            throw e;
+        } finally {
+            if (cancelled) {
+                backend.abandon();
+            } else {
+                long latencyMs = (System.nanoTime() - start) / 1_000_000;
+                boolean slow = latencyMs > slowCallMs;
+                if (backend.release(latencyMs, failed, slow, ejectAfterFailures)) {
+                    if (slow && !failed) {
+                        backend.markSlow(slowCooldownMs);
+                    } else {
+                        backend.markUnhealthy();
+                    }
+                    LOG.warnf("Backend LLM %s écarté après %d échecs ou appels lents consécutifs",
+                            backend.baseUrl(), ejectAfterFailures);
+                }
+            }
+        }
+    }
+
+    /**
+     * Charge le modèle de chat ({@code POST /api/generate} sans prompt) et le modèle d'embedding
+     * ({@code POST /api/embed}) en mémoire sur chaque backend, pour que la première requête ne paie pas
+     * leur chargement.
+     *
+     * @param keepAliveSeconds durée pendant laquelle Ollama garde les modèles chargés, null = défaut du serveur
+     * @return nombre de modèles chargés (deux par backend si tout a réussi)
+     */
+    public int preloadModels(Integer keepAliveSeconds) {
+        int loaded = 0;
+        for (LlmBackend backend : backends) {
+            ObjectNode chat = MAPPER.createObjectNode().put("model", chatModelId);
+            ObjectNode embed = MAPPER.createObjectNode().put("model", embeddingModelId).put("input", "warm-up");
+            if (keepAliveSeconds != null) {
+                chat.put("keep_alive", keepAliveSeconds);
+                embed.put("keep_alive", keepAliveSeconds);
+            }
+            if (preload(backend, "/api/generate", chat)) {
+                loaded++;
+            }
+            if (preload(backend, "/api/embed", embed)) {
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Modèle d'embedding dont chaque appel est routé vers un backend du pool.
+     */
+    public EmbeddingModel embeddingModel() {
+        return routedEmbeddingModel;
+    }
+
+    public List<BackendStats> stats() {
+        return backends.stream().map(LlmBackend::stats).toList();
+    }
+
+    LlmBackend select() {
+        List<LlmBackend> pool = backends;
+        List<LlmBackend> candidates = pool.stream().filter(LlmBackend::isHealthy).toList();
+        if (candidates.isEmpty()) {
+            candidates = pool;
+        }
+        // Point de départ tournant : à charge égale, les appels sont répartis plutôt que concentrés sur le premier
+        int offset = Math.floorMod(roundRobin.getAndIncrement(), candidates.size());
+        List<LlmBackend> rotated = new ArrayList<>(candidates.subList(offset, candidates.size()));
+        rotated.addAll(candidates.subList(0, offset));
+        return rotated.stream().min(Comparator.comparingInt(LlmBackend::outstanding)).orElseThrow();
+    }
+
+    /**
+     * Sonde {@code GET /api/tags} de chaque backend : une réponse 200 dans le délai le (ré)intègre,
+     * sauf s'il a été écarté pour lenteur et que sa mise à l'écart n'est pas terminée ;
+     * toute autre issue l'écarte.
+     */
+    void probeAll() {
+        for (LlmBackend backend : backends) {
+            boolean wasHealthy = backend.isHealthy();
+            if (probe(backend)) {
+                if (!backend.readmittableByProbe()) {
+                    continue;
+                }
+                backend.markHealthy();
+                if (!wasHealthy) {
+                    LOG.infof("Backend LLM %s réintégré", backend.baseUrl());
+                }
+            } else {
+                backend.markUnhealthy();
+                if (wasHealthy) {
+                    LOG.warnf("Backend LLM %s écarté : sonde de santé en échec", backend.baseUrl());
+                }
+            }
+        }
+    }
+
+    private boolean probe(LlmBackend backend) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(backend.baseUrl().replaceAll("/+$", "") + "/api/tags"))
+                .timeout(Duration.ofMillis(healthTimeoutMs))
+                .GET()
+                .build();
+        try {
+            return probeClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            LOG.debugf("Sonde de %s en échec : %s", backend.baseUrl(), e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean preload(LlmBackend backend, String path, ObjectNode body) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(backend.baseUrl().replaceAll("/+$", "") + path))
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))
+                    .build();
+            int status = probeClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status != 200) {
+                LOG.warnf("Préchargement de %s sur %s : HTTP %d", body.get("model").asText(), backend.baseUrl(), status);
+            }
+            return status == 200;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            LOG.warnf("Préchargement de %s sur %s impossible : %s", body.get("model").asText(), backend.baseUrl(), e.getMessage());
+            return false;
+        }
+    }
+
+    private LlmBackend buildBackend(String baseUrl) {
+        // Pas de retry interne : un échec doit être vu par le pool pour écarter le backend
+        return new LlmBackend(baseUrl,
+                OllamaStreamingChatModel.builder()
+                        .baseUrl(baseUrl)
+                        .modelName(chatModelId)
+                        .temperature(temperature)
+                        .timeout(timeout)
+                        .build(),
+                OllamaEmbeddingModel.builder()
+                        .baseUrl(baseUrl)
+                        .modelName(embeddingModelId)
+                        .timeout(timeout)
+                        .maxRetries(0)
+                        .build(),
+                latencyTimer(baseUrl));
+    }
+
+    /**
+     * Latence des appels d'un backend, exposée sur {@code /q/metrics} (p50/p95/p99 et histogramme
+     * pour {@code histogram_quantile}) ; ses percentiles alimentent aussi {@link #stats()}.
+     */
+    Timer latencyTimer(String baseUrl) {
+        return Timer.builder("nlsql.llm.backend.latency")
+                .description("Latence des appels à un serveur Ollama du pool")
+                .tag("backend", baseUrl)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * @param p50Ms percentiles de latence des appels, sur la fenêtre glissante du timer Micrometer
+     */
+    public record BackendStats(String baseUrl, boolean healthy, int outstanding, long requests, long failures,
+                               long p50Ms, long p95Ms, long p99Ms) {
+    }
+
+    private class RoutedEmbeddingModel implements EmbeddingModel {
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+            return execute(backend -> backend.embeddingModel().embedAll(textSegments));
+        }
+    }
+}
@@ -1,40 +1,304 @@
 package com.yourorg.nlsqlengine.llm;
 
-import dev.langchain4j.model.chat.ChatModel;
+import com.yourorg.nlsqlengine.cancel.CancellationToken;
+import com.yourorg.nlsqlengine.cancel.QueryCancelledException;
+import com.yourorg.nlsqlengine.metrics.PipelineMetrics;
+import com.yourorg.nlsqlengine.rag.SchemaSegment;
+import com.yourorg.nlsqlengine.tracing.PipelineTracer;
+import dev.langchain4j.model.chat.StreamingChatModel;
 import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.message.SystemMessage;
 import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.request.ChatRequest;
 import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.PartialResponse;
+import dev.langchain4j.model.chat.response.PartialResponseContext;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.model.chat.response.StreamingHandle;
+import dev.langchain4j.model.ollama.OllamaChatRequestParameters;
+import dev.langchain4j.model.output.TokenUsage;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @ApplicationScoped
 public class LlmClient {
 
+    private static final int WAITING = 0;
+    private static final int CALLING = 1;
+    private static final int ABANDONED = 2;
+
+    @Inject
+    LlmBackendPool backends;
+
+    @Inject
+    PromptAssembler promptAssembler;
+
+    @Inject
+    AdaptiveConcurrencyLimiter limiter;
+
     @Inject
-    ChatModel chatModel;
+    PipelineMetrics metrics;
 
     @Inject
-    PromptBuilder promptBuilder;
+    PipelineTracer tracer;
+
+    @ConfigProperty(name = "nlsql.llm.keep-alive-seconds")
+    Optional<Integer> keepAliveSeconds;
+
+    @ConfigProperty(name = "nlsql.llm.num-ctx")
+    Optional<Integer> numCtx;
 
     public String generateSql(String question, String schema, List<String> businessRules,
                               List<Map.Entry<String, String>> fewShotExamples, String previousError) {
-        String systemPrompt = promptBuilder.getSystemPrompt();
-        String userPrompt = promptBuilder.buildUserPrompt(question, schema, businessRules, fewShotExamples, previousError);
+        return generateSql(question, schema, businessRules, fewShotExamples, previousError, null);
+    }
+
+    /**
+     * Variante avec température explicite (null = température configurée du modèle),
+     * utilisée pour diversifier les candidats de la génération spéculative.
+     */
+    public String generateSql(String question, String schema, List<String> businessRules,
+                              List<Map.Entry<String, String>> fewShotExamples, String previousError,
+                              Double temperature) {
+        return generateSql(question, List.of(new SchemaSegment(null, schema, 1.0)), businessRules,
+                fewShotExamples, previousError, temperature);
+    }
+
+    /**
+     * Variante à partir des segments de schéma notés : le prompt est assemblé dans le budget
+     * de tokens configuré (voir {@link PromptAssembler}).
+     */
+    public String generateSql(String question, List<SchemaSegment> schemaSegments, List<String> businessRules,
+                              List<Map.Entry<String, String>> fewShotExamples, String previousError,
+                              Double temperature) {
+        PromptAssembler.AssembledPrompt prompt = promptAssembler.assemble(question, schemaSegments, businessRules,
+                fewShotExamples, previousError);
 
         List<ChatMessage> messages = List.of(
-                new SystemMessage(systemPrompt),
-                new UserMessage(userPrompt)
+                new SystemMessage(prompt.system()),
+                new UserMessage(prompt.user())
         );
 
-        ChatResponse response = chatModel.chat(messages);
-        return extractSql(response.aiMessage().text());
+        return tracer.inSpan("LlmClient.generateSql", SpanKind.CLIENT, span -> {
+            span.setAttribute("nlsql.llm.retry", previousError != null);
+            span.setAttribute("nlsql.prompt.estimated_tokens", prompt.estimatedTokens());
+            ChatResponse response = call(span, backend ->
+                    streamChat(backend.streamingChatModel(), chatRequest(messages, temperature), fragment -> { }));
+            recordResponse(span, "sql", response);
+            return extractSql(response.aiMessage().text());
+        });
     }
 
     public String generateAnswer(String question, String sql, List<Map<String, Object>> results) {
+        return tracer.inSpan("LlmClient.generateAnswer", SpanKind.CLIENT, span -> {
+            ChatResponse response = call(span, backend -> streamChat(backend.streamingChatModel(),
+                    chatRequest(answerMessages(question, sql, results), null), fragment -> { }));
+            recordResponse(span, "answer", response);
+            return response.aiMessage().text().strip();
+        });
+    }
+
+    /**
+     * Variante streamée de {@link #generateAnswer} : chaque fragment de texte produit par le modèle
+     * est transmis à {@code onToken} dès sa réception. Bloque jusqu'à la fin de la génération
+     * et retourne la réponse complète.
+     */
+    public String streamAnswer(String question, String sql, List<Map<String, Object>> results,
+                               Consumer<String> onToken) {
+        return tracer.inSpan("LlmClient.streamAnswer", SpanKind.CLIENT, span -> {
+            ChatResponse response = call(span, backend -> streamChat(backend.streamingChatModel(),
+                    chatRequest(answerMessages(question, sql, results), null), onToken));
+            recordResponse(span, "answer", response);
+            return response.aiMessage().text().strip();
+        });
+    }
+
+    /**
+     * Appel au modèle sous le limiteur de concurrence, sur le backend le moins chargé.
+     * <p>
+     * L'appel part d'un thread virtuel dédié. Si la requête est annulée, l'appelant est libéré
+     * immédiatement. Tant que l'appel attend un créneau, il est abandonné. Une fois l'échange
+     * HTTP engagé, il n'est pas interrompu : le client REST d'Ollama n'abandonne pas la requête
+     * sur interruption. Les appels de chat passent donc tous par le modèle streamé, dont le flux
+     * est réellement fermé (voir {@link #streamChat}). Le créneau du limiteur et l'appel en cours
+     * du backend restent comptés jusqu'au retour effectif de l'appel amont, c'est-à-dire jusqu'à
+     * la fermeture du flux. L'appel annulé n'est compté ni comme un échec du backend ni comme
+     * un signe de saturation.
+     */
+    // Visibilité package : testé par LlmClientTest
+    <T> T call(Span span, Function<LlmBackend, T> call) {
+        CancellationToken token = CancellationToken.current();
+        if (token == CancellationToken.NONE) {
+            return limiter.execute(() -> backends.execute(backend -> {
+                span.setAttribute("server.address", backend.baseUrl());
+                return call.apply(backend);
+            }));
+        }
+        token.throwIfCancelled();
+
+        AtomicInteger state = new AtomicInteger(WAITING);
+        CompletableFuture<T> upstream = new CompletableFuture<>();
+        Thread worker = Thread.ofVirtual().name("nlsql-llm-call").start(() -> {
+            try {
+                upstream.complete(limiter.execute(() -> backends.execute(backend -> {
+                    if (!state.compareAndSet(WAITING, CALLING)) {
+                        Thread.interrupted();
+                        throw new QueryCancelledException("Requête annulée : " + token.reason());
+                    }
+                    span.setAttribute("server.address", backend.baseUrl());
+                    return call.apply(backend);
+                })));
+            } catch (Throwable e) {
+                upstream.completeExceptionally(e);
+            }
+        });
+        // Interruption réservée à l'attente d'un créneau : aucun appel amont n'est alors engagé
+        try (CancellationToken.Registration ignored = token.onCancel(() -> {
+            if (state.compareAndSet(WAITING, ABANDONED)) {
+                worker.interrupt();
+            }
+        })) {
+            return token.interruptible(() -> await(upstream));
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> upstream) {
+        try {
+            return upstream.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Requête interrompue en attente du LLM", e);
+        }
+    }
+
+    /**
+     * Appel de chat sur le modèle streamé, chaque fragment étant transmis à {@code onToken} ;
+     * bloque jusqu'à la réponse complète. Contrairement à un appel non streamé, il s'arrête
+     * vraiment sur annulation : le flux est fermé via son {@link StreamingHandle}, au plus tard
+     * au premier fragment reçu, et l'appel se termine alors par une {@link QueryCancelledException}.
+     */
+    // Visibilité package : testé par LlmClientTest
+    ChatResponse streamChat(StreamingChatModel streamingChatModel, ChatRequest request, Consumer<String> onToken) {
+        CompletableFuture<ChatResponse> completion = new CompletableFuture<>();
+        AtomicReference<StreamingHandle> handle = new AtomicReference<>();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        CancellationToken token = CancellationToken.current();
+        streamingChatModel.chat(request, new StreamingChatResponseHandler() {
+            @Override
+            public void onPartialResponse(PartialResponse partialResponse, PartialResponseContext context) {
+                handle.set(context.streamingHandle());
+                // Annulation survenue avant le premier fragment : le handle n'est connu qu'ici
+                if (cancelled.get()) {
+                    stopStream(context.streamingHandle(), completion, token);
+                    return;
+                }
+                onPartialResponse(partialResponse.text());
+            }
+
+            @Override
+            public void onPartialResponse(String partialResponse) {
+                if (!cancelled.get()) {
+                    onToken.accept(partialResponse);
+                }
+            }
+
+            @Override
+            public void onCompleteResponse(ChatResponse completeResponse) {
+                completion.complete(completeResponse);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                completion.completeExceptionally(error);
+            }
+        });
+
+        // Annulation : fermeture du flux côté fournisseur, au plus tard au premier fragment reçu ;
+        // l'attente ne se termine qu'une fois le flux réellement arrêté
+        try (CancellationToken.Registration ignored = token.onCancel(() -> {
+            cancelled.set(true);
+            StreamingHandle streaming = handle.get();
+            if (streaming != null) {
+                stopStream(streaming, completion, token);
+            }
+        })) {
+            return completion.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof QueryCancelledException cancelledCall) {
+                throw cancelledCall;
+            }
+            throw new IllegalStateException("Erreur du modèle en streaming : " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Requête interrompue pendant le streaming du modèle", e);
+        }
+    }
+
+    private static void stopStream(StreamingHandle streaming, CompletableFuture<ChatResponse> completion,
+                                   CancellationToken token) {
+        streaming.cancel();
+        completion.completeExceptionally(new QueryCancelledException("Requête annulée : " + token.reason()));
+    }
+
+    /**
+     * Compteurs de tokens (métriques) et attributs du span de l'appel : modèle ayant répondu,
+     * tokens de prompt et de complétion rapportés par Ollama.
+     */
+    private void recordResponse(Span span, String call, ChatResponse response) {
+        metrics.recordTokens(call, response.tokenUsage());
+        span.setAttribute("gen_ai.system", "ollama");
+        if (response.modelName() != null) {
+            span.setAttribute("gen_ai.response.model", response.modelName());
+        }
+        TokenUsage usage = response.tokenUsage();
+        if (usage != null && usage.inputTokenCount() != null) {
+            span.setAttribute("gen_ai.usage.input_tokens", usage.inputTokenCount());
+        }
+        if (usage != null && usage.outputTokenCount() != null) {
+            span.setAttribute("gen_ai.usage.output_tokens", usage.outputTokenCount());
+        }
+    }
+
+    /**
+     * Requête Ollama avec les options de réutilisation du cache KV : {@code keep_alive} garde le modèle
+     * (et son cache de préfixe) chargé entre deux requêtes, et un {@code num_ctx} constant évite
+     * le rechargement du modèle qu'entraîne tout changement de taille de contexte.
+     * Les valeurs non renseignées (null) laissent la configuration du modèle s'appliquer.
+     */
+    private ChatRequest chatRequest(List<ChatMessage> messages, Double temperature) {
+        return ChatRequest.builder()
+                .messages(messages)
+                .parameters(OllamaChatRequestParameters.builder()
+                        .temperature(temperature)
+                        .keepAlive(keepAliveSeconds.orElse(null))
+                        .numCtx(numCtx.orElse(null))
+                        .build())
+                .build();
+    }
+
+    private List<ChatMessage> answerMessages(String question, String sql, List<Map<String, Object>> results) {
         String systemPrompt = "Tu es un assistant qui répond aux questions en langage naturel. "
                 + "On te fournit une question, la requête SQL exécutée et les résultats obtenus. "
                 + "Réponds de manière claire et concise en français, en résumant les résultats. "
@@ -48,16 +312,13 @@ public class LlmClient {
                 + "Résultats (" + results.size() + " lignes) :\n" + truncated + "\n\n"
                 + "Réponds à la question en langage naturel.";
 
-        List<ChatMessage> messages = List.of(
+        return List.of(
                 new SystemMessage(systemPrompt),
                 new UserMessage(userPrompt)
         );
-
-        ChatResponse response = chatModel.chat(messages);
-        return response.aiMessage().text().strip();
     }
 
-    String extractSql(String rawResponse) {
+    public String extractSql(String rawResponse) {
         if (rawResponse == null || rawResponse.isBlank()) {
             return rawResponse;
         }
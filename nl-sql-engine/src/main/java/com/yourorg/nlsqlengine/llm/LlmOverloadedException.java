@@ -0,0 +1,12 @@
+package com.yourorg.nlsqlengine.llm;
+
+/**
+ * Levée quand le limiteur de concurrence refuse un appel LLM (file d'attente pleine
+ * ou attente trop longue). Exposée en HTTP 429 par l'API.
+ */
+public class LlmOverloadedException extends RuntimeException {
+
+    public LlmOverloadedException(String message) {
+        super(message);
+    }
+}
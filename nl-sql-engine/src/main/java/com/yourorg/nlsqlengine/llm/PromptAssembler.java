@@ -0,0 +1,121 @@
+package com.yourorg.nlsqlengine.llm;
+
+import com.yourorg.nlsqlengine.metrics.PipelineMetrics;
+import com.yourorg.nlsqlengine.rag.SchemaSegment;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Assemble le prompt de génération SQL dans un budget de tokens (estimation locale, voir
+ * {@link TokenEstimator}). Au-delà du budget, les sections sont réduites par priorité :
+ * d'abord les exemples few-shot (les derniers, moins populaires, en premier), puis les segments
+ * de schéma les moins pertinents. Le premier segment n'est jamais retiré ; s'il ne tient pas
+ * dans le budget, le prompt est envoyé tel quel et un avertissement est journalisé.
+ */
+@ApplicationScoped
+public class PromptAssembler {
+
+    private static final Logger LOG = Logger.getLogger(PromptAssembler.class);
+
+    @Inject
+    PromptBuilder promptBuilder;
+
+    @Inject
+    PipelineMetrics metrics;
+
+    @ConfigProperty(name = "nlsql.prompt.token-budget", defaultValue = "3500")
+    int tokenBudget;
+
+    @ConfigProperty(name = "nlsql.prompt.chars-per-token")
+    Optional<Double> charsPerToken;
+
+    @ConfigProperty(name = "quarkus.langchain4j.ollama.chat-model.model-id", defaultValue = "mistral")
+    String modelId;
+
+    private TokenEstimator estimator = new TokenEstimator(TokenEstimator.DEFAULT_CHARS_PER_TOKEN);
+    private final AtomicLong prompts = new AtomicLong();
+    private final AtomicLong totalTokens = new AtomicLong();
+    private final AtomicLong maxTokens = new AtomicLong();
+    private final AtomicLong trimmed = new AtomicLong();
+    private final AtomicLong overBudget = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        estimator = charsPerToken.map(TokenEstimator::new).orElseGet(() -> TokenEstimator.forModel(modelId));
+        LOG.infof("Budget du prompt : %d tokens (%.1f caractères/token estimés pour %s)",
+                tokenBudget, estimator.charsPerToken(), modelId);
+    }
+
+    public AssembledPrompt assemble(String question, List<SchemaSegment> segments, List<String> businessRules,
+                                    List<Map.Entry<String, String>> fewShotExamples, String previousError) {
+        String system = promptBuilder.getSystemPrompt();
+        int systemTokens = estimator.estimate(system);
+        List<SchemaSegment> keptSegments = new ArrayList<>(segments);
+        List<Map.Entry<String, String>> keptExamples = fewShotExamples == null
+                ? new ArrayList<>() : new ArrayList<>(fewShotExamples);
+
+        String user = promptBuilder.buildUserPrompt(question, SchemaSegment.join(keptSegments), businessRules,
+                keptExamples, previousError);
+        int tokens = systemTokens + estimator.estimate(user);
+        int droppedExamples = 0;
+        int droppedSegments = 0;
+
+        while (tokenBudget > 0 && tokens > tokenBudget) {
+            if (!keptExamples.isEmpty()) {
+                keptExamples.remove(keptExamples.size() - 1);
+                droppedExamples++;
+            } else if (keptSegments.size() > 1) {
+                keptSegments.remove(keptSegments.stream()
+                        .min(Comparator.comparingDouble(SchemaSegment::score))
+                        .orElseThrow());
+                droppedSegments++;
+            } else {
+                overBudget.incrementAndGet();
+                LOG.warnf("Prompt de %d tokens estimés au-delà du budget de %d malgré la réduction", tokens, tokenBudget);
+                break;
+            }
+            user = promptBuilder.buildUserPrompt(question, SchemaSegment.join(keptSegments), businessRules,
+                    keptExamples, previousError);
+            tokens = systemTokens + estimator.estimate(user);
+        }
+
+        boolean reduced = droppedExamples > 0 || droppedSegments > 0;
+        if (reduced) {
+            trimmed.incrementAndGet();
+            LOG.infof("Prompt réduit à %d tokens estimés : %d exemple(s) et %d segment(s) retirés",
+                    tokens, droppedExamples, droppedSegments);
+        }
+        prompts.incrementAndGet();
+        totalTokens.addAndGet(tokens);
+        maxTokens.accumulateAndGet(tokens, Math::max);
+        metrics.recordPromptTokens(tokens, reduced);
+        return new AssembledPrompt(system, user, tokens, droppedExamples, droppedSegments);
+    }
+
+    public PromptStats stats() {
+        long count = prompts.get();
+        return new PromptStats(count, count == 0 ? 0 : totalTokens.get() / count, maxTokens.get(),
+                tokenBudget, trimmed.get(), overBudget.get());
+    }
+
+    /**
+     * @param estimatedTokens estimation du nombre de tokens (prompt système + utilisateur)
+     */
+    public record AssembledPrompt(String system, String user, int estimatedTokens,
+                                  int droppedExamples, int droppedSegments) {
+    }
+
+    public record PromptStats(long prompts, long averageTokens, long maxTokens, int tokenBudget,
+                              long trimmed, long overBudget) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.yourorg.nlsqlengine.llm;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -15,6 +16,9 @@ public class PromptBuilder {
 
     private final String systemPrompt;
 
+    @ConfigProperty(name = "nlsql.prompt.layout", defaultValue = "stable")
+    PromptLayout layout = PromptLayout.STABLE;
+
     public PromptBuilder() {
         this.systemPrompt = loadResource(SYSTEM_PROMPT_PATH);
     }
@@ -27,11 +31,36 @@ public class PromptBuilder {
                                   List<Map.Entry<String, String>> fewShotExamples, String previousError) {
         StringBuilder sb = new StringBuilder();
 
+        if (layout == PromptLayout.STABLE) {
+            // Sections les plus stables d'abord : préfixe commun réutilisable par le cache KV d'Ollama
+            appendBusinessRules(sb, businessRules);
+            appendSchema(sb, schema);
+        } else {
+            appendSchema(sb, schema);
+            appendBusinessRules(sb, businessRules);
+        }
+        appendFewShotExamples(sb, fewShotExamples);
+        appendPreviousError(sb, previousError);
+
+        // Question utilisateur
+        sb.append("## Question\n");
+        sb.append(question);
+
+        return sb.toString();
+    }
+
+    public PromptLayout getLayout() {
+        return layout;
+    }
+
+    private void appendSchema(StringBuilder sb, String schema) {
         // Schéma DB
         sb.append("## Schéma de la base de données\n");
         sb.append(schema);
         sb.append("\n\n");
+    }
 
+    private void appendBusinessRules(StringBuilder sb, List<String> businessRules) {
         // Règles métier
         if (businessRules != null && !businessRules.isEmpty()) {
             sb.append("## Règles métier\n");
@@ -40,7 +69,9 @@ public class PromptBuilder {
             }
             sb.append("\n");
         }
+    }
 
+    private void appendFewShotExamples(StringBuilder sb, List<Map.Entry<String, String>> fewShotExamples) {
         // Few-shot examples
         if (fewShotExamples != null && !fewShotExamples.isEmpty()) {
             sb.append("## Exemples\n");
@@ -49,7 +80,9 @@ public class PromptBuilder {
                 sb.append("SQL : ").append(example.getValue()).append("\n\n");
             }
         }
+    }
 
+    private void appendPreviousError(StringBuilder sb, String previousError) {
         // Feedback d'erreur de la tentative précédente
         if (previousError != null && !previousError.isBlank()) {
             sb.append("## Erreur de la tentative précédente\n");
@@ -57,12 +90,6 @@ public class PromptBuilder {
             sb.append(previousError).append("\n");
             sb.append("Corrige la requête en tenant compte de cette erreur.\n\n");
         }
-
-        // Question utilisateur
-        sb.append("## Question\n");
-        sb.append(question);
-
-        return sb.toString();
     }
 
     private String loadResource(String path) {
@@ -0,0 +1,16 @@
+package com.yourorg.nlsqlengine.llm;
+
+/**
+ * Ordre des sections du prompt utilisateur de génération SQL.
+ */
+public enum PromptLayout {
+
+    /** Schéma, règles métier, exemples, erreur, question (ordre historique). */
+    LEGACY,
+    /**
+     * Du plus stable au moins stable : règles métier, schéma (segments triés par table), exemples,
+     * erreur, question. Les requêtes successives partagent le plus long préfixe de tokens possible,
+     * qu'Ollama peut réutiliser depuis son cache KV au lieu de le réévaluer.
+     */
+    STABLE
+}
@@ -0,0 +1,93 @@
+package com.yourorg.nlsqlengine.llm;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Formulation déterministe de la réponse pour les formes de résultat simples
+ * (aucune ligne, valeur unique, ligne unique, courte liste de valeurs), sans appel LLM.
+ * Retourne null lorsque le résultat est trop riche pour un gabarit.
+ */
+public final class TemplateAnswerSynthesizer {
+
+    static final int MAX_LISTED_VALUES = 20;
+    static final int MAX_ROW_COLUMNS = 8;
+
+    private static final Pattern COUNT_COLUMN = Pattern.compile(
+            "(?i)^(count|nb|nombre|total|cnt)(_.*)?$|.*_(count|nb|total)$");
+
+    private TemplateAnswerSynthesizer() {
+    }
+
+    public static String synthesize(List<Map<String, Object>> results) {
+        if (results == null || results.isEmpty()) {
+            return "Aucun résultat ne correspond à votre question.";
+        }
+
+        Map<String, Object> first = results.get(0);
+        if (first.isEmpty() || first.size() > MAX_ROW_COLUMNS) {
+            return null;
+        }
+
+        if (results.size() == 1 && first.size() == 1) {
+            Map.Entry<String, Object> cell = first.entrySet().iterator().next();
+            return scalar(cell.getKey(), cell.getValue());
+        }
+
+        if (results.size() == 1) {
+            List<String> parts = new ArrayList<>();
+            first.forEach((column, value) -> parts.add(column + " : " + format(value)));
+            return "Résultat : " + String.join(", ", parts) + ".";
+        }
+
+        if (first.size() == 1 && results.size() <= MAX_LISTED_VALUES) {
+            List<String> values = new ArrayList<>();
+            for (Map<String, Object> row : results) {
+                values.add(format(row.values().iterator().next()));
+            }
+            return "Les " + values.size() + " résultats sont : " + enumerate(values) + ".";
+        }
+
+        return null;
+    }
+
+    private static String scalar(String column, Object value) {
+        if (value == null) {
+            return "Aucune valeur n'a été trouvée.";
+        }
+        if (value instanceof Number && COUNT_COLUMN.matcher(column).matches()) {
+            return "Il y en a " + format(value) + ".";
+        }
+        return "Le résultat est " + format(value) + ".";
+    }
+
+    private static String enumerate(List<String> values) {
+        if (values.size() == 1) {
+            return values.get(0);
+        }
+        return String.join(", ", values.subList(0, values.size() - 1)) + " et " + values.get(values.size() - 1);
+    }
+
+    static String format(Object value) {
+        if (value == null) {
+            return "(vide)";
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.stripTrailingZeros().toPlainString();
+        }
+        if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            if (d == Math.rint(d) && !Double.isInfinite(d)) {
+                return Long.toString((long) d);
+            }
+            return BigDecimal.valueOf(d).stripTrailingZeros().toPlainString();
+        }
+        if (value instanceof Boolean b) {
+            return b ? "oui" : "non";
+        }
+        return value.toString();
+    }
+}
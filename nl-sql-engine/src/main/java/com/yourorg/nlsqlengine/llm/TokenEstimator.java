@@ -0,0 +1,50 @@
+package com.yourorg.nlsqlengine.llm;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Estimation locale du nombre de tokens d'un texte, sans appel au tokenizer du modèle :
+ * longueur en caractères divisée par un ratio caractères/token propre à la famille du modèle
+ * (mesuré sur des prompts français + SQL). Volontairement pessimiste (arrondi supérieur).
+ */
+final class TokenEstimator {
+
+    static final double DEFAULT_CHARS_PER_TOKEN = 3.2;
+
+    // Ratios moyens caractères/token par famille de modèle Ollama (préfixe du model-id)
+    private static final Map<String, Double> CHARS_PER_TOKEN = Map.of(
+            "mistral", 3.0,
+            "mixtral", 3.0,
+            "llama", 3.6,
+            "qwen", 3.4,
+            "gemma", 3.6,
+            "phi", 3.3);
+
+    private final double charsPerToken;
+
+    TokenEstimator(double charsPerToken) {
+        this.charsPerToken = charsPerToken;
+    }
+
+    static TokenEstimator forModel(String modelId) {
+        String family = modelId == null ? "" : modelId.toLowerCase(Locale.ROOT);
+        for (Map.Entry<String, Double> entry : CHARS_PER_TOKEN.entrySet()) {
+            if (family.startsWith(entry.getKey())) {
+                return new TokenEstimator(entry.getValue());
+            }
+        }
+        return new TokenEstimator(DEFAULT_CHARS_PER_TOKEN);
+    }
+
+    int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return (int) Math.ceil(text.length() / charsPerToken);
+    }
+
+    double charsPerToken() {
+        return charsPerToken;
+    }
+}
@@ -0,0 +1,257 @@
+package com.yourorg.nlsqlengine.metrics;
+
+import com.yourorg.nlsqlengine.llm.AdaptiveConcurrencyLimiter;
+import dev.langchain4j.model.output.TokenUsage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Métriques Micrometer du pipeline NL → SQL, exposées au format Prometheus sur {@code /q/metrics}.
+ * <ul>
+ *   <li>{@code nlsql.pipeline.stage} : durée de chaque étape (tags {@code stage}, {@code domain}),
+ *       avec p50/p95/p99 et histogramme pour {@code histogram_quantile} ;</li>
+ *   <li>{@code nlsql.pipeline.retries} : tentatives en échec par classe d'erreur ;</li>
+ *   <li>{@code nlsql.pipeline.speculative.candidates} : candidats spéculatifs gagnants ou écartés ;</li>
+ *   <li>{@code nlsql.pipeline.rows} : nombre de lignes retournées par requête ;</li>
+ *   <li>{@code nlsql.llm.tokens} : tokens de prompt et de complétion rapportés par Ollama ;</li>
+ *   <li>{@code nlsql.prompt.tokens} : taille estimée du prompt de génération SQL après réduction ;</li>
+ *   <li>{@code nlsql.llm.limiter.limit}, {@code .in_flight}, {@code .queued} : jauges du limiteur
+ *       de concurrence devant Ollama.</li>
+ * </ul>
+ * Le domaine est porté par le thread de la requête ({@link #withDomain}) et hérité par les threads
+ * virtuels des étapes parallèles : les composants appelés (LLM, JDBC) n'ont pas à le recevoir.
+ */
+@ApplicationScoped
+public class PipelineMetrics {
+
+    public static final String EMBEDDING = "embedding";
+    public static final String VECTOR_SEARCH = "vector_search";
+    public static final String FEW_SHOT_LOAD = "few_shot_load";
+    public static final String GENERATE_SQL = "generate_sql";
+    public static final String VALIDATION = "validation";
+    public static final String JDBC_EXECUTION = "jdbc_execution";
+    public static final String ROW_MAPPING = "row_mapping";
+    public static final String GENERATE_ANSWER = "generate_answer";
+
+    static final String NO_DOMAIN = "none";
+
+    private static final InheritableThreadLocal<String> DOMAIN = new InheritableThreadLocal<>();
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    AdaptiveConcurrencyLimiter limiter;
+
+    /**
+     * Étape instrumentée, pouvant lever une exception vérifiée (ex : {@link java.sql.SQLException}).
+     */
+    @FunctionalInterface
+    public interface Stage<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        bindLimiterGauges(limiter);
+    }
+
+    /**
+     * Jauges lues à chaque collecte sur l'état courant du limiteur (limite, appels en cours, appels en file).
+     */
+    void bindLimiterGauges(AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("nlsql.llm.limiter.limit", limiter, l -> l.stats().limit())
+                .description("Limite courante de concurrence des appels LLM")
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("nlsql.llm.limiter.in_flight", limiter, l -> l.stats().inFlight())
+                .description("Appels LLM en cours")
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("nlsql.llm.limiter.queued", limiter, l -> l.stats().queued())
+                .description("Appels LLM en attente d'un créneau")
+                .strongReference(true)
+                .register(registry);
+    }
+
+    /**
+     * Exécute {@code body} avec {@code domainId} comme tag de toutes les métriques enregistrées
+     * par ce thread et par les threads qu'il crée.
+     */
+    public <T> T withDomain(Long domainId, Supplier<T> body) {
+        String previous = DOMAIN.get();
+        DOMAIN.set(domainId != null ? domainId.toString() : NO_DOMAIN);
+        try {
+            return body.get();
+        } finally {
+            if (previous != null) {
+                DOMAIN.set(previous);
+            } else {
+                DOMAIN.remove();
+            }
+        }
+    }
+
+    /**
+     * Mesure la durée de {@code body} sous l'étape {@code stage}, succès comme échec.
+     */
+    public <T, E extends Exception> T time(String stage, Stage<T, E> body) throws E {
+        long start = System.nanoTime();
+        try {
+            return body.run();
+        } finally {
+            stageTimer(stage).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordRetry(String error) {
+        Counter.builder("nlsql.pipeline.retries")
+                .description("Tentatives de génération SQL en échec, par classe d'erreur")
+                .tag("domain", domain())
+                .tag("error_class", errorClass(error))
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Issue d'une course de candidats spéculatifs : le gagnant et les candidats écartés (en échec ou
+     * annulés), comptés à part des retries pour ne pas gonfler leur taux quand la spéculation est active.
+     */
+    public void recordSpeculativeCandidates(int won, int discarded) {
+        incrementCandidates("won", won);
+        incrementCandidates("speculative_discarded", discarded);
+    }
+
+    private void incrementCandidates(String outcome, int count) {
+        if (count == 0) {
+            return;
+        }
+        Counter.builder("nlsql.pipeline.speculative.candidates")
+                .description("Candidats SQL spéculatifs, par issue")
+                .tag("domain", domain())
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment(count);
+    }
+
+    public void recordRows(int rows) {
+        DistributionSummary.builder("nlsql.pipeline.rows")
+                .description("Nombre de lignes retournées par requête")
+                .tag("domain", domain())
+                .publishPercentiles(0.5, 0.95)
+                .register(registry)
+                .record(rows);
+    }
+
+    /**
+     * Taille estimée (avant envoi, voir {@code PromptAssembler}) du prompt de génération SQL : sa
+     * distribution, rapprochée du budget, montre la marge restante avant réduction des sections.
+     */
+    public void recordPromptTokens(int tokens, boolean trimmed) {
+        DistributionSummary.builder("nlsql.prompt.tokens")
+                .description("Tokens estimés du prompt de génération SQL")
+                .baseUnit("tokens")
+                .tag("domain", domain())
+                .tag("trimmed", String.valueOf(trimmed))
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry)
+                .record(tokens);
+    }
+
+    /**
+     * Comptabilise les tokens d'une réponse du modèle ; sans effet si Ollama ne les a pas rapportés.
+     */
+    public void recordTokens(String call, TokenUsage usage) {
+        if (usage == null) {
+            return;
+        }
+        incrementTokens(call, "prompt", usage.inputTokenCount());
+        incrementTokens(call, "completion", usage.outputTokenCount());
+    }
+
+    private void incrementTokens(String call, String type, Integer count) {
+        if (count == null) {
+            return;
+        }
+        Counter.builder("nlsql.llm.tokens")
+                .description("Tokens consommés par les appels au LLM")
+                .tag("domain", domain())
+                .tag("call", call)
+                .tag("type", type)
+                .register(registry)
+                .increment(count);
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("nlsql.pipeline.stage")
+                .description("Durée des étapes du pipeline NL → SQL")
+                .tag("stage", stage)
+                .tag("domain", domain())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    static String domain() {
+        String domain = DOMAIN.get();
+        return domain != null ? domain : NO_DOMAIN;
+    }
+
+    /**
+     * Classe d'erreur (cardinalité bornée) déduite du message d'une tentative en échec,
+     * tel que produit par l'orchestrateur ("Validation SQL : ..." ou "Exécution SQL : ...").
+     */
+    static String errorClass(String error) {
+        if (error == null || error.isBlank()) {
+            return "unknown";
+        }
+        String lower = error.toLowerCase(Locale.ROOT);
+        if (lower.startsWith("validation sql")) {
+            if (lower.contains("est vide")) {
+                return "empty";
+            }
+            if (lower.contains("select *")) {
+                return "select_star";
+            }
+            if (lower.contains("interdit") || lower.contains("seules les requêtes select")) {
+                return "forbidden";
+            }
+            if (lower.contains("non autorisée")) {
+                return "table_not_allowed";
+            }
+            if (lower.contains("invalide")) {
+                return "syntax";
+            }
+            return "validation";
+        }
+        if (lower.contains("operator does not exist") || lower.contains("character varying")) {
+            return "type_mismatch";
+        }
+        if (lower.contains("canceling statement") || lower.contains("timeout")) {
+            return "timeout";
+        }
+        if (lower.contains("function") && lower.contains("does not exist")) {
+            return "undefined_function";
+        }
+        if (lower.contains("column") && lower.contains("does not exist")) {
+            return "undefined_column";
+        }
+        if (lower.contains("relation") && lower.contains("does not exist")) {
+            return "undefined_table";
+        }
+        if (lower.contains("syntax error")) {
+            return "syntax";
+        }
+        return "execution";
+    }
+}
@@ -2,19 +2,43 @@ package com.yourorg.nlsqlengine.orchestration;
 
 import com.yourorg.nlsqlengine.api.SavedPrompt;
 import com.yourorg.nlsqlengine.api.SavedPromptRepository;
+import com.yourorg.nlsqlengine.cache.ExactQueryCache;
+import com.yourorg.nlsqlengine.cache.QuestionNormalizer;
+import com.yourorg.nlsqlengine.cache.SemanticQueryCache;
+import com.yourorg.nlsqlengine.cancel.CancellationToken;
+import com.yourorg.nlsqlengine.cancel.QueryCancelledException;
+import com.yourorg.nlsqlengine.llm.AnswerMode;
 import com.yourorg.nlsqlengine.llm.LlmClient;
+import com.yourorg.nlsqlengine.llm.TemplateAnswerSynthesizer;
+import com.yourorg.nlsqlengine.metrics.PipelineMetrics;
 import com.yourorg.nlsqlengine.rag.ContextRetriever;
+import com.yourorg.nlsqlengine.rag.SchemaSegment;
 import com.yourorg.nlsqlengine.rag.SchemaProvider;
+import com.yourorg.nlsqlengine.sql.ResultTable;
+import com.yourorg.nlsqlengine.sql.RowStreamException;
+import com.yourorg.nlsqlengine.sql.RowWriter;
 import com.yourorg.nlsqlengine.sql.SqlExecutor;
+import com.yourorg.nlsqlengine.sql.SqlPostProcessor;
+import com.yourorg.nlsqlengine.sql.SqlRepairer;
 import com.yourorg.nlsqlengine.sql.SqlValidationResult;
 import com.yourorg.nlsqlengine.sql.SqlValidator;
+import com.yourorg.nlsqlengine.tracing.PipelineTracer;
+import dev.langchain4j.data.embedding.Embedding;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
+import java.sql.SQLException;
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
@@ -24,6 +48,8 @@ public class NlSqlOrchestrator {
     private static final int MAX_RETRIES = 2;
     private static final int FEW_SHOT_LIMIT = 3;
 
+    private final SingleFlight<String, OrchestratorResult> inFlight = new SingleFlight<>();
+
     @Inject
     ContextRetriever contextRetriever;
 
@@ -39,59 +65,434 @@ public class NlSqlOrchestrator {
     @Inject
     SqlExecutor sqlExecutor;
 
+    @Inject
+    SqlRepairer sqlRepairer;
+
+    @Inject
+    SqlPostProcessor sqlPostProcessor;
+
     @Inject
     SavedPromptRepository savedPromptRepository;
 
+    @Inject
+    ExactQueryCache exactCache;
+
+    @Inject
+    SemanticQueryCache semanticCache;
+
+    @Inject
+    PipelineMetrics metrics;
+
+    @Inject
+    PipelineTracer tracer;
+
+    @ConfigProperty(name = "nlsql.orchestrator.context-timeout-ms", defaultValue = "10000")
+    long contextTimeoutMs;
+
+    @ConfigProperty(name = "nlsql.orchestrator.rules-timeout-ms", defaultValue = "1000")
+    long rulesTimeoutMs;
+
+    @ConfigProperty(name = "nlsql.orchestrator.few-shot-timeout-ms", defaultValue = "2000")
+    long fewShotTimeoutMs;
+
+    @ConfigProperty(name = "nlsql.orchestrator.coalescing.enabled", defaultValue = "true")
+    boolean coalescingEnabled;
+
+    @ConfigProperty(name = "nlsql.answer.default-mode", defaultValue = "llm")
+    AnswerMode defaultAnswerMode;
+
+    @ConfigProperty(name = "nlsql.orchestrator.speculative.enabled", defaultValue = "false")
+    boolean speculativeEnabled;
+
+    @ConfigProperty(name = "nlsql.orchestrator.speculative.candidates", defaultValue = "3")
+    int speculativeCandidates;
+
+    @ConfigProperty(name = "nlsql.orchestrator.speculative.temperature-step", defaultValue = "0.3")
+    double speculativeTemperatureStep;
+
     public OrchestratorResult process(String question) {
         return process(question, null);
     }
 
     public OrchestratorResult process(String question, Long domainId) {
+        return process(question, domainId, PipelineListener.NONE);
+    }
+
+    /**
+     * Traite la question en notifiant {@code listener} à chaque étape. Si un listener est fourni,
+     * la réponse en langage naturel est générée en streaming, fragment par fragment.
+     */
+    public OrchestratorResult process(String question, Long domainId, PipelineListener listener) {
+        return process(question, domainId, null, listener);
+    }
+
+    /**
+     * @param answerMode formulation de la réponse : aucune, gabarit déterministe (LLM en repli
+     *                   pour les résultats riches) ou LLM ; null = {@code nlsql.answer.default-mode}
+     */
+    public OrchestratorResult process(String question, Long domainId, AnswerMode answerMode,
+                                      PipelineListener listener) {
         LOG.infof("Question reçue : %s (domainId=%s)", question, domainId);
+        AnswerMode mode = answerMode != null ? answerMode : defaultAnswerMode;
+
+        // Questions identiques simultanées (même domaine, même texte normalisé, même mode de réponse) :
+        // une seule exécution du pipeline, partagée par tous les appelants. Les requêtes streamées
+        // gardent leur propre exécution, leurs événements étant propres à chaque client.
+        if (coalescingEnabled && listener == PipelineListener.NONE) {
+            String key = mode.value() + "|" + QuestionNormalizer.key(domainId, question);
+            OrchestratorResult shared = executeShared(key, () -> run(question, domainId, mode, listener, null));
+            if (!question.equals(shared.question())) {
+                return new OrchestratorResult(question, shared.generatedSql(), shared.table(),
+                        shared.answer(), shared.error());
+            }
+            return shared;
+        }
+        return run(question, domainId, mode, listener, null);
+    }
+
+    /**
+     * Traite la question en transmettant toutes les lignes du résultat à {@code rows} au fil de leur
+     * lecture (export volumineux) ; le résultat retourné ne contient que les premières lignes, qui ont
+     * servi à formuler la réponse. Ni regroupement des requêtes identiques ni génération spéculative :
+     * une seule exécution peut écrire dans {@code rows}.
+     */
+    public OrchestratorResult export(String question, Long domainId, AnswerMode answerMode, RowWriter rows) {
+        LOG.infof("Question reçue pour export : %s (domainId=%s)", question, domainId);
+        AnswerMode mode = answerMode != null ? answerMode : defaultAnswerMode;
+        return run(question, domainId, mode, PipelineListener.NONE, rows);
+    }
+
+    /**
+     * Exécution partagée entre requêtes identiques. Si l'exécution suivie est annulée par son propre
+     * client, les autres appelants ne sont pas annulés pour autant : l'un d'eux relance le pipeline.
+     */
+    private OrchestratorResult executeShared(String key, Supplier<OrchestratorResult> call) {
+        CancellationToken token = CancellationToken.current();
+        while (true) {
+            try {
+                return inFlight.execute(key, call);
+            } catch (QueryCancelledException e) {
+                if (token.isCancelled()) {
+                    throw e;
+                }
+                LOG.info("Requête identique suivie annulée, nouvelle exécution");
+            }
+        }
+    }
+
+    public CoalescingStats coalescingStats() {
+        return new CoalescingStats(inFlight.inFlight(), inFlight.coalesced());
+    }
+
+    private OrchestratorResult run(String question, Long domainId, AnswerMode mode, PipelineListener listener,
+                                   RowWriter rows) {
+        return metrics.withDomain(domainId, () -> tracer.inSpan("NlSqlOrchestrator.process", span -> {
+            if (domainId != null) {
+                span.setAttribute("nlsql.domain_id", domainId);
+            }
+            span.setAttribute("nlsql.answer_mode", mode.value());
+            return runPipeline(question, domainId, mode, listener, rows);
+        }));
+    }
+
+    /**
+     * @param rows destination des lignes en flux, null pour les conserver toutes dans le résultat
+     */
+    private OrchestratorResult runPipeline(String question, Long domainId, AnswerMode mode, PipelineListener listener,
+                                           RowWriter rows) {
+
+        // 0. Caches : une question identique (après normalisation) ne coûte ni embedding ni LLM SQL,
+        //    une question proche déjà résolue court-circuite la génération SQL
+        String exactSql = exactCache.get(domainId, question);
+        if (exactSql != null) {
+            OrchestratorResult cached = executeCachedSql(question, exactSql, mode, listener, rows);
+            if (cached != null) {
+                return cached;
+            }
+            exactCache.invalidate(domainId, question);
+        }
 
-        // 1. RAG : récupérer le contexte pertinent
-        String context = contextRetriever.retrieveRelevantContext(question, domainId);
-        List<String> businessRules = schemaProvider.getBusinessRules();
+        // 1. Étapes indépendantes en parallèle sur threads virtuels : few-shots (JDBC) et règles métier
+        //    pendant le calcul de l'embedding puis la recherche RAG (pgvector)
+        Embedding questionEmbedding;
+        List<SchemaSegment> context;
+        List<String> businessRules;
+        List<Map.Entry<String, String>> fewShotExamples;
+        try (StageScope scope = new StageScope()) {
+            Future<List<Map.Entry<String, String>>> fewShotStage = scope.fork(() ->
+                    metrics.time(PipelineMetrics.FEW_SHOT_LOAD, () -> loadFewShotExamples(domainId)));
+            Future<List<String>> rulesStage = scope.fork(schemaProvider::getBusinessRules);
 
-        // 2. Récupérer les few-shot examples dynamiques depuis les prompts enregistrés
-        List<Map.Entry<String, String>> fewShotExamples = loadFewShotExamples(domainId);
+            Embedding embedding = metrics.time(PipelineMetrics.EMBEDDING, () ->
+                    tracer.inSpan("ContextRetriever.embedQuestion", span -> contextRetriever.embedQuestion(question)));
+            questionEmbedding = embedding;
+            String cachedSql = semanticCache.lookup(domainId, embedding);
+            if (cachedSql != null) {
+                OrchestratorResult cached = executeCachedSql(question, cachedSql, mode, listener, rows);
+                if (cached != null) {
+                    exactCache.put(domainId, question, cachedSql);
+                    return cached;
+                }
+                semanticCache.invalidate(domainId, cachedSql);
+            }
+
+            // 2. RAG : récupérer le contexte pertinent (schéma complet en repli)
+            Future<List<SchemaSegment>> contextStage = scope.fork(() ->
+                    metrics.time(PipelineMetrics.VECTOR_SEARCH, () ->
+                            tracer.inSpan("ContextRetriever.retrieveSegments", span -> {
+                                List<SchemaSegment> segments = contextRetriever.retrieveSegments(embedding, domainId);
+                                span.setAttribute("nlsql.rag.segments", segments.size());
+                                return segments;
+                            })));
+            context = scope.join(contextStage, "contexte RAG", contextTimeoutMs, contextRetriever::fallbackSegments);
+            businessRules = scope.join(rulesStage, "règles métier", rulesTimeoutMs, List::of);
+            fewShotExamples = scope.join(fewShotStage, "few-shot examples", fewShotTimeoutMs, List::of);
+        }
+        // Requête annulée pendant la préparation : aucun appel au LLM
+        CancellationToken token = CancellationToken.current();
+        token.throwIfCancelled();
+        listener.onContext(SchemaSegment.join(context));
 
-        // 3. Générer le SQL avec retries et self-correction
-        String sql = null;
+        // 3. Générer le SQL : candidats spéculatifs en parallèle (si activé), puis retries avec self-correction
+        SqlAttempt outcome = null;
         String lastError = null;
+        int attempts = 0;
 
-        for (int attempt = 0; attempt <= MAX_RETRIES; attempt++) {
-            // 4. Appeler le LLM (avec feedback d'erreur si retry)
-            sql = llmClient.generateSql(question, context, businessRules, fewShotExamples, lastError);
-            LOG.infof("SQL généré (tentative %d) : %s", attempt + 1, sql);
-
-            // 5. Valider le SQL
-            SqlValidationResult validation = sqlValidator.validate(sql);
-            if (!validation.valid()) {
-                lastError = "Validation SQL : " + validation.error();
-                LOG.warnf("SQL invalide (tentative %d) : %s", attempt + 1, validation.error());
-                continue;
+        if (speculativeEnabled && speculativeCandidates > 1 && rows == null) {
+            outcome = raceCandidates(question, context, businessRules, fewShotExamples, listener);
+            attempts = speculativeCandidates;
+            if (outcome != null && !outcome.isSuccess()) {
+                // La course entière remplace la première tentative : un seul retry comptabilisé
+                lastError = outcome.error();
+                metrics.recordRetry(lastError);
             }
-            sql = validation.sql();
+        }
 
-            // 6. Exécuter le SQL
-            try {
-                List<Map<String, Object>> results = sqlExecutor.execute(sql);
-                LOG.infof("Exécution réussie : %d lignes", results.size());
+        for (int retry = attempts == 0 ? 0 : 1; retry <= MAX_RETRIES && (outcome == null || !outcome.isSuccess()); retry++) {
+            token.throwIfCancelled();
+            attempts++;
+            // 4-6. Appeler le LLM (avec feedback d'erreur si retry), valider puis exécuter le SQL
+            outcome = attempt(attempts, question, context, businessRules, fewShotExamples, lastError, null, rows);
+            listener.onSqlGenerated(attempts, outcome.sql());
+            if (!outcome.isSuccess()) {
+                lastError = outcome.error();
+                metrics.recordRetry(lastError);
+                listener.onRetry(attempts, lastError);
+            }
+        }
+
+        if (outcome == null || !outcome.isSuccess()) {
+            return OrchestratorResult.error(question, outcome != null ? outcome.sql() : null,
+                    "Échec après " + attempts + " tentatives : " + lastError);
+        }
 
-                // 7. Générer la réponse en langage naturel
-                String answer = llmClient.generateAnswer(question, sql, results);
-                LOG.infof("Réponse générée : %s", answer);
+        String sql = outcome.sql();
+        ResultTable table = outcome.table();
+        List<Map<String, Object>> results = table.asMaps();
+        metrics.recordRows(table.size());
+        listener.onResults(results);
+
+        // 7. Générer la réponse en langage naturel (inutile si plus personne ne l'attend)
+        token.throwIfCancelled();
+        String answer = generateAnswer(question, sql, results, mode, listener);
+        LOG.infof("Réponse générée : %s", answer);
+
+        exactCache.put(domainId, question, sql);
+        semanticCache.put(domainId, questionEmbedding, sql);
+        return OrchestratorResult.success(question, sql, table, answer);
+    }
 
-                return OrchestratorResult.success(question, sql, results, answer);
+    /**
+     * Une tentative complète : génération du SQL par le LLM, validation puis exécution.
+     */
+    private SqlAttempt attempt(int attemptNumber, String question, List<SchemaSegment> context, List<String> businessRules,
+                               List<Map.Entry<String, String>> fewShotExamples, String previousError,
+                               Double temperature, RowWriter rows) {
+        return tracer.inSpan("NlSqlOrchestrator.attempt", span -> {
+            span.setAttribute("nlsql.attempt", attemptNumber);
+            SqlAttempt outcome = runAttempt(attemptNumber, question, context, businessRules, fewShotExamples,
+                    previousError, temperature, rows);
+            span.setAttribute("nlsql.attempt.success", outcome.isSuccess());
+            return outcome;
+        });
+    }
+
+    private SqlAttempt runAttempt(int attemptNumber, String question, List<SchemaSegment> context,
+                                  List<String> businessRules, List<Map.Entry<String, String>> fewShotExamples,
+                                  String previousError, Double temperature, RowWriter rows) {
+        String sql = metrics.time(PipelineMetrics.GENERATE_SQL, () ->
+                llmClient.generateSql(question, context, businessRules, fewShotExamples, previousError, temperature));
+        LOG.infof("SQL généré (tentative %d) : %s", attemptNumber, sql);
+
+        String generated = sql;
+        SqlValidationResult validation = metrics.time(PipelineMetrics.VALIDATION, () ->
+                tracer.inSpan("SqlValidator.validate", span -> sqlValidator.validate(generated)));
+        if (!validation.valid()) {
+            LOG.warnf("SQL invalide (tentative %d) : %s", attemptNumber, validation.error());
+            return repairOrFail(attemptNumber, sql, "Validation SQL : " + validation.error(), rows);
+        }
+        sql = sqlPostProcessor.process(validation.sql());
+
+        try {
+            ResultTable table = execute(sql, rows);
+            LOG.infof("Exécution réussie (tentative %d) : %d lignes", attemptNumber, table.size());
+            return SqlAttempt.succeeded(sql, table);
+        } catch (QueryCancelledException | RowStreamException e) {
+            throw e;
+        } catch (Exception e) {
+            LOG.warnf("Erreur d'exécution (tentative %d) : %s", attemptNumber, e.getMessage());
+            return repairOrFail(attemptNumber, sql, "Exécution SQL : " + e.getMessage(), rows);
+        }
+    }
+
+    /**
+     * Tente une réparation locale du SQL en échec (sans appel au LLM). Si elle ne s'applique pas
+     * ou échoue à son tour, la tentative reste en échec avec l'erreur d'origine, qui sera transmise
+     * au LLM au retry suivant.
+     */
+    private SqlAttempt repairOrFail(int attemptNumber, String sql, String error, RowWriter rows) {
+        String repaired = sqlRepairer.repair(sql, error);
+        if (repaired == null) {
+            return SqlAttempt.failed(sql, error);
+        }
+        SqlValidationResult validation = sqlValidator.validate(repaired);
+        if (validation.valid()) {
+            String repairedSql = sqlPostProcessor.process(validation.sql());
+            try {
+                ResultTable table = execute(repairedSql, rows);
+                LOG.infof("SQL réparé exécuté (tentative %d) : %d lignes", attemptNumber, table.size());
+                sqlRepairer.recordOutcome(true);
+                return SqlAttempt.succeeded(repairedSql, table);
+            } catch (QueryCancelledException | RowStreamException e) {
+                throw e;
             } catch (Exception e) {
-                lastError = "Exécution SQL : " + e.getMessage();
-                LOG.warnf("Erreur d'exécution (tentative %d) : %s", attempt + 1, e.getMessage());
+                LOG.warnf("Échec du SQL réparé (tentative %d) : %s", attemptNumber, e.getMessage());
             }
         }
+        sqlRepairer.recordOutcome(false);
+        return SqlAttempt.failed(sql, error);
+    }
+
+    /**
+     * Génération spéculative : N candidats générés en parallèle avec des températures croissantes,
+     * chacun validé et exécuté dès son arrivée. La première exécution réussie l'emporte et les
+     * autres candidats sont annulés.
+     * <p>
+     * Chaque candidat a son propre jeton d'annulation, lié à celui de la requête : une fois la course
+     * terminée, les perdants sont annulés comme une requête abandonnée. Leur génération est arrêtée
+     * (fermeture du flux Ollama, au plus tard au premier fragment, voir {@code LlmClient.call}) et leur
+     * requête SQL annulée côté serveur ({@code Statement.cancel()}) ; leur créneau du limiteur reste
+     * compté jusqu'à l'arrêt effectif du flux. Un candidat écarté n'émet plus d'événement vers
+     * {@code listener}, et il est compté à part ({@code speculative_discarded}), pas comme un retry.
+     */
+    private SqlAttempt raceCandidates(String question, List<SchemaSegment> context, List<String> businessRules,
+                                      List<Map.Entry<String, String>> fewShotExamples, PipelineListener listener) {
+        CancellationToken requestToken = CancellationToken.current();
+        List<CancellationToken> candidateTokens = new ArrayList<>();
+        List<CancellationToken.Registration> links = new ArrayList<>();
+        List<Callable<SqlAttempt>> candidates = new ArrayList<>();
+        // Un candidat n'émet ses événements que s'il n'est pas écarté ni devancé par un succès ;
+        // l'écartement attend la fin d'un événement en cours. Verrou plutôt que synchronized :
+        // les candidats sont des threads virtuels
+        ReentrantLock events = new ReentrantLock();
+        AtomicBoolean decided = new AtomicBoolean();
+        for (int i = 0; i < speculativeCandidates; i++) {
+            int candidateNumber = i + 1;
+            double temperature = Math.min(1.0, i * speculativeTemperatureStep);
+            CancellationToken candidateToken = new CancellationToken();
+            candidateTokens.add(candidateToken);
+            links.add(requestToken.onCancel(() -> candidateToken.cancel(requestToken.reason())));
+            candidates.add(() -> candidateToken.bind(() -> {
+                SqlAttempt candidate = attempt(candidateNumber, question, context, businessRules,
+                        fewShotExamples, null, temperature, null);
+                events.lock();
+                try {
+                    if (!candidateToken.isCancelled() && !decided.get()) {
+                        listener.onSqlGenerated(candidateNumber, candidate.sql());
+                        if (candidate.isSuccess()) {
+                            decided.set(true);
+                        } else {
+                            listener.onRetry(candidateNumber, candidate.error());
+                        }
+                    }
+                } finally {
+                    events.unlock();
+                }
+                return candidate;
+            }));
+        }
+        SqlAttempt outcome = null;
+        try (StageScope scope = new StageScope()) {
+            outcome = scope.race(candidates, SqlAttempt::isSuccess);
+            return outcome;
+        } finally {
+            links.forEach(CancellationToken.Registration::close);
+            events.lock();
+            try {
+                for (CancellationToken candidateToken : candidateTokens) {
+                    candidateToken.cancel("candidat spéculatif écarté");
+                }
+            } finally {
+                events.unlock();
+            }
+            boolean won = outcome != null && outcome.isSuccess();
+            metrics.recordSpeculativeCandidates(won ? 1 : 0, won ? speculativeCandidates - 1 : speculativeCandidates);
+        }
+    }
+
+    /**
+     * Exécute un SQL issu du cache. Retourne null si l'exécution échoue (schéma modifié, données
+     * supprimées...) afin que l'appelant retombe sur le pipeline complet.
+     */
+    private OrchestratorResult executeCachedSql(String question, String sql, AnswerMode mode,
+                                                PipelineListener listener, RowWriter rows) {
+        LOG.infof("SQL trouvé dans le cache : %s", sql);
+        listener.onCacheHit(sql);
+        ResultTable table;
+        try {
+            table = execute(sql, rows);
+        } catch (QueryCancelledException | RowStreamException e) {
+            throw e;
+        } catch (Exception e) {
+            LOG.warnf("SQL en cache non exécutable, invalidation : %s", e.getMessage());
+            return null;
+        }
+        List<Map<String, Object>> results = table.asMaps();
+        metrics.recordRows(table.size());
+        listener.onResults(results);
+        CancellationToken.current().throwIfCancelled();
+        String answer = generateAnswer(question, sql, results, mode, listener);
+        return OrchestratorResult.success(question, sql, table, answer);
+    }
 
-        return OrchestratorResult.error(question, sql,
-                "Échec après " + (MAX_RETRIES + 1) + " tentatives : " + lastError);
+    /**
+     * Exécute le SQL : lignes conservées en mémoire, ou transmises en flux à {@code rows} dont seules
+     * les premières sont retournées.
+     */
+    private ResultTable execute(String sql, RowWriter rows) throws SQLException {
+        if (rows == null) {
+            return sqlExecutor.execute(sql);
+        }
+        return sqlExecutor.stream(sql, rows).head();
+    }
+
+    private String generateAnswer(String question, String sql, List<Map<String, Object>> results,
+                                  AnswerMode mode, PipelineListener listener) {
+        if (mode == AnswerMode.NONE) {
+            return null;
+        }
+        if (mode == AnswerMode.TEMPLATE) {
+            String templated = TemplateAnswerSynthesizer.synthesize(results);
+            if (templated != null) {
+                listener.onAnswerToken(templated);
+                return templated;
+            }
+        }
+        if (listener == PipelineListener.NONE) {
+            return metrics.time(PipelineMetrics.GENERATE_ANSWER, () -> llmClient.generateAnswer(question, sql, results));
+        }
+        return metrics.time(PipelineMetrics.GENERATE_ANSWER, () ->
+                llmClient.streamAnswer(question, sql, results, listener::onAnswerToken));
     }
 
     private List<Map.Entry<String, String>> loadFewShotExamples(Long domainId) {
@@ -106,4 +507,7 @@ public class NlSqlOrchestrator {
             return List.of();
         }
     }
+
+    public record CoalescingStats(int inFlight, long coalesced) {
+    }
 }
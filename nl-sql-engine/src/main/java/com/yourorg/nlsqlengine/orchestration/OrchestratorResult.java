@@ -1,24 +1,35 @@
 package com.yourorg.nlsqlengine.orchestration;
 
+import com.yourorg.nlsqlengine.sql.ResultTable;
+
 import java.util.List;
 import java.util.Map;
 
+/**
+ * @param table résultat de la requête en format colonnaire, null en cas d'erreur
+ */
 public record OrchestratorResult(
         String question,
         String generatedSql,
-        List<Map<String, Object>> results,
+        ResultTable table,
         String answer,
         String error
 ) {
-    public static OrchestratorResult success(String question, String sql,
-                                             List<Map<String, Object>> results, String answer) {
-        return new OrchestratorResult(question, sql, results, answer, null);
+    public static OrchestratorResult success(String question, String sql, ResultTable table, String answer) {
+        return new OrchestratorResult(question, sql, table, answer, null);
     }
 
     public static OrchestratorResult error(String question, String sql, String error) {
         return new OrchestratorResult(question, sql, null, null, error);
     }
 
+    /**
+     * Lignes du résultat sous forme {@code {colonne: valeur}} (vue sur {@link #table()}), null en cas d'erreur.
+     */
+    public List<Map<String, Object>> results() {
+        return table != null ? table.asMaps() : null;
+    }
+
     public boolean isSuccess() {
         return error == null;
     }
@@ -0,0 +1,32 @@
+package com.yourorg.nlsqlengine.orchestration;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Observateur des étapes du pipeline NL → SQL, notifié au fil de l'eau
+ * (ex : diffusion Server-Sent Events). Toutes les méthodes sont optionnelles.
+ */
+public interface PipelineListener {
+
+    PipelineListener NONE = new PipelineListener() {
+    };
+
+    default void onContext(String context) {
+    }
+
+    default void onCacheHit(String sql) {
+    }
+
+    default void onSqlGenerated(int attempt, String sql) {
+    }
+
+    default void onRetry(int attempt, String error) {
+    }
+
+    default void onResults(List<Map<String, Object>> results) {
+    }
+
+    default void onAnswerToken(String token) {
+    }
+}
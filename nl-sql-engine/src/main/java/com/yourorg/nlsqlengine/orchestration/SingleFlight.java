@@ -0,0 +1,68 @@
+package com.yourorg.nlsqlengine.orchestration;
+
+import com.yourorg.nlsqlengine.cancel.CancellationToken;
+import com.yourorg.nlsqlengine.cancel.QueryCancelledException;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Regroupement des appels identiques simultanés : pour une même clé, un seul appel s'exécute
+ * et les appelants arrivés pendant son exécution reçoivent son résultat (ou son exception).
+ * Rien n'est conservé une fois l'appel terminé : ce n'est pas un cache.
+ * Un appelant en attente dont la requête est annulée cesse d'attendre, sans affecter l'appel suivi.
+ */
+final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+
+        try {
+            V value = call.get();
+            own.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    long coalesced() {
+        return coalesced.get();
+    }
+
+    private V await(CompletableFuture<V> leader) {
+        // Copie propre à cet appelant : son annulation ne complète pas le résultat des autres
+        CompletableFuture<V> own = leader.thenApply(value -> value);
+        try (CancellationToken.Registration ignored = CancellationToken.current().onCancel(() ->
+                own.completeExceptionally(new QueryCancelledException("Requête annulée en attente d'une requête identique")))) {
+            return own.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Requête interrompue en attente d'une requête identique", e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.yourorg.nlsqlengine.orchestration;
+
+import com.yourorg.nlsqlengine.sql.ResultTable;
+
+/**
+ * Issue d'une tentative génération → validation → exécution.
+ */
+record SqlAttempt(String sql, ResultTable table, String error) {
+
+    static SqlAttempt succeeded(String sql, ResultTable table) {
+        return new SqlAttempt(sql, table, null);
+    }
+
+    static SqlAttempt failed(String sql, String error) {
+        return new SqlAttempt(sql, null, error);
+    }
+
+    boolean isSuccess() {
+        return error == null;
+    }
+}
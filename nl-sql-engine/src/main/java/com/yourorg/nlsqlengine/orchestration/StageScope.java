@@ -0,0 +1,96 @@
+package com.yourorg.nlsqlengine.orchestration;
+
+import com.yourorg.nlsqlengine.cancel.QueryCancelledException;
+import io.opentelemetry.context.Context;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Portée d'exécution parallèle des étapes indépendantes d'une requête, chacune sur un thread virtuel.
+ * Chaque étape est attendue avec son propre timeout et remplacée par une valeur de repli en cas
+ * d'échec ou de dépassement. À la fermeture, les étapes encore en cours sont annulées :
+ * aucune ne survit à la requête qui l'a lancée. Le contexte de trace OpenTelemetry du thread appelant
+ * est transmis à chaque étape, dont les spans restent ainsi rattachés à la trace de la requête.
+ */
+final class StageScope implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(StageScope.class);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Future<?>> forks = new ArrayList<>();
+
+    <T> Future<T> fork(Callable<T> stage) {
+        Future<T> future = executor.submit(Context.current().wrap(stage));
+        forks.add(future);
+        return future;
+    }
+
+    <T> T join(Future<T> future, String stageName, long timeoutMs, Supplier<T> fallback) {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            LOG.warnf("Étape '%s' interrompue après %d ms, valeur de repli utilisée", stageName, timeoutMs);
+        } catch (ExecutionException e) {
+            LOG.warnf(e.getCause(), "Étape '%s' en échec, valeur de repli utilisée", stageName);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Requête interrompue pendant l'étape " + stageName, e);
+        }
+        return fallback.get();
+    }
+
+    /**
+     * Lance toutes les tâches en parallèle et retourne le premier résultat accepté par {@code winner},
+     * les autres tâches étant annulées. Si aucun résultat n'est accepté, retourne le dernier résultat
+     * obtenu (null si toutes les tâches ont levé une exception).
+     */
+    <T> T race(List<Callable<T>> tasks, Predicate<T> winner) {
+        ExecutorCompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        for (Callable<T> task : tasks) {
+            forks.add(completion.submit(Context.current().wrap(task)));
+        }
+
+        T last = null;
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                T result = completion.take().get();
+                if (winner.test(result)) {
+                    close();
+                    return result;
+                }
+                last = result;
+            } catch (ExecutionException e) {
+                // Requête annulée : inutile d'attendre les autres tâches, annulées à la fermeture
+                if (e.getCause() instanceof QueryCancelledException cancelled) {
+                    throw cancelled;
+                }
+                LOG.warnf(e.getCause(), "Tâche concurrente en échec");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Requête interrompue pendant l'exécution concurrente", e);
+            }
+        }
+        return last;
+    }
+
+    @Override
+    public void close() {
+        for (Future<?> fork : forks) {
+            fork.cancel(true);
+        }
+        executor.shutdownNow();
+    }
+}
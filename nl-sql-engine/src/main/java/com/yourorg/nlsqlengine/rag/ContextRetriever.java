@@ -1,16 +1,21 @@
 package com.yourorg.nlsqlengine.rag;
 
+import com.yourorg.nlsqlengine.cache.QueryEmbeddingCache;
+import com.yourorg.nlsqlengine.llm.LlmBackendPool;
+import com.yourorg.nlsqlengine.llm.PromptBuilder;
+import com.yourorg.nlsqlengine.llm.PromptLayout;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
-import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingMatch;
 import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
 
@@ -20,8 +25,10 @@ public class ContextRetriever {
     private static final int MAX_RESULTS = 5;
     private static final double MIN_SCORE = 0.5;
 
+    static final String MEMORY_INDEX = "memory";
+
     @Inject
-    EmbeddingModel embeddingModel;
+    LlmBackendPool llmBackends;
 
     @Inject
     EmbeddingStore<TextSegment> embeddingStore;
@@ -29,6 +36,18 @@ public class ContextRetriever {
     @Inject
     SchemaProvider schemaProvider;
 
+    @Inject
+    QueryEmbeddingCache embeddingCache;
+
+    @Inject
+    InMemorySchemaStore memoryStore;
+
+    @Inject
+    PromptBuilder promptBuilder;
+
+    @ConfigProperty(name = "nlsql.rag.index", defaultValue = MEMORY_INDEX)
+    String ragIndex;
+
     public String retrieveRelevantContext(String question) {
         return retrieveRelevantContext(question, null);
     }
@@ -36,11 +55,32 @@ public class ContextRetriever {
     /**
      * Recherche les segments de schéma les plus pertinents pour la question posée.
      * Si un domainId est fourni, filtre les embeddings par domaine.
-     * Les règles métier sont toujours incluses dans le contexte.
+     * Les règles métier n'en font pas partie : {@code PromptBuilder} les place dans leur propre section.
      */
     public String retrieveRelevantContext(String question, Long domainId) {
-        Embedding queryEmbedding = embeddingModel.embed(question).content();
+        return retrieveRelevantContext(embedQuestion(question), domainId);
+    }
+
+    /**
+     * Calcule l'embedding de la question, réutilisable pour la recherche et le cache sémantique.
+     * Une question déjà vue (après normalisation) réutilise l'embedding en cache.
+     */
+    public Embedding embedQuestion(String question) {
+        return embeddingCache.computeIfAbsent(question, text -> llmBackends.embeddingModel().embed(text).content());
+    }
 
+    /**
+     * Variante de {@link #retrieveRelevantContext(String, Long)} à partir d'un embedding déjà calculé.
+     */
+    public String retrieveRelevantContext(Embedding queryEmbedding, Long domainId) {
+        return SchemaSegment.join(retrieveSegments(queryEmbedding, domainId));
+    }
+
+    /**
+     * Segments de schéma pertinents avec leur score, pour que le prompt puisse écarter
+     * les moins pertinents s'il dépasse son budget de tokens.
+     */
+    public List<SchemaSegment> retrieveSegments(Embedding queryEmbedding, Long domainId) {
         EmbeddingSearchRequest.EmbeddingSearchRequestBuilder requestBuilder = EmbeddingSearchRequest.builder()
                 .queryEmbedding(queryEmbedding)
                 .maxResults(MAX_RESULTS)
@@ -50,24 +90,46 @@ public class ContextRetriever {
             requestBuilder.filter(metadataKey("domain").isEqualTo(domainId.toString()));
         }
 
-        List<EmbeddingMatch<TextSegment>> matches = embeddingStore.search(requestBuilder.build()).matches();
+        List<EmbeddingMatch<TextSegment>> matches = searchStore().search(requestBuilder.build()).matches();
 
-        String schemaContext;
         if (matches.isEmpty()) {
-            schemaContext = schemaProvider.getSchemaDescription();
-        } else {
-            schemaContext = matches.stream()
-                    .filter(match -> !"business_rules".equals(match.embedded().metadata().getString("type")))
-                    .map(match -> match.embedded().text())
-                    .collect(Collectors.joining("\n\n"));
+            return fallbackSegments();
         }
 
-        // Toujours ajouter les règles métier au contexte
-        StringBuilder rules = new StringBuilder("Règles métier :\n");
-        for (String rule : schemaProvider.getBusinessRules()) {
-            rules.append("- ").append(rule).append("\n");
+        Stream<SchemaSegment> segments = matches.stream()
+                .filter(match -> !"business_rules".equals(match.embedded().metadata().getString("type")))
+                .map(match -> new SchemaSegment(match.embedded().metadata().getString("table"),
+                        match.embedded().text(), match.score()));
+        if (promptBuilder.getLayout() == PromptLayout.STABLE) {
+            // Ordre déterministe (par table) plutôt que par score : un même ensemble de segments
+            // produit toujours le même texte, donc le même préfixe de prompt
+            segments = segments.sorted(Comparator.comparing((SchemaSegment segment) -> String.valueOf(segment.table())));
         }
+        return segments.toList();
+    }
+
+    /**
+     * Contexte complet (description de tout le schéma), utilisé quand la recherche
+     * vectorielle ne renvoie rien ou n'est pas disponible à temps.
+     */
+    public String fallbackContext() {
+        return schemaProvider.getSchemaDescription();
+    }
 
-        return schemaContext + "\n\n" + rules;
+    /**
+     * {@link #fallbackContext()} sous forme d'un segment unique.
+     */
+    public List<SchemaSegment> fallbackSegments() {
+        return List.of(new SchemaSegment(null, schemaProvider.getSchemaDescription(), 1.0));
+    }
+
+    /**
+     * Index mémoire (sans aller-retour JDBC) s'il est configuré et chargé, pgvector sinon.
+     */
+    private EmbeddingStore<TextSegment> searchStore() {
+        if (MEMORY_INDEX.equals(ragIndex) && memoryStore.isLoaded()) {
+            return memoryStore;
+        }
+        return embeddingStore;
     }
 }
@@ -0,0 +1,253 @@
+package com.yourorg.nlsqlengine.rag;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.RelevanceScore;
+import dev.langchain4j.store.embedding.filter.Filter;
+import dev.langchain4j.store.embedding.filter.comparison.IsEqualTo;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Typed;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index vectoriel en mémoire des segments de schéma, alternative à l'aller-retour pgvector
+ * pour un corpus de quelques dizaines de segments. Les segments sont partitionnés par la
+ * métadonnée {@code domain} ; chaque partition range ses vecteurs normalisés bout à bout
+ * dans un unique float[] et la recherche est un parcours exhaustif (produit scalaire sur
+ * mémoire contiguë, vectorisé par le JIT), exact et sans connexion JDBC.
+ * Les scores suivent la convention de pgvector ({@link RelevanceScore#fromCosineSimilarity}).
+ * <p>
+ * Bean restreint à son propre type ({@link Typed}) : il ne concurrence pas le store pgvector
+ * pour l'injection de {@code EmbeddingStore<TextSegment>}.
+ */
+@ApplicationScoped
+@Typed(InMemorySchemaStore.class)
+public class InMemorySchemaStore implements EmbeddingStore<TextSegment> {
+
+    static final String PARTITION_KEY = "domain";
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Partition> partitions = new HashMap<>();
+    private volatile boolean loaded;
+    private volatile String version;
+
+    /**
+     * Vrai dès que l'index a été chargé depuis pgvector ou alimenté par une ingestion, faux de nouveau
+     * après une purge ({@link #removeAll()}) : la recherche retombe alors sur pgvector.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Hash du contenu ({@code embedding_metadata.schema_hash}) que reflète l'index, {@code null} s'il
+     * est inconnu ; comparé au hash stocké pour détecter une ré-ingestion faite par un autre nœud.
+     */
+    public String version() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return partitions.values().stream().mapToInt(p -> p.count).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Remplace tout le contenu de l'index. */
+    public void replaceAll(List<String> ids, List<Embedding> embeddings, List<TextSegment> segments) {
+        lock.writeLock().lock();
+        try {
+            partitions.clear();
+            addAllLocked(ids, embeddings, segments);
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        return add(embedding, null);
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        addAll(List.of(id), List.of(embedding), Arrays.asList((TextSegment) null));
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment segment) {
+        String id = UUID.randomUUID().toString();
+        addAll(List.of(id), List.of(embedding), Arrays.asList(segment));
+        return id;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        List<String> ids = generateIds(embeddings.size());
+        addAll(ids, embeddings, Arrays.asList(new TextSegment[embeddings.size()]));
+        return ids;
+    }
+
+    @Override
+    public void addAll(List<String> ids, List<Embedding> embeddings, List<TextSegment> segments) {
+        lock.writeLock().lock();
+        try {
+            addAllLocked(ids, embeddings, segments);
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeAll() {
+        lock.writeLock().lock();
+        try {
+            partitions.clear();
+            loaded = false;
+            version = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        float[] query = normalize(request.queryEmbedding().vector());
+        Filter filter = request.filter();
+        PriorityQueue<EmbeddingMatch<TextSegment>> best = new PriorityQueue<>(
+                Comparator.comparingDouble(EmbeddingMatch::score));
+
+        lock.readLock().lock();
+        try {
+            // Filtre d'égalité sur le domaine : seule la partition concernée est parcourue
+            if (filter instanceof IsEqualTo equalTo && PARTITION_KEY.equals(equalTo.key())) {
+                Partition partition = partitions.get(String.valueOf(equalTo.comparisonValue()));
+                if (partition != null) {
+                    partition.scan(query, null, request.maxResults(), request.minScore(), best);
+                }
+            } else {
+                for (Partition partition : partitions.values()) {
+                    partition.scan(query, filter, request.maxResults(), request.minScore(), best);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>(best);
+        matches.sort(Comparator.comparingDouble((EmbeddingMatch<TextSegment> m) -> m.score()).reversed());
+        return new EmbeddingSearchResult<>(matches);
+    }
+
+    private void addAllLocked(List<String> ids, List<Embedding> embeddings, List<TextSegment> segments) {
+        for (int i = 0; i < embeddings.size(); i++) {
+            TextSegment segment = segments.get(i);
+            String domain = segment != null ? segment.metadata().getString(PARTITION_KEY) : null;
+            partitions.computeIfAbsent(domain, d -> new Partition())
+                    .add(ids.get(i), normalize(embeddings.get(i).vector()), segment);
+        }
+    }
+
+    static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        norm = Math.sqrt(norm);
+        float[] normalized = new float[vector.length];
+        if (norm == 0) {
+            return normalized;
+        }
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = (float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+
+    /**
+     * Segments d'un domaine : vecteurs normalisés contigus (ligne i = [i * dim, (i + 1) * dim[).
+     */
+    private static final class Partition {
+
+        private int dimension = -1;
+        private int count;
+        private float[] vectors = new float[0];
+        private String[] ids = new String[0];
+        private TextSegment[] segments = new TextSegment[0];
+
+        void add(String id, float[] vector, TextSegment segment) {
+            if (dimension < 0) {
+                dimension = vector.length;
+            } else if (vector.length != dimension) {
+                throw new IllegalArgumentException("Dimension d'embedding incohérente : "
+                        + vector.length + " au lieu de " + dimension);
+            }
+            if (count == ids.length) {
+                int capacity = Math.max(16, count * 2);
+                vectors = Arrays.copyOf(vectors, capacity * dimension);
+                ids = Arrays.copyOf(ids, capacity);
+                segments = Arrays.copyOf(segments, capacity);
+            }
+            System.arraycopy(vector, 0, vectors, count * dimension, dimension);
+            ids[count] = id;
+            segments[count] = segment;
+            count++;
+        }
+
+        void scan(float[] query, Filter filter, int maxResults, double minScore,
+                  PriorityQueue<EmbeddingMatch<TextSegment>> best) {
+            if (query.length != dimension) {
+                return;
+            }
+            for (int row = 0; row < count; row++) {
+                TextSegment segment = segments[row];
+                if (filter != null && (segment == null || !filter.test(segment.metadata()))) {
+                    continue;
+                }
+                int offset = row * dimension;
+                float dot = 0f;
+                for (int d = 0; d < dimension; d++) {
+                    dot += query[d] * vectors[offset + d];
+                }
+                double score = RelevanceScore.fromCosineSimilarity(dot);
+                if (score < minScore) {
+                    continue;
+                }
+                if (best.size() < maxResults) {
+                    best.add(match(row, score));
+                } else if (score > best.peek().score()) {
+                    best.poll();
+                    best.add(match(row, score));
+                }
+            }
+        }
+
+        private EmbeddingMatch<TextSegment> match(int row, double score) {
+            float[] vector = Arrays.copyOfRange(vectors, row * dimension, (row + 1) * dimension);
+            return new EmbeddingMatch<>(score, ids[row], Embedding.from(vector), segments[row]);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.yourorg.nlsqlengine.rag;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourorg.nlsqlengine.llm.LlmBackendPool;
 import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
-import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import io.agroal.api.AgroalDataSource;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -15,18 +18,21 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
 
 @ApplicationScoped
 public class SchemaEmbeddingService {
 
     private static final Logger LOG = Logger.getLogger(SchemaEmbeddingService.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
 
     @Inject
-    EmbeddingModel embeddingModel;
+    LlmBackendPool llmBackends;
 
     @Inject
     EmbeddingStore<TextSegment> embeddingStore;
@@ -40,6 +46,9 @@ public class SchemaEmbeddingService {
     @Inject
     EmbeddingHashRepository hashRepository;
 
+    @Inject
+    InMemorySchemaStore memoryStore;
+
     /**
      * Vérifie si le contenu a changé et ré-ingère si nécessaire.
      */
@@ -57,6 +66,7 @@ public class SchemaEmbeddingService {
         purgeEmbeddings();
         ingestSchema();
         hashRepository.saveHash(currentHash);
+        memoryStore.setVersion(currentHash);
         LOG.info("Ré-ingestion terminée, hash mis à jour");
     }
 
@@ -75,8 +85,9 @@ public class SchemaEmbeddingService {
         }
         segments.add(TextSegment.from(rulesText.toString(), Metadata.from("type", "business_rules")));
 
-        List<Embedding> embeddings = embeddingModel.embedAll(segments).content();
-        embeddingStore.addAll(embeddings, segments);
+        List<Embedding> embeddings = llmBackends.embeddingModel().embedAll(segments).content();
+        List<String> ids = embeddingStore.addAll(embeddings, segments);
+        memoryStore.addAll(ids, embeddings, segments);
 
         LOG.infof("Ingéré %d segments dans pgvector", segments.size());
     }
@@ -88,12 +99,70 @@ public class SchemaEmbeddingService {
         try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement("DELETE FROM embeddings")) {
             int deleted = ps.executeUpdate();
+            memoryStore.removeAll();
             LOG.infof("Purgé %d embeddings existants", deleted);
         } catch (SQLException e) {
             throw new RuntimeException("Impossible de purger les embeddings", e);
         }
     }
 
+    /**
+     * Recharge l'index mémoire des segments depuis la table pgvector (au démarrage,
+     * y compris quand aucune ré-ingestion n'a été nécessaire).
+     */
+    public void loadMemoryIndex() {
+        // Lu avant les segments : une ré-ingestion concurrente laisse l'index marqué périmé
+        String storedHash = hashRepository.getStoredHash();
+        List<String> ids = new ArrayList<>();
+        List<Embedding> embeddings = new ArrayList<>();
+        List<TextSegment> segments = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT embedding_id, embedding::text, text, metadata::text FROM embeddings");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getString(1));
+                embeddings.add(Embedding.from(parseVector(rs.getString(2))));
+                String metadata = rs.getString(4);
+                segments.add(TextSegment.from(rs.getString(3), metadata == null
+                        ? new Metadata()
+                        : Metadata.from(MAPPER.readValue(metadata, new TypeReference<Map<String, Object>>() {
+                        }))));
+            }
+        } catch (SQLException | JsonProcessingException e) {
+            throw new RuntimeException("Impossible de charger l'index mémoire des embeddings", e);
+        }
+        memoryStore.replaceAll(ids, embeddings, segments);
+        memoryStore.setVersion(storedHash);
+        LOG.infof("Index mémoire chargé : %d segments", segments.size());
+    }
+
+    /**
+     * Recharge l'index mémoire s'il n'est pas chargé ou si le hash stocké dans pgvector ne correspond
+     * plus à celui de son chargement (ré-ingestion faite par un autre nœud).
+     *
+     * @return vrai si l'index a été rechargé
+     */
+    public boolean refreshMemoryIndexIfStale() {
+        String storedHash = hashRepository.getStoredHash();
+        if (memoryStore.isLoaded() && (storedHash == null || storedHash.equals(memoryStore.version()))) {
+            return false;
+        }
+        LOG.infof("Index mémoire périmé (hash %s, attendu %s), rechargement depuis pgvector",
+                memoryStore.version(), storedHash);
+        loadMemoryIndex();
+        return true;
+    }
+
+    static float[] parseVector(String literal) {
+        String[] values = literal.substring(1, literal.length() - 1).split(",");
+        float[] vector = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            vector[i] = Float.parseFloat(values[i]);
+        }
+        return vector;
+    }
+
     String computeContentHash() {
         String description = schemaProvider.getSchemaDescription();
         List<String> rules = schemaProvider.getBusinessRules();
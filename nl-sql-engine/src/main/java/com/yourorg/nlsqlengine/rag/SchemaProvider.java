@@ -1,17 +1,31 @@
 package com.yourorg.nlsqlengine.rag;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 @ApplicationScoped
 public class SchemaProvider {
 
+    /**
+     * Colonnes VARCHAR contenant des valeurs numériques (ou 'unknown' / 'n/a') dans le schéma Star Wars.
+     */
+    private static final List<String> NUMERIC_TEXT_COLUMNS = List.of(
+            "height", "mass", "population", "diameter", "rotation_period", "orbital_period", "average_height",
+            "average_lifespan", "cost_in_credits", "length", "max_atmosphering_speed", "crew", "passengers",
+            "cargo_capacity", "hyperdrive_rating", "surface_water");
+
     private final String schemaDescription;
 
+    // Conversions numériques ajoutées automatiquement par SqlPostProcessor : la règle VARCHAR devient inutile
+    @ConfigProperty(name = "nlsql.sql.numeric-casting.enabled", defaultValue = "true")
+    boolean numericCasting = true;
+
     public SchemaProvider() {
         this.schemaDescription = loadResource("schema/starwars-description.txt");
     }
@@ -20,8 +34,12 @@ public class SchemaProvider {
         return schemaDescription;
     }
 
+    public List<String> getNumericTextColumns() {
+        return NUMERIC_TEXT_COLUMNS;
+    }
+
     public List<String> getBusinessRules() {
-        return List.of(
+        List<String> rules = new ArrayList<>(List.of(
                 "Les valeurs 'unknown' ou 'n/a' signifient que l'information n'est pas disponible",
                 "birth_year est au format BBY (Before Battle of Yavin) ou ABY (After Battle of Yavin)",
                 "Pour joindre un personnage à ses films, utiliser la table film_characters",
@@ -30,9 +48,12 @@ public class SchemaProvider {
                 "Pour les vaisseaux d'un film, utiliser la table film_starships",
                 "La relation entre species et planets est directe via species.homeworld_id (FK vers planets.id), il n'existe PAS de table species_planets",
                 "La relation entre people et planets est directe via people.homeworld_id (FK vers planets.id), il n'existe PAS de table people_planets",
-                "Les seules tables de jointure existantes sont : film_characters, film_planets, film_starships, starship_pilots. Ne jamais inventer d'autres tables de jointure",
-                "IMPORTANT — Colonnes VARCHAR à valeur numérique : height, mass, population, diameter, rotation_period, orbital_period, average_height, average_lifespan, cost_in_credits, length, max_atmosphering_speed, crew, passengers, cargo_capacity, hyperdrive_rating, surface_water sont toutes de type VARCHAR (elles peuvent contenir 'unknown' ou 'n/a'). Règles obligatoires : (1) Toujours filtrer d'abord avec WHERE colonne ~ '^[0-9]+(\\.[0-9]+)?$' pour exclure les non-numériques. (2) Toujours utiliser CAST(colonne AS NUMERIC) pour CHAQUE colonne VARCHAR dans une comparaison, un tri, ou une opération arithmétique. Exemple correct : WHERE s.crew ~ '^[0-9]+(\\.[0-9]+)?$' AND CAST(s.crew AS NUMERIC) > 10. Exemple avec calcul : CAST(s.cargo_capacity AS NUMERIC) - CAST(s.crew AS NUMERIC). Ne JAMAIS utiliser une colonne VARCHAR directement avec un opérateur numérique (+, -, *, /, >, <, =nombre)"
-        );
+                "Les seules tables de jointure existantes sont : film_characters, film_planets, film_starships, starship_pilots. Ne jamais inventer d'autres tables de jointure"
+        ));
+        if (!numericCasting) {
+            rules.add("IMPORTANT — Colonnes VARCHAR à valeur numérique : " + String.join(", ", NUMERIC_TEXT_COLUMNS) + " sont toutes de type VARCHAR (elles peuvent contenir 'unknown' ou 'n/a'). Règles obligatoires : (1) Toujours filtrer d'abord avec WHERE colonne ~ '^[0-9]+(\\.[0-9]+)?$' pour exclure les non-numériques. (2) Toujours utiliser CAST(colonne AS NUMERIC) pour CHAQUE colonne VARCHAR dans une comparaison, un tri, ou une opération arithmétique. Exemple correct : WHERE s.crew ~ '^[0-9]+(\\.[0-9]+)?$' AND CAST(s.crew AS NUMERIC) > 10. Exemple avec calcul : CAST(s.cargo_capacity AS NUMERIC) - CAST(s.crew AS NUMERIC). Ne JAMAIS utiliser une colonne VARCHAR directement avec un opérateur numérique (+, -, *, /, >, <, =nombre)");
+        }
+        return rules;
     }
 
     private String loadResource(String path) {
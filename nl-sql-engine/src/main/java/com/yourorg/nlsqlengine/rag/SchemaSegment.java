@@ -0,0 +1,17 @@
+package com.yourorg.nlsqlengine.rag;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Segment de schéma retenu pour le contexte du prompt, avec son score de pertinence
+ * (permet d'écarter les moins pertinents quand le prompt dépasse son budget de tokens).
+ *
+ * @param table nom de la table décrite, null pour la description complète du schéma
+ */
+public record SchemaSegment(String table, String text, double score) {
+
+    public static String join(List<SchemaSegment> segments) {
+        return segments.stream().map(SchemaSegment::text).collect(Collectors.joining("\n\n"));
+    }
+}
@@ -1,12 +1,17 @@
 package com.yourorg.nlsqlengine.rag;
 
 import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 @ApplicationScoped
 public class StartupEmbeddingSync {
 
@@ -18,12 +23,56 @@ public class StartupEmbeddingSync {
     @ConfigProperty(name = "nlsql.embedding.sync-on-startup", defaultValue = "true")
     boolean syncOnStartup;
 
+    @ConfigProperty(name = "nlsql.rag.index", defaultValue = "memory")
+    String ragIndex;
+
+    @ConfigProperty(name = "nlsql.rag.memory-index.refresh-seconds", defaultValue = "60")
+    long refreshSeconds = 60;
+
+    private ScheduledExecutorService refresher;
+
     void onStart(@Observes StartupEvent ev) {
         if (!syncOnStartup) {
             LOG.info("Synchronisation des embeddings désactivée au démarrage");
-            return;
+        } else {
+            LOG.info("Vérification des embeddings au démarrage...");
+            embeddingService.ingestIfChanged();
+        }
+
+        if (ContextRetriever.MEMORY_INDEX.equals(ragIndex)) {
+            try {
+                embeddingService.loadMemoryIndex();
+            } catch (RuntimeException e) {
+                LOG.warn("Index mémoire indisponible, la recherche RAG interrogera pgvector", e);
+            }
+            if (refreshSeconds > 0) {
+                refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "nlsql-rag-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                refresher.scheduleWithFixedDelay(this::refreshMemoryIndex, refreshSeconds, refreshSeconds,
+                        TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    /**
+     * Vérification périodique du hash stocké : un nœud dont l'index a été chargé avant une
+     * ré-ingestion faite ailleurs le recharge au lieu de servir des segments périmés.
+     */
+    void refreshMemoryIndex() {
+        try {
+            embeddingService.refreshMemoryIndexIfStale();
+        } catch (RuntimeException e) {
+            LOG.warn("Rechargement de l'index mémoire impossible, nouvel essai au prochain cycle", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
         }
-        LOG.info("Vérification des embeddings au démarrage...");
-        embeddingService.ingestIfChanged();
     }
 }
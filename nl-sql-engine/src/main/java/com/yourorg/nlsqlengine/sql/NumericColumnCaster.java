@@ -0,0 +1,205 @@
+package com.yourorg.nlsqlengine.sql;
+
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.CaseExpression;
+import net.sf.jsqlparser.expression.CastExpression;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.StringValue;
+import net.sf.jsqlparser.expression.operators.arithmetic.Addition;
+import net.sf.jsqlparser.expression.operators.arithmetic.Division;
+import net.sf.jsqlparser.expression.operators.arithmetic.Modulo;
+import net.sf.jsqlparser.expression.operators.arithmetic.Multiplication;
+import net.sf.jsqlparser.expression.operators.arithmetic.Subtraction;
+import net.sf.jsqlparser.expression.operators.relational.Between;
+import net.sf.jsqlparser.expression.operators.relational.ComparisonOperator;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.select.FromItem;
+import net.sf.jsqlparser.statement.select.Join;
+import net.sf.jsqlparser.statement.select.OrderByElement;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Conversion sûre des colonnes VARCHAR à valeur numérique utilisées dans un contexte numérique :
+ * comparaison avec autre chose qu'une chaîne, opération arithmétique, BETWEEN, ORDER BY, agrégat
+ * (SUM, AVG, MIN, MAX) et CAST explicite vers un type numérique. La colonne devient
+ * {@code CAST(CASE WHEN col ~ '^[0-9]+(\.[0-9]+)?$' THEN col END AS NUMERIC)} : les valeurs
+ * 'unknown' / 'n/a' valent NULL au lieu de faire échouer la requête. Aucun filtre {@code col ~ '...'}
+ * n'est ajouté au WHERE : la comparaison avec NULL écarte déjà la ligne, et un filtre en tête
+ * écarterait à tort les lignes retenues par une autre branche d'un OR.
+ * <p>
+ * Les colonnes sont désignées par {@code table.colonne} (alias résolus d'après le FROM) ou
+ * {@code *.colonne} pour une colonne de ce nom dans n'importe quelle table.
+ */
+final class NumericColumnCaster extends SelectRewriter {
+
+    static final String NUMERIC_PATTERN = "^[0-9]+(\\.[0-9]+)?$";
+
+    private static final Set<String> AGGREGATES = Set.of("SUM", "AVG", "MIN", "MAX");
+    private static final Set<String> NUMERIC_TYPES = Set.of("NUMERIC", "DECIMAL", "INT", "INTEGER", "BIGINT",
+            "SMALLINT", "FLOAT", "REAL", "DOUBLE PRECISION", "INT4", "INT8", "FLOAT8");
+
+    private final Set<String> numericTextColumns;
+    // Tables visibles (alias -> table) du SELECT courant et des SELECT englobants (sous-requêtes corrélées)
+    private final Deque<Map<String, String>> scopes = new ArrayDeque<>();
+    private int casts;
+
+    /**
+     * @param numericTextColumns {@code table.colonne} ou {@code *.colonne}, en minuscules
+     */
+    NumericColumnCaster(Set<String> numericTextColumns) {
+        this.numericTextColumns = numericTextColumns;
+    }
+
+    int casts() {
+        return casts;
+    }
+
+    @Override
+    void rewritePlainSelect(PlainSelect plainSelect) {
+        scopes.push(tablesOf(plainSelect));
+        try {
+            super.rewritePlainSelect(plainSelect);
+        } finally {
+            scopes.pop();
+        }
+    }
+
+    @Override
+    void rewriteOrderBy(OrderByElement element) {
+        if (isNumericText(element.getExpression())) {
+            element.setExpression(cast((Column) element.getExpression()));
+        }
+        super.rewriteOrderBy(element);
+    }
+
+    @Override
+    protected <S> Void visitBinaryExpression(BinaryExpression expression, S context) {
+        boolean numericContext = expression instanceof Addition || expression instanceof Subtraction
+                || expression instanceof Multiplication || expression instanceof Division
+                || expression instanceof Modulo
+                || expression instanceof ComparisonOperator;
+        if (numericContext) {
+            Expression left = expression.getLeftExpression();
+            Expression right = expression.getRightExpression();
+            if (isNumericText(left) && !(right instanceof StringValue)) {
+                expression.setLeftExpression(cast((Column) left));
+            }
+            if (isNumericText(right) && !(left instanceof StringValue)) {
+                expression.setRightExpression(cast((Column) right));
+            }
+        }
+        return super.visitBinaryExpression(expression, context);
+    }
+
+    @Override
+    public <S> Void visit(Between between, S context) {
+        if (isNumericText(between.getLeftExpression()) && !(between.getBetweenExpressionStart() instanceof StringValue)) {
+            between.setLeftExpression(cast((Column) between.getLeftExpression()));
+        }
+        return super.visit(between, context);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S> Void visit(Function function, S context) {
+        String name = function.getName() == null ? "" : function.getName().toUpperCase(Locale.ROOT);
+        if (AGGREGATES.contains(name) && function.getParameters() != null) {
+            ExpressionList<Expression> parameters = (ExpressionList<Expression>) function.getParameters();
+            for (int i = 0; i < parameters.size(); i++) {
+                if (isNumericText(parameters.get(i))) {
+                    parameters.set(i, cast((Column) parameters.get(i)));
+                }
+            }
+        }
+        return super.visit(function, context);
+    }
+
+    @Override
+    public <S> Void visit(CastExpression castExpression, S context) {
+        // CAST(col AS NUMERIC) écrit par le modèle : rendu sûr sans double conversion
+        if (isNumericText(castExpression.getLeftExpression()) && castExpression.getColDataType() != null
+                && NUMERIC_TYPES.contains(castExpression.getColDataType().getDataType().toUpperCase(Locale.ROOT))) {
+            Column column = (Column) castExpression.getLeftExpression();
+            castExpression.setLeftExpression(guardedValue(column));
+            casts++;
+        }
+        return super.visit(castExpression, context);
+    }
+
+    boolean isNumericText(Expression expression) {
+        if (!(expression instanceof Column column)) {
+            return false;
+        }
+        String name = column.getColumnName().toLowerCase(Locale.ROOT);
+        if (numericTextColumns.contains("*." + name)) {
+            return true;
+        }
+        Table qualifier = column.getTable();
+        if (qualifier != null && qualifier.getName() != null) {
+            String table = resolve(qualifier.getName().toLowerCase(Locale.ROOT));
+            return numericTextColumns.contains(table + "." + name);
+        }
+        Map<String, String> current = scopes.peek();
+        return current != null && current.values().stream()
+                .anyMatch(table -> numericTextColumns.contains(table + "." + name));
+    }
+
+    private Expression cast(Column column) {
+        casts++;
+        CastExpression cast = (CastExpression) parse("CAST(" + column + " AS NUMERIC)");
+        cast.setLeftExpression(guardedValue(column));
+        return cast;
+    }
+
+    private static CaseExpression guardedValue(Column column) {
+        return (CaseExpression) parse("CASE WHEN " + column + " ~ '" + NUMERIC_PATTERN + "' THEN " + column + " END");
+    }
+
+    private String resolve(String qualifier) {
+        for (Map<String, String> scope : scopes) {
+            String table = scope.get(qualifier);
+            if (table != null) {
+                return table;
+            }
+        }
+        return qualifier;
+    }
+
+    private static Map<String, String> tablesOf(PlainSelect plainSelect) {
+        Map<String, String> tables = new LinkedHashMap<>();
+        addTable(tables, plainSelect.getFromItem());
+        if (plainSelect.getJoins() != null) {
+            for (Join join : plainSelect.getJoins()) {
+                addTable(tables, join.getRightItem());
+            }
+        }
+        return tables;
+    }
+
+    private static void addTable(Map<String, String> tables, FromItem fromItem) {
+        if (fromItem instanceof Table table) {
+            String name = table.getName().toLowerCase(Locale.ROOT);
+            tables.put(table.getAlias() != null ? table.getAlias().getName().toLowerCase(Locale.ROOT) : name, name);
+        }
+    }
+
+    private static Expression parse(String expression) {
+        try {
+            return CCJSqlParserUtil.parseCondExpression(expression);
+        } catch (JSQLParserException e) {
+            throw new IllegalStateException("Expression de réécriture invalide : " + expression, e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.yourorg.nlsqlengine.sql;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Résultat d'une requête en format colonnaire compact : description des colonnes (nom et type SQL issus
+ * de {@code ResultSetMetaData}) et lignes positionnelles. Les noms de colonnes ne sont pas répétés
+ * à chaque ligne et aucune entrée de map n'est allouée par cellule.
+ * <p>
+ * {@link #asMaps()} en donne une vue ligne par ligne {@code {colonne: valeur}}, sans copie, pour les
+ * consommateurs qui travaillent par nom de colonne (formulation de la réponse, format JSON historique).
+ *
+ * @param rows valeurs de chaque ligne, dans l'ordre de {@code columns}
+ */
+public record ResultTable(List<Column> columns, List<Object[]> rows) {
+
+    public static final ResultTable EMPTY = new ResultTable(List.of(), List.of());
+
+    /**
+     * @param type nom du type SQL de la colonne ({@code ResultSetMetaData.getColumnTypeName}, ex. {@code int4})
+     */
+    public record Column(String name, String type) {
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * Colonnes masquées par une colonne homonyme plus à droite ({@code SELECT a.name, b.name}) :
+     * par nom, seule la dernière valeur est visible, comme dans une map.
+     */
+    public static boolean[] shadowedColumns(List<Column> columns) {
+        boolean[] shadowed = new boolean[columns.size()];
+        Map<String, Integer> last = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            Integer previous = last.put(columns.get(i).name(), i);
+            if (previous != null) {
+                shadowed[previous] = true;
+            }
+        }
+        return shadowed;
+    }
+
+    /**
+     * Vue en lecture seule des lignes sous forme de maps {@code {colonne: valeur}} dans l'ordre des colonnes.
+     */
+    public List<Map<String, Object>> asMaps() {
+        Layout layout = new Layout(columns);
+        return new AbstractList<>() {
+            @Override
+            public Map<String, Object> get(int index) {
+                return new RowView(layout, rows.get(index));
+            }
+
+            @Override
+            public int size() {
+                return rows.size();
+            }
+        };
+    }
+
+    /**
+     * Noms visibles et position de leur valeur, calculés une fois pour toutes les lignes.
+     */
+    private static final class Layout {
+
+        private final String[] names;
+        private final int[] positions;
+        private final Map<String, Integer> index = new HashMap<>();
+
+        Layout(List<Column> columns) {
+            boolean[] shadowed = shadowedColumns(columns);
+            int visible = 0;
+            for (boolean hidden : shadowed) {
+                if (!hidden) {
+                    visible++;
+                }
+            }
+            names = new String[visible];
+            positions = new int[visible];
+            int k = 0;
+            for (int i = 0; i < columns.size(); i++) {
+                if (!shadowed[i]) {
+                    names[k] = columns.get(i).name();
+                    positions[k] = i;
+                    index.put(names[k], i);
+                    k++;
+                }
+            }
+        }
+    }
+
+    private static final class RowView extends AbstractMap<String, Object> {
+
+        private final Layout layout;
+        private final Object[] values;
+
+        RowView(Layout layout, Object[] values) {
+            this.layout = layout;
+            this.values = values;
+        }
+
+        @Override
+        public Object get(Object key) {
+            Integer position = layout.index.get(key);
+            return position != null ? values[position] : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return layout.index.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return layout.names.length;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < layout.names.length;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (next >= layout.names.length) {
+                                throw new NoSuchElementException();
+                            }
+                            int k = next++;
+                            return new SimpleImmutableEntry<>(layout.names[k], values[layout.positions[k]]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return layout.names.length;
+                }
+            };
+        }
+    }
+}
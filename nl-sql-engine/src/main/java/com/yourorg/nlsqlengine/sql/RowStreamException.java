@@ -0,0 +1,12 @@
+package com.yourorg.nlsqlengine.sql;
+
+/**
+ * Échec d'une exécution en flux après l'envoi des premières lignes : la sortie est déjà entamée,
+ * la requête ne peut être ni réparée ni relancée.
+ */
+public class RowStreamException extends RuntimeException {
+
+    public RowStreamException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
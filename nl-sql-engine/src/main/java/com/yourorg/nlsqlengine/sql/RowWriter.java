@@ -0,0 +1,24 @@
+package com.yourorg.nlsqlengine.sql;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination des lignes d'une exécution en flux ({@link SqlExecutor#stream}) : chaque ligne lui est
+ * transmise dès sa lecture sur le curseur, sans être conservée.
+ */
+public interface RowWriter {
+
+    /**
+     * Appelé une fois la requête exécutée avec succès, avant la première ligne.
+     */
+    void start(String sql, List<ResultTable.Column> columns) throws IOException;
+
+    /**
+     * @param values valeurs de la ligne, dans l'ordre des colonnes ; le tableau est réutilisé
+     *               d'une ligne à l'autre et ne doit pas être conservé
+     */
+    void row(Object[] values) throws IOException;
+
+    void end(long rowCount) throws IOException;
+}
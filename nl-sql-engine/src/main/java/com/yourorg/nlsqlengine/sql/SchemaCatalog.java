@@ -0,0 +1,191 @@
+package com.yourorg.nlsqlengine.sql;
+
+import io.agroal.api.AgroalDataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Instantané de {@code information_schema.columns} pour le schéma courant : colonnes de chaque table
+ * dans l'ordre de déclaration, avec leur type. Chargé au premier accès puis gardé en mémoire
+ * ({@link #refresh()} après une modification du schéma).
+ * Les colonnes texte sont échantillonnées au chargement : celles dont presque toutes les valeurs
+ * renseignées sont numériques (ex : {@code height} = '172' ou 'unknown') sont marquées {@code numericText}.
+ * Une seule valeur à zéro initial (code postal, identifiant '007') suffit à exclure la colonne.
+ */
+@ApplicationScoped
+public class SchemaCatalog {
+
+    private static final Logger LOG = Logger.getLogger(SchemaCatalog.class);
+
+    private static final String COLUMNS_QUERY = """
+            SELECT table_name, column_name, data_type
+            FROM information_schema.columns
+            WHERE table_schema = current_schema()
+            ORDER BY table_name, ordinal_position""";
+
+    private static final Set<String> TEXT_TYPES = Set.of("character varying", "text", "character");
+    private static final int SAMPLE_ROWS = 1000;
+    // Marqueurs d'absence de donnée, ignorés dans le calcul de la proportion de valeurs numériques
+    private static final String MISSING_VALUES = "('', 'unknown', 'n/a', 'none')";
+    private static final double MIN_NUMERIC_RATIO = 0.9;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    private volatile Map<String, List<ColumnInfo>> tables;
+
+    // Verrou plutôt que synchronized : la lecture du catalogue (JDBC) ne doit pas épingler
+    // le thread porteur des requêtes exécutées sur threads virtuels
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    /**
+     * Colonnes d'une table (nom insensible à la casse), liste vide si la table est inconnue.
+     */
+    public List<ColumnInfo> columns(String table) {
+        return snapshot().getOrDefault(table.toLowerCase(Locale.ROOT), List.of());
+    }
+
+    /**
+     * Colonnes texte à valeur numérique, sous la forme {@code table.colonne} en minuscules.
+     */
+    public Set<String> numericTextColumns() {
+        Set<String> result = new HashSet<>();
+        snapshot().forEach((table, columns) -> columns.stream()
+                .filter(ColumnInfo::numericText)
+                .forEach(column -> result.add(table + "." + column.name().toLowerCase(Locale.ROOT))));
+        return result;
+    }
+
+    public void refresh() {
+        tables = null;
+    }
+
+    /**
+     * Remplace l'instantané (tests, ou catalogue construit hors base).
+     */
+    void load(Map<String, List<ColumnInfo>> columnsByTable) {
+        Map<String, List<ColumnInfo>> copy = new LinkedHashMap<>();
+        columnsByTable.forEach((table, columns) -> copy.put(table.toLowerCase(Locale.ROOT), List.copyOf(columns)));
+        tables = copy;
+    }
+
+    private Map<String, List<ColumnInfo>> snapshot() {
+        Map<String, List<ColumnInfo>> current = tables;
+        if (current == null) {
+            loadLock.lock();
+            try {
+                current = tables;
+                if (current == null) {
+                    current = readCatalog();
+                    // Pas de mise en cache d'un échec de lecture : nouvel essai au prochain accès
+                    if (current.isEmpty()) {
+                        return current;
+                    }
+                    tables = current;
+                }
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    private Map<String, List<ColumnInfo>> readCatalog() {
+        Map<String, List<ColumnInfo>> result = new LinkedHashMap<>();
+        try (Connection conn = dataSource.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(COLUMNS_QUERY);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.computeIfAbsent(rs.getString("table_name").toLowerCase(Locale.ROOT), t -> new ArrayList<>())
+                            .add(new ColumnInfo(rs.getString("column_name"), rs.getString("data_type"), false));
+                }
+            }
+            for (Map.Entry<String, List<ColumnInfo>> entry : result.entrySet()) {
+                entry.setValue(sampleTextColumns(conn, entry.getKey(), entry.getValue()));
+            }
+            LOG.infof("Catalogue du schéma chargé : %d tables", result.size());
+        } catch (SQLException e) {
+            LOG.warnf("Lecture de information_schema.columns impossible : %s", e.getMessage());
+            return new LinkedHashMap<>();
+        }
+        return result;
+    }
+
+    /**
+     * Une requête par table sur un échantillon de lignes : pour chaque colonne texte, nombre de valeurs
+     * non nulles, de valeurs numériques, de marqueurs d'absence et de valeurs à zéro initial.
+     */
+    private List<ColumnInfo> sampleTextColumns(Connection conn, String table, List<ColumnInfo> columns) {
+        List<ColumnInfo> textColumns = columns.stream().filter(column -> TEXT_TYPES.contains(column.dataType())).toList();
+        if (textColumns.isEmpty()) {
+            return columns;
+        }
+        StringBuilder select = new StringBuilder("SELECT ");
+        StringBuilder sample = new StringBuilder();
+        for (int i = 0; i < textColumns.size(); i++) {
+            String column = quote(textColumns.get(i).name());
+            select.append(i == 0 ? "" : ", ")
+                    .append("count(").append(column).append("), count(*) FILTER (WHERE ").append(column)
+                    .append(" ~ '").append(NumericColumnCaster.NUMERIC_PATTERN).append("')")
+                    .append(", count(*) FILTER (WHERE lower(trim(").append(column).append(")) IN ")
+                    .append(MISSING_VALUES).append(")")
+                    .append(", count(*) FILTER (WHERE ").append(column).append(" ~ '^0[0-9]')");
+            sample.append(i == 0 ? "" : ", ").append(column);
+        }
+        select.append(" FROM (SELECT ").append(sample).append(" FROM ").append(quote(table))
+                .append(" LIMIT ").append(SAMPLE_ROWS).append(") sample");
+
+        Set<String> numeric = new HashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement(select.toString());
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                for (int i = 0; i < textColumns.size(); i++) {
+                    if (isNumericText(rs.getLong(4 * i + 1), rs.getLong(4 * i + 2), rs.getLong(4 * i + 3),
+                            rs.getLong(4 * i + 4))) {
+                        numeric.add(textColumns.get(i).name());
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            LOG.warnf("Échantillonnage de la table %s impossible : %s", table, e.getMessage());
+            return columns;
+        }
+        return columns.stream()
+                .map(column -> new ColumnInfo(column.name(), column.dataType(), numeric.contains(column.name())))
+                .toList();
+    }
+
+    /**
+     * Colonne texte à traiter comme numérique : au moins {@value #MIN_NUMERIC_RATIO} des valeurs renseignées
+     * (hors 'unknown', 'n/a'...) sont numériques, et aucune ne commence par un zéro significatif.
+     */
+    static boolean isNumericText(long values, long numericValues, long missingValues, long leadingZeros) {
+        long present = values - missingValues;
+        return numericValues > 0 && leadingZeros == 0 && numericValues >= MIN_NUMERIC_RATIO * present;
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * @param dataType    type SQL tel que rapporté par information_schema (ex : "character varying", "integer")
+     * @param numericText colonne texte dont les valeurs échantillonnées sont numériques (voir {@link #isNumericText})
+     */
+    public record ColumnInfo(String name, String dataType, boolean numericText) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.yourorg.nlsqlengine.sql;
+
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
+import net.sf.jsqlparser.statement.select.FromItem;
+import net.sf.jsqlparser.statement.select.Join;
+import net.sf.jsqlparser.statement.select.OrderByElement;
+import net.sf.jsqlparser.statement.select.ParenthesedSelect;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.SelectItem;
+import net.sf.jsqlparser.statement.select.SelectVisitorAdapter;
+import net.sf.jsqlparser.statement.select.SetOperationList;
+
+/**
+ * Parcours d'un arbre SELECT (CTE, UNION, sous-requêtes dans FROM, JOIN et expressions) qui visite
+ * chaque {@link PlainSelect} puis chacune de ses expressions. Les sous-classes modifient l'arbre
+ * sur place en redéfinissant les méthodes de visite des expressions ou {@link #rewritePlainSelect}.
+ */
+abstract class SelectRewriter extends ExpressionVisitorAdapter<Void> {
+
+    SelectRewriter() {
+        setSelectVisitor(new SelectVisitorAdapter<>() {
+            @Override
+            public <S> Void visit(PlainSelect plainSelect, S context) {
+                rewritePlainSelect(plainSelect);
+                return null;
+            }
+
+            @Override
+            public <S> Void visit(SetOperationList setOperationList, S context) {
+                for (Select select : setOperationList.getSelects()) {
+                    apply(select);
+                }
+                return null;
+            }
+
+            @Override
+            public <S> Void visit(ParenthesedSelect parenthesedSelect, S context) {
+                apply(parenthesedSelect.getSelect());
+                return null;
+            }
+        });
+    }
+
+    void apply(Select select) {
+        visit(select, null);
+    }
+
+    void rewritePlainSelect(PlainSelect plainSelect) {
+        for (SelectItem<?> item : plainSelect.getSelectItems()) {
+            accept(item.getExpression());
+        }
+        acceptFromItem(plainSelect.getFromItem());
+        if (plainSelect.getJoins() != null) {
+            for (Join join : plainSelect.getJoins()) {
+                acceptFromItem(join.getRightItem());
+                join.getOnExpressions().forEach(this::accept);
+            }
+        }
+        rewriteWhere(plainSelect);
+        if (plainSelect.getGroupBy() != null) {
+            plainSelect.getGroupBy().getGroupByExpressionList().forEach(expression -> accept((Expression) expression));
+        }
+        accept(plainSelect.getHaving());
+        if (plainSelect.getOrderByElements() != null) {
+            for (OrderByElement element : plainSelect.getOrderByElements()) {
+                rewriteOrderBy(element);
+            }
+        }
+    }
+
+    void rewriteWhere(PlainSelect plainSelect) {
+        accept(plainSelect.getWhere());
+    }
+
+    void rewriteOrderBy(OrderByElement element) {
+        accept(element.getExpression());
+    }
+
+    final void accept(Expression expression) {
+        if (expression != null) {
+            expression.accept(this, null);
+        }
+    }
+
+    private void acceptFromItem(FromItem fromItem) {
+        if (fromItem instanceof ParenthesedSelect subquery) {
+            apply(subquery.getSelect());
+        }
+    }
+}
@@ -1,29 +1,89 @@
 package com.yourorg.nlsqlengine.sql;
 
+import com.yourorg.nlsqlengine.cancel.CancellationToken;
+import com.yourorg.nlsqlengine.metrics.PipelineMetrics;
+import com.yourorg.nlsqlengine.tracing.PipelineTracer;
 import io.agroal.api.AgroalDataSource;
+import io.opentelemetry.api.trace.SpanKind;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 
 @ApplicationScoped
 public class SqlExecutor {
 
+    private static final Logger LOG = Logger.getLogger(SqlExecutor.class);
+
     @Inject
     AgroalDataSource dataSource;
 
+    @Inject
+    PipelineMetrics metrics;
+
+    @Inject
+    PipelineTracer tracer;
+
     @ConfigProperty(name = "nlsql.executor.max-rows", defaultValue = "100")
     int maxRows;
 
     @ConfigProperty(name = "nlsql.executor.timeout-seconds", defaultValue = "30")
     int timeoutSeconds;
 
-    public List<Map<String, Object>> execute(String sql) throws SQLException {
+    @ConfigProperty(name = "nlsql.executor.fetch-size", defaultValue = "500")
+    int fetchSize = 500;
+
+    @ConfigProperty(name = "nlsql.executor.export.max-rows", defaultValue = "1000000")
+    int exportMaxRows = 1_000_000;
+
+    @ConfigProperty(name = "nlsql.executor.export.answer-rows", defaultValue = "100")
+    int answerRows = 100;
+
+    /**
+     * Exécute la requête dans un span JDBC ; le texte SQL n'est exporté que sous forme d'empreinte.
+     * Le résultat est colonnaire ({@link ResultTable}) : {@link ResultTable#asMaps()} en donne la vue par ligne.
+     */
+    public ResultTable execute(String sql) throws SQLException {
+        return tracer.inSpan("SqlExecutor.execute", SpanKind.CLIENT, span -> {
+            span.setAttribute("db.system", "postgresql");
+            span.setAttribute("db.statement.sha256", PipelineTracer.hash(sql));
+            ResultTable table = executeQuery(sql);
+            span.setAttribute("db.response.returned_rows", table.size());
+            return table;
+        });
+    }
+
+    /**
+     * Exécute la requête en flux : les lignes sont lues par lots de {@code nlsql.executor.fetch-size}
+     * sur un curseur côté serveur et transmises une à une à {@code writer}, la mémoire utilisée ne dépend
+     * donc pas du nombre de lignes. Seules les {@code nlsql.executor.export.answer-rows} premières sont
+     * conservées, pour la formulation de la réponse.
+     * <p>
+     * Une erreur d'exécution survenue avant {@link RowWriter#start} est levée telle quelle (SQL réparable
+     * ou à régénérer) ; après, elle devient une {@link RowStreamException}.
+     */
+    public StreamedRows stream(String sql, RowWriter writer) throws SQLException {
+        return tracer.inSpan("SqlExecutor.stream", SpanKind.CLIENT, span -> {
+            span.setAttribute("db.system", "postgresql");
+            span.setAttribute("db.statement.sha256", PipelineTracer.hash(sql));
+            StreamedRows rows = streamQuery(sql, writer);
+            span.setAttribute("db.response.returned_rows", rows.rowCount());
+            return rows;
+        });
+    }
+
+    /**
+     * Si la requête est annulée pendant l'exécution, la requête SQL est interrompue côté serveur
+     * ({@code Statement.cancel()}) et l'appel se termine par une {@code QueryCancelledException}.
+     */
+    private ResultTable executeQuery(String sql) throws SQLException {
+        CancellationToken token = CancellationToken.current();
+        token.throwIfCancelled();
         try (Connection conn = dataSource.getConnection()) {
             conn.setReadOnly(true);
             conn.setAutoCommit(false);
@@ -32,8 +92,13 @@ public class SqlExecutor {
                 stmt.setQueryTimeout(timeoutSeconds);
                 stmt.setMaxRows(maxRows);
 
-                try (ResultSet rs = stmt.executeQuery()) {
-                    return mapResultSet(rs);
+                // Désenregistré avant le rollback : une annulation tardive ne peut pas viser la requête suivante
+                try (CancellationToken.Registration ignored = token.onCancel(() -> cancel(stmt));
+                     ResultSet rs = metrics.time(PipelineMetrics.JDBC_EXECUTION, stmt::executeQuery)) {
+                    return metrics.time(PipelineMetrics.ROW_MAPPING, () -> readTable(rs));
+                } catch (SQLException e) {
+                    token.throwIfCancelled();
+                    throw e;
                 }
             } finally {
                 conn.rollback();
@@ -41,18 +106,98 @@ public class SqlExecutor {
         }
     }
 
-    private List<Map<String, Object>> mapResultSet(ResultSet rs) throws SQLException {
-        ResultSetMetaData meta = rs.getMetaData();
-        int columnCount = meta.getColumnCount();
-        List<Map<String, Object>> rows = new ArrayList<>();
+    private StreamedRows streamQuery(String sql, RowWriter writer) throws SQLException {
+        CancellationToken token = CancellationToken.current();
+        token.throwIfCancelled();
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setReadOnly(true);
+            // Curseur côté serveur : le driver PostgreSQL ne lit par lots (setFetchSize) qu'hors autocommit
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setQueryTimeout(timeoutSeconds);
+                stmt.setMaxRows(exportMaxRows);
+                stmt.setFetchSize(fetchSize);
+
+                try (CancellationToken.Registration ignored = token.onCancel(() -> cancel(stmt));
+                     ResultSet rs = metrics.time(PipelineMetrics.JDBC_EXECUTION, stmt::executeQuery)) {
+                    return metrics.time(PipelineMetrics.ROW_MAPPING, () -> writeResultSet(sql, rs, writer));
+                } catch (SQLException e) {
+                    token.throwIfCancelled();
+                    throw e;
+                }
+            } finally {
+                conn.rollback();
+            }
+        }
+    }
+
+    private StreamedRows writeResultSet(String sql, ResultSet rs, RowWriter writer) throws SQLException {
+        List<ResultTable.Column> columns = columns(rs.getMetaData());
+        int columnCount = columns.size();
+        List<Object[]> head = new ArrayList<>();
+        long rowCount = 0;
+        try {
+            writer.start(sql, columns);
+
+            Object[] values = new Object[columnCount];
+            while (rs.next()) {
+                for (int i = 0; i < columnCount; i++) {
+                    values[i] = rs.getObject(i + 1);
+                }
+                writer.row(values);
+                if (head.size() < answerRows) {
+                    head.add(values.clone());
+                }
+                rowCount++;
+            }
+            writer.end(rowCount);
+            return new StreamedRows(new ResultTable(columns, head), rowCount);
+        } catch (SQLException | IOException e) {
+            CancellationToken.current().throwIfCancelled();
+            throw new RowStreamException("Flux interrompu après " + rowCount + " lignes : " + e.getMessage(), e);
+        }
+    }
+
+    private static void cancel(Statement stmt) {
+        try {
+            stmt.cancel();
+        } catch (SQLException e) {
+            LOG.warnf("Annulation de la requête SQL impossible : %s", e.getMessage());
+        }
+    }
+
+    // Visibilité package : mesurée par le module benchmarks (SqlExecutorBenchmark)
+    ResultTable readTable(ResultSet rs) throws SQLException {
+        List<ResultTable.Column> columns = columns(rs.getMetaData());
+        int columnCount = columns.size();
+        List<Object[]> rows = new ArrayList<>();
 
         while (rs.next()) {
-            Map<String, Object> row = new LinkedHashMap<>();
-            for (int i = 1; i <= columnCount; i++) {
-                row.put(meta.getColumnLabel(i), rs.getObject(i));
+            Object[] values = new Object[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                values[i] = rs.getObject(i + 1);
             }
-            rows.add(row);
+            rows.add(values);
+        }
+        return new ResultTable(columns, rows);
+    }
+
+    private static List<ResultTable.Column> columns(ResultSetMetaData meta) throws SQLException {
+        int columnCount = meta.getColumnCount();
+        List<ResultTable.Column> columns = new ArrayList<>(columnCount);
+        for (int i = 1; i <= columnCount; i++) {
+            columns.add(new ResultTable.Column(meta.getColumnLabel(i), meta.getColumnTypeName(i)));
         }
-        return rows;
+        return columns;
+    }
+
+    /**
+     * Issue d'une exécution en flux.
+     *
+     * @param head     premières lignes, conservées pour la formulation de la réponse
+     * @param rowCount nombre total de lignes transmises
+     */
+    public record StreamedRows(ResultTable head, long rowCount) {
     }
 }
@@ -0,0 +1,95 @@
+package com.yourorg.nlsqlengine.sql;
+
+import com.yourorg.nlsqlengine.rag.SchemaProvider;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.Select;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Post-traitement du SQL validé, avant exécution : conversion sûre des colonnes VARCHAR à valeur
+ * numérique utilisées dans un contexte numérique (voir {@link NumericColumnCaster}). Les colonnes
+ * concernées viennent de l'instantané du catalogue ({@link SchemaCatalog#numericTextColumns()}) ;
+ * si le catalogue est indisponible, de la liste de {@link SchemaProvider#getNumericTextColumns()}.
+ * Le modèle n'a ainsi plus besoin de la règle métier correspondante dans le prompt.
+ */
+@ApplicationScoped
+public class SqlPostProcessor {
+
+    private static final Logger LOG = Logger.getLogger(SqlPostProcessor.class);
+
+    @Inject
+    SchemaCatalog catalog;
+
+    @Inject
+    SchemaProvider schemaProvider;
+
+    @ConfigProperty(name = "nlsql.sql.numeric-casting.enabled", defaultValue = "true")
+    boolean numericCasting = true;
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong rewritten = new AtomicLong();
+    private final AtomicLong casts = new AtomicLong();
+
+    /**
+     * @return le SQL avec les conversions ajoutées, ou le SQL d'origine si rien n'est à convertir
+     */
+    public String process(String sql) {
+        if (!numericCasting || sql == null) {
+            return sql;
+        }
+        processed.incrementAndGet();
+        Statement statement;
+        try {
+            statement = CCJSqlParserUtil.parse(sql);
+        } catch (Exception e) {
+            return sql;
+        }
+        if (!(statement instanceof Select select)) {
+            return sql;
+        }
+
+        NumericColumnCaster caster = new NumericColumnCaster(numericTextColumns());
+        caster.apply(select);
+        if (caster.casts() == 0) {
+            return sql;
+        }
+        rewritten.incrementAndGet();
+        casts.addAndGet(caster.casts());
+        String result = select.toString();
+        LOG.debugf("Conversions numériques ajoutées (%d) : %s", caster.casts(), result);
+        return result;
+    }
+
+    /**
+     * Colonnes texte numériques, {@code table.colonne} ou {@code *.colonne}.
+     */
+    Set<String> numericTextColumns() {
+        Set<String> columns = catalog.numericTextColumns();
+        if (!columns.isEmpty()) {
+            return columns;
+        }
+        return schemaProvider.getNumericTextColumns().stream()
+                .map(column -> "*." + column.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+    }
+
+    public CastingStats stats() {
+        return new CastingStats(processed.get(), rewritten.get(), casts.get());
+    }
+
+    /**
+     * @param rewritten requêtes auxquelles au moins une conversion a été ajoutée
+     * @param casts     nombre total de colonnes converties
+     */
+    public record CastingStats(long processed, long rewritten, long casts) {
+    }
+}
@@ -0,0 +1,317 @@
+package com.yourorg.nlsqlengine.sql;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import net.sf.jsqlparser.expression.Alias;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.MySQLGroupConcat;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.AllColumns;
+import net.sf.jsqlparser.statement.select.AllTableColumns;
+import net.sf.jsqlparser.statement.select.FromItem;
+import net.sf.jsqlparser.statement.select.Join;
+import net.sf.jsqlparser.statement.select.Limit;
+import net.sf.jsqlparser.statement.select.Offset;
+import net.sf.jsqlparser.statement.select.OrderByElement;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.SelectItem;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Réparation locale (sur l'AST JSqlParser) d'un SQL rejeté par la validation ou l'exécution,
+ * avant de payer un nouvel appel au LLM. Corrections déterministes :
+ * <ul>
+ *   <li>texte parasite après la requête (lignes d'explication, mot-clé orphelin en fin de requête) ;</li>
+ *   <li>syntaxe MySQL : {@code GROUP_CONCAT} → {@code STRING_AGG}, {@code IFNULL}/{@code NVL} → {@code COALESCE},
+ *       {@code LIMIT x, y} → {@code LIMIT y OFFSET x} ;</li>
+ *   <li>{@code SELECT *} développé en colonnes explicites d'après le catalogue du schéma ;</li>
+ *   <li>colonnes VARCHAR numériques comparées à un nombre (erreur {@code character varying > integer}) :
+ *       conversion sûre, une valeur non numérique devenant NULL (voir {@link NumericColumnCaster}).</li>
+ * </ul>
+ * Retourne null si aucune correction ne s'applique : l'orchestrateur retombe alors sur un retry LLM.
+ */
+@ApplicationScoped
+public class SqlRepairer {
+
+    private static final Logger LOG = Logger.getLogger(SqlRepairer.class);
+
+    // Mot-clé ou virgule orphelin en fin de requête (clause commencée puis abandonnée)
+    private static final Pattern DANGLING_TAIL = Pattern.compile(
+            "(?is)\\s*(?:\\b(?:AND|OR|WHERE|HAVING|ORDER\\s+BY|GROUP\\s+BY|LIMIT|OFFSET|ON|JOIN)\\b|,)\\s*$");
+
+    private static final Pattern TEXT_NUMERIC_MISMATCH = Pattern.compile(
+            "(?i)character varying|operator does not exist|opérateur n'existe pas");
+
+    @Inject
+    SchemaCatalog catalog;
+
+    @Inject
+    SqlPostProcessor postProcessor;
+
+    @ConfigProperty(name = "nlsql.sql.repair.enabled", defaultValue = "true")
+    boolean enabled = true;
+
+    private final AtomicLong attempts = new AtomicLong();
+    private final AtomicLong repaired = new AtomicLong();
+    private final AtomicLong retriesSaved = new AtomicLong();
+
+    /**
+     * @param error message de l'échec (validation ou exécution), utilisé pour choisir les corrections
+     * @return le SQL réparé, ou null si aucune correction ne s'applique
+     */
+    public String repair(String sql, String error) {
+        if (!enabled || sql == null || sql.isBlank()) {
+            return null;
+        }
+        attempts.incrementAndGet();
+
+        String text = sql.strip().replaceAll(";+$", "");
+        String parseable = parseableText(text);
+        if (parseable == null) {
+            return null;
+        }
+
+        Statement statement;
+        try {
+            statement = CCJSqlParserUtil.parse(parseable);
+        } catch (Exception e) {
+            return null;
+        }
+        if (!(statement instanceof Select select)) {
+            return null;
+        }
+        String before = select.toString();
+
+        DialectFixer dialect = new DialectFixer();
+        dialect.apply(select);
+
+        SelectStarExpander expander = new SelectStarExpander();
+        expander.apply(select);
+        if (!expander.complete) {
+            return null;
+        }
+
+        if (error != null && TEXT_NUMERIC_MISMATCH.matcher(error).find()) {
+            new NumericColumnCaster(postProcessor.numericTextColumns()).apply(select);
+        }
+
+        String result = dialect.replaceGroupConcats(select.toString());
+        if (result.equals(before) && parseable.equals(text)) {
+            return null;
+        }
+        repaired.incrementAndGet();
+        LOG.infof("SQL réparé localement : %s", result);
+        return result;
+    }
+
+    /**
+     * Issue de l'exécution d'un SQL réparé : un succès est un appel au LLM économisé.
+     */
+    public void recordOutcome(boolean succeeded) {
+        if (succeeded) {
+            retriesSaved.incrementAndGet();
+        }
+    }
+
+    public RepairStats stats() {
+        return new RepairStats(attempts.get(), repaired.get(), retriesSaved.get());
+    }
+
+    /**
+     * Texte analysable par JSqlParser : le SQL tel quel, ou amputé d'un mot-clé orphelin final
+     * puis de ses dernières lignes (explication ajoutée par le modèle). Null si rien ne s'analyse.
+     */
+    static String parseableText(String sql) {
+        List<String> lines = new ArrayList<>(List.of(sql.split("\n")));
+        while (!lines.isEmpty()) {
+            String candidate = String.join("\n", lines).strip();
+            if (parses(candidate)) {
+                return candidate;
+            }
+            String trimmed = DANGLING_TAIL.matcher(candidate).replaceFirst("");
+            while (!trimmed.equals(candidate)) {
+                if (parses(trimmed)) {
+                    return trimmed;
+                }
+                candidate = trimmed;
+                trimmed = DANGLING_TAIL.matcher(candidate).replaceFirst("");
+            }
+            lines.remove(lines.size() - 1);
+        }
+        return null;
+    }
+
+    private static boolean parses(String sql) {
+        if (sql.isBlank()) {
+            return false;
+        }
+        try {
+            return CCJSqlParserUtil.parse(sql) instanceof Select;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param attempts      SQL soumis à la réparation
+     * @param repaired      réparations produites
+     * @param retriesSaved  SQL réparés exécutés avec succès, donc retries LLM évités
+     */
+    public record RepairStats(long attempts, long repaired, long retriesSaved) {
+    }
+
+    /**
+     * Fonctions et clauses MySQL converties en équivalents PostgreSQL.
+     */
+    private static final class DialectFixer extends SelectRewriter {
+
+        private static final Set<String> COALESCE_ALIASES = Set.of("IFNULL", "NVL", "ISNULL");
+
+        private final Map<String, String> groupConcats = new LinkedHashMap<>();
+
+        @Override
+        void rewritePlainSelect(PlainSelect plainSelect) {
+            Limit limit = plainSelect.getLimit();
+            if (limit != null && limit.getOffset() != null && plainSelect.getOffset() == null) {
+                Offset offset = new Offset();
+                offset.setOffset(limit.getOffset());
+                limit.setOffset(null);
+                plainSelect.setOffset(offset);
+            }
+            super.rewritePlainSelect(plainSelect);
+        }
+
+        @Override
+        public <S> Void visit(Function function, S context) {
+            String name = function.getName() == null ? "" : function.getName().toUpperCase(Locale.ROOT);
+            if (COALESCE_ALIASES.contains(name) && function.getParameters() != null
+                    && function.getParameters().size() == 2) {
+                function.setName("COALESCE");
+            }
+            return super.visit(function, context);
+        }
+
+        @Override
+        public <S> Void visit(MySQLGroupConcat groupConcat, S context) {
+            // Pas d'équivalent remplaçable sur place dans l'AST : substitution du texte déparsé
+            String values = groupConcat.getExpressionList().size() == 1
+                    ? groupConcat.getExpressionList().get(0).toString()
+                    : "CONCAT(" + groupConcat.getExpressionList() + ")";
+            StringBuilder replacement = new StringBuilder("STRING_AGG(");
+            if (groupConcat.isDistinct()) {
+                replacement.append("DISTINCT ");
+            }
+            String separator = groupConcat.getSeparator() != null ? groupConcat.getSeparator() : "','";
+            replacement.append("CAST(").append(values).append(" AS TEXT), ").append(separator);
+            if (groupConcat.getOrderByElements() != null && !groupConcat.getOrderByElements().isEmpty()) {
+                replacement.append(" ORDER BY ").append(groupConcat.getOrderByElements().stream()
+                        .map(OrderByElement::toString).collect(Collectors.joining(", ")));
+            }
+            replacement.append(")");
+            groupConcats.put(groupConcat.toString(), replacement.toString());
+            return super.visit(groupConcat, context);
+        }
+
+        String replaceGroupConcats(String sql) {
+            String result = sql;
+            for (Map.Entry<String, String> entry : groupConcats.entrySet()) {
+                result = result.replace(entry.getKey(), entry.getValue());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Remplace {@code *} et {@code alias.*} par les colonnes des tables du FROM, d'après le catalogue.
+     * {@code complete} passe à false si une table est inconnue ou si le FROM contient une sous-requête.
+     */
+    private final class SelectStarExpander extends SelectRewriter {
+
+        private boolean complete = true;
+
+        @Override
+        void rewritePlainSelect(PlainSelect plainSelect) {
+            if (plainSelect.getSelectItems().stream().anyMatch(item -> item.getExpression() instanceof AllColumns)) {
+                expand(plainSelect);
+            }
+            super.rewritePlainSelect(plainSelect);
+        }
+
+        private void expand(PlainSelect plainSelect) {
+            List<Table> tables = new ArrayList<>();
+            List<FromItem> fromItems = new ArrayList<>();
+            fromItems.add(plainSelect.getFromItem());
+            if (plainSelect.getJoins() != null) {
+                plainSelect.getJoins().stream().map(Join::getRightItem).forEach(fromItems::add);
+            }
+            for (FromItem fromItem : fromItems) {
+                if (!(fromItem instanceof Table table) || catalog.columns(table.getName()).isEmpty()) {
+                    complete = false;
+                    return;
+                }
+                tables.add(table);
+            }
+
+            boolean qualify = tables.size() > 1;
+            Set<String> labels = new HashSet<>();
+            List<SelectItem<?>> items = new ArrayList<>();
+            for (SelectItem<?> item : plainSelect.getSelectItems()) {
+                if (item.getExpression() instanceof AllTableColumns tableColumns) {
+                    Table table = find(tables, tableColumns.getTable());
+                    if (table == null) {
+                        complete = false;
+                        return;
+                    }
+                    addColumns(items, labels, table, true);
+                } else if (item.getExpression() instanceof AllColumns) {
+                    for (Table table : tables) {
+                        addColumns(items, labels, table, qualify);
+                    }
+                } else {
+                    items.add(item);
+                }
+            }
+            plainSelect.setSelectItems(items);
+        }
+
+        private void addColumns(List<SelectItem<?>> items, Set<String> labels, Table table, boolean qualify) {
+            String qualifier = table.getAlias() != null ? table.getAlias().getName() : table.getName();
+            for (SchemaCatalog.ColumnInfo column : catalog.columns(table.getName())) {
+                Column expression = new Column(qualify ? qualifier + "." + column.name() : column.name());
+                // Libellés uniques : deux tables jointes ont souvent des colonnes homonymes (id, name...)
+                if (labels.add(column.name())) {
+                    items.add(SelectItem.from(expression));
+                } else {
+                    items.add(SelectItem.from(expression, new Alias(table.getName() + "_" + column.name())));
+                }
+            }
+        }
+
+        private Table find(List<Table> tables, Table reference) {
+            String name = reference.getName();
+            for (Table table : tables) {
+                if ((table.getAlias() != null && table.getAlias().getName().equalsIgnoreCase(name))
+                        || table.getName().equalsIgnoreCase(name)) {
+                    return table;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.yourorg.nlsqlengine.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Spans OpenTelemetry des composants du pipeline (RAG, LLM, validation, JDBC, services vocaux),
+ * rattachés à la trace de la requête HTTP créée par Quarkus et exportés en OTLP.
+ * Les threads virtuels des étapes parallèles reçoivent le contexte de trace via {@code StageScope}.
+ */
+@ApplicationScoped
+public class PipelineTracer {
+
+    @Inject
+    Tracer tracer;
+
+    @Inject
+    OpenTelemetry openTelemetry;
+
+    /**
+     * Corps d'un span : reçoit le span courant pour y ajouter des attributs connus en cours d'exécution.
+     */
+    @FunctionalInterface
+    public interface SpanBody<T, E extends Exception> {
+        T run(Span span) throws E;
+    }
+
+    public <T, E extends Exception> T inSpan(String name, SpanBody<T, E> body) throws E {
+        return inSpan(name, SpanKind.INTERNAL, body);
+    }
+
+    /**
+     * Exécute {@code body} dans un span enfant du span courant. Une exception est enregistrée
+     * sur le span (statut ERROR) puis propagée telle quelle.
+     */
+    public <T, E extends Exception> T inSpan(String name, SpanKind kind, SpanBody<T, E> body) throws E {
+        Span span = tracer.spanBuilder(name).setSpanKind(kind).startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            return body.run(span);
+        } catch (Throwable t) {
+            span.recordException(t);
+            span.setStatus(StatusCode.ERROR, t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName());
+            throw t;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Ajoute l'en-tête {@code traceparent} du contexte courant à une requête HTTP sortante,
+     * pour que le service appelé rattache ses propres spans à la trace.
+     */
+    public void injectHeaders(HttpRequest.Builder request) {
+        openTelemetry.getPropagators().getTextMapPropagator()
+                .inject(Context.current(), request, (carrier, key, value) -> carrier.header(key, value));
+    }
+
+    /**
+     * Empreinte SHA-256 d'une requête SQL : permet de regrouper les exécutions d'une même requête
+     * sans exporter son texte (valeurs littérales potentiellement sensibles) vers le collecteur.
+     */
+    public static String hash(String statement) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(statement.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponible", e);
+        }
+    }
+}
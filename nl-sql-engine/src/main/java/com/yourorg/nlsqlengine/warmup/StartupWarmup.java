@@ -0,0 +1,191 @@
+package com.yourorg.nlsqlengine.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourorg.nlsqlengine.api.QueryResponse;
+import com.yourorg.nlsqlengine.api.ResultFormat;
+import com.yourorg.nlsqlengine.llm.LlmBackendPool;
+import com.yourorg.nlsqlengine.llm.LlmClient;
+import com.yourorg.nlsqlengine.llm.PromptBuilder;
+import com.yourorg.nlsqlengine.orchestration.OrchestratorResult;
+import com.yourorg.nlsqlengine.sql.ResultTable;
+import com.yourorg.nlsqlengine.sql.SqlValidator;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Préchauffage au démarrage, pour que les premières requêtes après un déploiement ne paient pas
+ * les initialisations paresseuses : chargement des modèles Ollama (chat et embedding), ouverture
+ * des connexions du pool JDBC, puis boucle synthétique extraction / validation / prompt / JSON
+ * qui fait charger et compiler par le JIT les classes de JSqlParser et de Jackson.
+ * <p>
+ * Le préchauffage s'exécute en arrière-plan après les autres tâches de démarrage
+ * ({@code StartupSchemaInit}, {@code StartupEmbeddingSync}) ; la sonde de readiness
+ * ({@link WarmupReadinessCheck}) reste DOWN jusqu'à sa fin, réussie ou non.
+ */
+@ApplicationScoped
+public class StartupWarmup {
+
+    private static final Logger LOG = Logger.getLogger(StartupWarmup.class);
+
+    private static final String QUESTION = "Quels sont les personnages originaires de Tatooine ?";
+    private static final String RAW_RESPONSE = "```sql\nSELECT p.name, pl.name AS planet\nFROM people p\n"
+            + "JOIN planets pl ON p.homeworld_id = pl.id\nWHERE pl.name = 'Tatooine'\nORDER BY p.name;\n```\n\n"
+            + "Cette requête joint les personnages à leur planète d'origine.";
+
+    @Inject
+    LlmBackendPool llmBackends;
+
+    @Inject
+    LlmClient llmClient;
+
+    @Inject
+    PromptBuilder promptBuilder;
+
+    @Inject
+    SqlValidator sqlValidator;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "nlsql.warmup.enabled", defaultValue = "true")
+    boolean enabled = true;
+
+    @ConfigProperty(name = "nlsql.warmup.models", defaultValue = "true")
+    boolean preloadModels = true;
+
+    @ConfigProperty(name = "nlsql.warmup.iterations", defaultValue = "500")
+    int iterations = 500;
+
+    @ConfigProperty(name = "nlsql.llm.keep-alive-seconds")
+    Optional<Integer> keepAliveSeconds;
+
+    private volatile boolean complete;
+
+    // Après les observateurs de priorité par défaut : schéma et embeddings sont prêts
+    void onStart(@Observes @Priority(Interceptor.Priority.APPLICATION + 1000) StartupEvent ev) {
+        if (!enabled) {
+            LOG.info("Préchauffage désactivé au démarrage");
+            complete = true;
+            return;
+        }
+        Thread.ofVirtual().name("nlsql-warmup").start(this::run);
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    void run() {
+        long start = System.nanoTime();
+        try {
+            if (preloadModels) {
+                phase("modèles Ollama", () -> {
+                    int loaded = llmBackends.preloadModels(keepAliveSeconds.orElse(null));
+                    LOG.infof("Préchauffage : %d modèle(s) chargé(s)", loaded);
+                });
+            }
+            phase("pool JDBC", this::openConnections);
+            phase("boucle synthétique", this::syntheticLoop);
+        } finally {
+            complete = true;
+            LOG.infof("Préchauffage terminé en %d ms", (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Ouvre simultanément {@code min-size} connexions (au moins une) : tenues en même temps,
+     * elles sont toutes physiquement établies, puis rendues au pool.
+     */
+    void openConnections() throws Exception {
+        int size = Math.max(1, dataSource.getConfiguration().connectionPoolConfiguration().minSize());
+        List<Connection> connections = new ArrayList<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery("SELECT 1")) {
+                    rs.next();
+                }
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+        LOG.infof("Préchauffage : %d connexion(s) JDBC ouverte(s)", size);
+    }
+
+    /**
+     * Chemins CPU d'une requête, sans effet de bord ni statistique : extraction du SQL de la réponse
+     * du modèle, validation (JSqlParser), construction du prompt et sérialisation JSON de la réponse.
+     */
+    void syntheticLoop() throws Exception {
+        String schema = """
+                ### people
+                Description : personnages de la saga
+                - id (INTEGER) : identifiant
+                - name (VARCHAR) : nom du personnage
+                - homeworld_id (INTEGER) : planète d'origine
+
+                ### planets
+                Description : planètes de la saga
+                - id (INTEGER) : identifiant
+                - name (VARCHAR) : nom de la planète
+                """;
+        List<String> rules = List.of("Pour joindre people à planets, utiliser people.homeworld_id");
+        List<Map.Entry<String, String>> examples = List.of(
+                Map.entry("Combien de planètes ?", "SELECT COUNT(id) AS total FROM planets"));
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            rows.add(new Object[]{"Personnage " + i, "Tatooine"});
+        }
+        ResultTable table = new ResultTable(List.of(new ResultTable.Column("name", "varchar"),
+                new ResultTable.Column("planet", "varchar")), rows);
+
+        long bytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            String sql = llmClient.extractSql(RAW_RESPONSE);
+            sqlValidator.validate(sql);
+            String prompt = promptBuilder.buildUserPrompt(QUESTION, schema, rules, examples, i % 2 == 0 ? null
+                    : "Exécution SQL : ERROR: column \"nom\" does not exist");
+            OrchestratorResult result = OrchestratorResult.success(QUESTION, sql, table,
+                    "20 personnages viennent de Tatooine.");
+            bytes += prompt.length() + objectMapper.writeValueAsBytes(QueryResponse.from(result,
+                    i % 2 == 0 ? ResultFormat.ROWS : ResultFormat.COLUMNAR)).length;
+        }
+        LOG.debugf("Préchauffage : %d itérations, %d octets produits", iterations, bytes);
+    }
+
+    private void phase(String name, WarmupPhase phase) {
+        long start = System.nanoTime();
+        try {
+            phase.run();
+            LOG.debugf("Préchauffage %s : %d ms", name, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            LOG.warnf("Préchauffage %s en échec : %s", name, e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    interface WarmupPhase {
+        void run() throws Exception;
+    }
+}
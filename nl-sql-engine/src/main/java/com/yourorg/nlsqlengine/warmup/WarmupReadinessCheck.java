@@ -0,0 +1,26 @@
+package com.yourorg.nlsqlengine.warmup;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+/**
+ * Readiness ({@code /q/health/ready}) DOWN tant que le préchauffage n'est pas terminé :
+ * le load balancer n'envoie du trafic qu'aux instances chaudes.
+ */
+@Readiness
+@ApplicationScoped
+public class WarmupReadinessCheck implements HealthCheck {
+
+    @Inject
+    StartupWarmup warmup;
+
+    @Override
+    public HealthCheckResponse call() {
+        return HealthCheckResponse.named("nlsql-warmup")
+                .status(warmup.isComplete())
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.yourorg.nlsqlengine.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourorg.nlsqlengine.sql.ResultTable;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonRowWriterTest {
+
+    private static final List<ResultTable.Column> COLUMNS = List.of(
+            new ResultTable.Column("name", "varchar"), new ResultTable.Column("age", "int4"));
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void rowsAreWrittenAsQueryResponseResults() throws IOException {
+        JsonNode response = write(ResultFormat.ROWS, rows -> {
+            rows.start("SELECT name, age FROM people", COLUMNS);
+            rows.row(new Object[]{"Luke", 19});
+            rows.row(new Object[]{"Leia", null});
+            rows.end(2);
+            rows.finish("SELECT name, age FROM people");
+        });
+
+        assertEquals("SELECT name, age FROM people", response.get("generatedSql").asText());
+        assertEquals(2, response.get("results").size());
+        assertEquals("Luke", response.get("results").get(0).get("name").asText());
+        assertEquals(19, response.get("results").get(0).get("age").asInt());
+        assertTrue(response.get("results").get(1).get("age").isNull());
+        assertEquals(2, response.get("rowCount").asLong());
+    }
+
+    @Test
+    void columnarFormatWritesColumnsOnceAndPositionalRows() throws IOException {
+        JsonNode response = write(ResultFormat.COLUMNAR, rows -> {
+            rows.start("SELECT name, age FROM people", COLUMNS);
+            rows.row(new Object[]{"Luke", 19});
+            rows.row(new Object[]{"Leia", null});
+            rows.end(2);
+        });
+
+        assertTrue(response.get("results").isNull());
+        assertEquals("name", response.get("columns").get(0).get("name").asText());
+        assertEquals("int4", response.get("columns").get(1).get("type").asText());
+        assertEquals(2, response.get("rows").size());
+        assertEquals("Luke", response.get("rows").get(0).get(0).asText());
+        assertEquals(19, response.get("rows").get(0).get(1).asInt());
+        assertTrue(response.get("rows").get(1).get(1).isNull());
+        assertEquals(2, response.get("rowCount").asLong());
+    }
+
+    @Test
+    void duplicateColumnNamesKeepTheLastValueInRowsFormat() throws IOException {
+        JsonNode response = write(ResultFormat.ROWS, rows -> {
+            rows.start("SELECT p.name, pl.name FROM people p JOIN planets pl ON pl.id = p.homeworld_id",
+                    List.of(new ResultTable.Column("name", "varchar"), new ResultTable.Column("name", "varchar")));
+            rows.row(new Object[]{"Luke", "Tatooine"});
+            rows.end(1);
+        });
+
+        JsonNode row = response.get("results").get(0);
+        assertEquals(1, row.size());
+        assertEquals("Tatooine", row.get("name").asText());
+    }
+
+    @Test
+    void interruptedStreamIsClosedWithRowsWrittenSoFar() throws IOException {
+        JsonNode response = write(ResultFormat.ROWS, rows -> {
+            rows.start("SELECT name FROM people", List.of(new ResultTable.Column("name", "varchar")));
+            rows.row(new Object[]{"Luke"});
+            rows.finish("SELECT name FROM people");
+        });
+
+        assertEquals(1, response.get("results").size());
+        assertEquals(1, response.get("rowCount").asLong());
+    }
+
+    @Test
+    void failureBeforeExecutionWritesNoResults() throws IOException {
+        JsonNode response = write(ResultFormat.COLUMNAR, rows -> rows.finish(null));
+
+        assertTrue(response.get("generatedSql").isNull());
+        assertTrue(response.get("results").isNull());
+        assertEquals(0, response.get("rowCount").asLong());
+    }
+
+    private JsonNode write(ResultFormat format, Body body) throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator json = mapper.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            body.run(new JsonRowWriter(json, format));
+            json.writeEndObject();
+        }
+        return mapper.readTree(out.toString());
+    }
+
+    private interface Body {
+        void run(JsonRowWriter rows) throws IOException;
+    }
+}
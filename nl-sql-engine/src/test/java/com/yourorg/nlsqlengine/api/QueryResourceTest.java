@@ -52,4 +52,93 @@ class QueryResourceTest {
                 .then()
                 .statusCode(anyOf(is(400), is(415)));
     }
+
+    @Test
+    void postWithQueryId_echoesHeader() {
+        RestAssured.given()
+                .contentType("application/json")
+                .header("X-Query-Id", "test-query-id")
+                .body("{\"question\": \"Liste des clients\"}")
+                .when().post("/api/query")
+                .then()
+                .statusCode(anyOf(is(200), is(500)))
+                .header("X-Query-Id", is("test-query-id"));
+    }
+
+    @Test
+    void cancelUnknownQuery_returns404() {
+        RestAssured.given()
+                .when().delete("/api/query/inconnue")
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void exportEmptyQuestion_returns400() {
+        RestAssured.given()
+                .contentType("application/json")
+                .body("{\"question\": \"\"}")
+                .when().post("/api/query/export")
+                .then()
+                .statusCode(400)
+                .body("error", is("La question est obligatoire"));
+    }
+
+    @Test
+    void exportValidQuestion_returnsQuestionAndRowCount() {
+        // Sans Ollama, l'export se termine sur une erreur signalée dans le corps (statut déjà envoyé)
+        RestAssured.given()
+                .contentType("application/json")
+                .body("{\"question\": \"Liste des clients\"}")
+                .when().post("/api/query/export")
+                .then()
+                .statusCode(200)
+                .body("question", is("Liste des clients"))
+                .body("rowCount", notNullValue());
+    }
+
+    @Test
+    void streamEmptyQuestion_emitsErrorEvent() {
+        RestAssured.given()
+                .contentType("application/json")
+                .accept("text/event-stream")
+                .body("{\"question\": \"\"}")
+                .when().post("/api/query/stream")
+                .then()
+                .statusCode(200)
+                .body(containsString("event:error"))
+                .body(containsString("La question est obligatoire"));
+    }
+
+    @Test
+    void submitJob_returns202WithId() {
+        RestAssured.given()
+                .contentType("application/json")
+                .body("{\"question\": \"Liste des clients\"}")
+                .when().post("/api/query/jobs")
+                .then()
+                .statusCode(202)
+                .header("Location", containsString("/api/query/jobs/"))
+                .body("id", notNullValue())
+                .body("question", is("Liste des clients"));
+    }
+
+    @Test
+    void submitJobEmptyQuestion_returns400() {
+        RestAssured.given()
+                .contentType("application/json")
+                .body("{\"question\": \"\"}")
+                .when().post("/api/query/jobs")
+                .then()
+                .statusCode(400)
+                .body("error", is("La question est obligatoire"));
+    }
+
+    @Test
+    void getUnknownJob_returns404() {
+        RestAssured.given()
+                .when().get("/api/query/jobs/inconnu")
+                .then()
+                .statusCode(404);
+    }
 }
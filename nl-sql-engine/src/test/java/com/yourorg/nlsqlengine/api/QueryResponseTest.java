@@ -0,0 +1,62 @@
+package com.yourorg.nlsqlengine.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourorg.nlsqlengine.orchestration.OrchestratorResult;
+import com.yourorg.nlsqlengine.sql.ResultTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryResponseTest {
+
+    private static final OrchestratorResult RESULT = OrchestratorResult.success("Qui ?", "SELECT name, age FROM people",
+            new ResultTable(List.of(new ResultTable.Column("name", "varchar"), new ResultTable.Column("age", "int4")),
+                    List.of(new Object[]{"Luke", 19}, new Object[]{"Leia", 19})),
+            "Luke et Leia.");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void rowsFormatKeepsOneObjectPerRow() {
+        JsonNode json = mapper.valueToTree(QueryResponse.from(RESULT, null));
+
+        assertEquals("Luke", json.get("results").get(0).get("name").asText());
+        assertEquals(19, json.get("results").get(1).get("age").asInt());
+        assertFalse(json.has("columns"));
+        assertFalse(json.has("rows"));
+        assertEquals("Luke et Leia.", json.get("answer").asText());
+    }
+
+    @Test
+    void columnarFormatWritesColumnsAndPositionalRows() {
+        JsonNode json = mapper.valueToTree(QueryResponse.from(RESULT, ResultFormat.COLUMNAR));
+
+        assertTrue(json.get("results").isNull());
+        assertEquals("age", json.get("columns").get(1).get("name").asText());
+        assertEquals("int4", json.get("columns").get(1).get("type").asText());
+        assertEquals("Leia", json.get("rows").get(1).get(0).asText());
+        assertEquals(19, json.get("rows").get(1).get(1).asInt());
+    }
+
+    @Test
+    void columnarErrorHasNoRows() {
+        JsonNode json = mapper.valueToTree(QueryResponse.from(
+                OrchestratorResult.error("Qui ?", null, "Échec"), ResultFormat.COLUMNAR));
+
+        assertTrue(json.get("results").isNull());
+        assertFalse(json.has("rows"));
+        assertEquals("Échec", json.get("error").asText());
+    }
+
+    @Test
+    void formatParsing() {
+        assertEquals(ResultFormat.COLUMNAR, ResultFormat.fromValue(" Columnar "));
+        assertEquals(ResultFormat.ROWS, ResultFormat.fromValue("rows"));
+        assertNull(ResultFormat.fromValue(null));
+        assertThrows(IllegalArgumentException.class, () -> ResultFormat.fromValue("csv"));
+        assertEquals("columnar", ResultFormat.COLUMNAR.value());
+    }
+}
@@ -0,0 +1,126 @@
+package com.yourorg.nlsqlengine.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExactQueryCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void getMatchesNormalizedQuestion() {
+        ExactQueryCache cache = createCache(null);
+        cache.put(1L, "Combien de films ?", "SELECT COUNT(id) FROM films");
+
+        assertEquals("SELECT COUNT(id) FROM films", cache.get(1L, "  combien DE films"));
+        assertNull(cache.get(2L, "Combien de films ?"));
+        assertEquals(1, cache.stats().hotHits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void hotTierEvictsLeastRecentlyUsed() {
+        ExactQueryCache cache = createCache(null);
+        cache.maxEntries = 1;
+        cache.put(1L, "question a", "SQL_A");
+        cache.put(1L, "question b", "SQL_B");
+
+        assertNull(cache.get(1L, "question a"));
+        assertEquals("SQL_B", cache.get(1L, "question b"));
+    }
+
+    @Test
+    void entriesSurviveRestart() {
+        Path file = tempDir.resolve("sql-cache.jsonl");
+        ExactQueryCache first = createCache(file);
+        first.put(1L, "Combien de films ?", "SELECT COUNT(id) FROM films");
+        first.put(1L, "Liste des planètes", "SELECT name FROM planets");
+        first.invalidate(1L, "Liste des planètes");
+        first.close();
+
+        ExactQueryCache restarted = createCache(file);
+        assertEquals("SELECT COUNT(id) FROM films", restarted.get(1L, "Combien de films ?"));
+        assertNull(restarted.get(1L, "Liste des planètes"));
+        assertEquals(1, restarted.stats().diskHits());
+        assertEquals(1, restarted.stats().diskSize());
+    }
+
+    @Test
+    void diskTierServesEntriesEvictedFromHotTier() {
+        ExactQueryCache cache = createCache(tempDir.resolve("sql-cache.jsonl"));
+        cache.maxEntries = 1;
+        cache.put(1L, "question a", "SQL_A");
+        cache.put(1L, "question b", "SQL_B");
+
+        assertEquals("SQL_A", cache.get(1L, "question a"));
+        assertEquals(1, cache.stats().diskHits());
+    }
+
+    @Test
+    void reputtingEvictedEntryDoesNotAppendToDisk() throws Exception {
+        Path file = tempDir.resolve("sql-cache.jsonl");
+        ExactQueryCache cache = createCache(file);
+        cache.maxEntries = 1;
+        for (int i = 0; i < 10; i++) {
+            cache.put(1L, "question a", "SQL_A");
+            cache.put(1L, "question b", "SQL_B");
+        }
+        cache.close();
+
+        assertEquals(2, Files.readAllLines(file).size());
+    }
+
+    @Test
+    void obsoleteRecordsAreCompactedWhileRunning() throws Exception {
+        Path file = tempDir.resolve("sql-cache.jsonl");
+        SqlCacheFileStore store = SqlCacheFileStore.open(file);
+        for (int i = 0; i < 150; i++) {
+            store.put("1|question a", "SQL_" + i);
+        }
+
+        assertTrue(store.records() < 100, "le fichier doit avoir été compacté");
+        assertEquals("SQL_149", store.get("1|question a"));
+        store.put("1|question b", "SQL_B");
+        store.close();
+
+        SqlCacheFileStore reopened = SqlCacheFileStore.open(file);
+        assertEquals("SQL_149", reopened.get("1|question a"));
+        assertEquals("SQL_B", reopened.get("1|question b"));
+        assertEquals(2, reopened.size());
+        reopened.close();
+    }
+
+    @Test
+    void truncatedLastRecordIsIgnored() throws Exception {
+        Path file = tempDir.resolve("sql-cache.jsonl");
+        ExactQueryCache first = createCache(file);
+        first.put(1L, "question a", "SQL_A");
+        first.close();
+        Files.writeString(file, "{\"key\":\"1|question b\",\"sq", StandardOpenOption.APPEND);
+
+        ExactQueryCache restarted = createCache(file);
+        assertEquals("SQL_A", restarted.get(1L, "question a"));
+        restarted.put(1L, "question c", "SQL_C");
+        restarted.close();
+
+        ExactQueryCache again = createCache(file);
+        assertEquals("SQL_C", again.get(1L, "question c"));
+    }
+
+    private ExactQueryCache createCache(Path file) {
+        ExactQueryCache cache = new ExactQueryCache();
+        cache.enabled = true;
+        cache.maxEntries = 100;
+        if (file != null) {
+            cache.open(file);
+        }
+        return cache;
+    }
+}
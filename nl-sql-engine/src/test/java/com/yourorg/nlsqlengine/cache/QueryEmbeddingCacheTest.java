@@ -0,0 +1,83 @@
+package com.yourorg.nlsqlengine.cache;
+
+import dev.langchain4j.data.embedding.Embedding;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryEmbeddingCacheTest {
+
+    private final AtomicInteger embedCalls = new AtomicInteger();
+    private final Function<String, Embedding> embedder = text -> {
+        embedCalls.incrementAndGet();
+        return Embedding.from(new float[]{0.1f, 0.2f, text.length()});
+    };
+
+    private QueryEmbeddingCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new QueryEmbeddingCache();
+        cache.enabled = true;
+        cache.maxEntries = 2;
+        cache.float16 = false;
+    }
+
+    @Test
+    void normalizedDuplicateReusesEmbedding() {
+        Embedding first = cache.computeIfAbsent("Qui vient de Tatooine ?", embedder);
+        Embedding second = cache.computeIfAbsent("qui vient de  tatooine", embedder);
+
+        assertEquals(1, embedCalls.get());
+        assertArrayEquals(first.vector(), second.vector());
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+        assertEquals(0.5, cache.stats().hitRate());
+    }
+
+    @Test
+    void cachedVectorIsNotSharedWithCallers() {
+        cache.computeIfAbsent("films", embedder).vector()[0] = 42f;
+        assertEquals(0.1f, cache.computeIfAbsent("films", embedder).vector()[0]);
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvicted() {
+        cache.computeIfAbsent("a", embedder);
+        cache.computeIfAbsent("b", embedder);
+        cache.computeIfAbsent("a", embedder);
+        cache.computeIfAbsent("c", embedder);
+
+        assertEquals(2, cache.stats().size());
+        cache.computeIfAbsent("a", embedder);
+        assertEquals(3, embedCalls.get());
+        cache.computeIfAbsent("b", embedder);
+        assertEquals(4, embedCalls.get());
+    }
+
+    @Test
+    void float16KeepsVectorsClose() {
+        cache.float16 = true;
+        float[] original = {0.123456f, -0.987654f, 0.000321f, 1.5f};
+        cache.computeIfAbsent("q", text -> Embedding.from(original));
+
+        float[] restored = cache.computeIfAbsent("q", embedder).vector();
+        for (int i = 0; i < original.length; i++) {
+            assertEquals(original[i], restored[i], Math.abs(original[i]) * 1e-3 + 1e-6);
+        }
+    }
+
+    @Test
+    void disabledCacheAlwaysEmbeds() {
+        cache.enabled = false;
+        cache.computeIfAbsent("q", embedder);
+        cache.computeIfAbsent("q", embedder);
+
+        assertEquals(2, embedCalls.get());
+        assertEquals(0, cache.stats().size());
+    }
+}
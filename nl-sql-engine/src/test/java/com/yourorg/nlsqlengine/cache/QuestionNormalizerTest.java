@@ -0,0 +1,33 @@
+package com.yourorg.nlsqlengine.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestionNormalizerTest {
+
+    @Test
+    void normalizeFoldsCaseAccentsAndWhitespace() {
+        assertEquals("quelle est la planete la plus peuplee",
+                QuestionNormalizer.normalize("  Quelle   est la PLANÈTE\tla plus peuplée ? "));
+    }
+
+    @Test
+    void normalizeUnifiesApostrophes() {
+        assertEquals(QuestionNormalizer.normalize("L'équipage du Faucon"),
+                QuestionNormalizer.normalize("L’équipage du Faucon"));
+    }
+
+    @Test
+    void normalizeNull() {
+        assertEquals("", QuestionNormalizer.normalize(null));
+    }
+
+    @Test
+    void keyIsScopedByDomain() {
+        assertNotEquals(QuestionNormalizer.key(1L, "Combien de films ?"),
+                QuestionNormalizer.key(2L, "Combien de films ?"));
+        assertEquals(QuestionNormalizer.key(null, "Combien de films ?"),
+                QuestionNormalizer.key(null, "combien de films"));
+    }
+}
@@ -0,0 +1,84 @@
+package com.yourorg.nlsqlengine.cache;
+
+import dev.langchain4j.data.embedding.Embedding;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SemanticQueryCacheTest {
+
+    private SemanticQueryCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SemanticQueryCache();
+        cache.enabled = true;
+        cache.similarityThreshold = 0.95;
+        cache.ttlMinutes = 60;
+        cache.maxEntries = 2;
+    }
+
+    @Test
+    void lookupReturnsSqlForNearDuplicateQuestion() {
+        cache.put(1L, Embedding.from(new float[]{1f, 0f, 0f}), "SELECT name FROM people");
+
+        assertEquals("SELECT name FROM people",
+                cache.lookup(1L, Embedding.from(new float[]{0.99f, 0.05f, 0f})));
+        assertEquals(1, cache.stats().hits());
+    }
+
+    @Test
+    void lookupMissesBelowThreshold() {
+        cache.put(1L, Embedding.from(new float[]{1f, 0f, 0f}), "SELECT name FROM people");
+
+        assertNull(cache.lookup(1L, Embedding.from(new float[]{0.5f, 0.5f, 0f})));
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void lookupIsScopedByDomain() {
+        cache.put(1L, Embedding.from(new float[]{1f, 0f}), "SELECT name FROM people");
+
+        assertNull(cache.lookup(2L, Embedding.from(new float[]{1f, 0f})));
+        assertNull(cache.lookup(null, Embedding.from(new float[]{1f, 0f})));
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        cache.put(1L, Embedding.from(new float[]{1f, 0f, 0f}), "SQL_A");
+        cache.put(1L, Embedding.from(new float[]{0f, 1f, 0f}), "SQL_B");
+        // Accès à A : B devient la moins récemment utilisée
+        cache.lookup(1L, Embedding.from(new float[]{1f, 0f, 0f}));
+        cache.put(1L, Embedding.from(new float[]{0f, 0f, 1f}), "SQL_C");
+
+        assertEquals(2, cache.stats().size());
+        assertEquals("SQL_A", cache.lookup(1L, Embedding.from(new float[]{1f, 0f, 0f})));
+        assertNull(cache.lookup(1L, Embedding.from(new float[]{0f, 1f, 0f})));
+    }
+
+    @Test
+    void expiredEntriesAreIgnored() {
+        cache.ttlMinutes = 0;
+        cache.put(1L, Embedding.from(new float[]{1f, 0f}), "SELECT name FROM people");
+
+        assertNull(cache.lookup(1L, Embedding.from(new float[]{1f, 0f})));
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void invalidateRemovesEntry() {
+        cache.put(1L, Embedding.from(new float[]{1f, 0f}), "SELECT name FROM people");
+        cache.invalidate(1L, "SELECT name FROM people");
+
+        assertNull(cache.lookup(1L, Embedding.from(new float[]{1f, 0f})));
+    }
+
+    @Test
+    void disabledCacheNeverHits() {
+        cache.enabled = false;
+        cache.put(1L, Embedding.from(new float[]{1f, 0f}), "SELECT name FROM people");
+
+        assertNull(cache.lookup(1L, Embedding.from(new float[]{1f, 0f})));
+    }
+}
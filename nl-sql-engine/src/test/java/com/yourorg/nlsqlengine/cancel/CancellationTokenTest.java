@@ -0,0 +1,134 @@
+package com.yourorg.nlsqlengine.cancel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CancellationTokenTest {
+
+    @Test
+    void cancelRunsRegisteredActionsOnce() {
+        CancellationToken token = new CancellationToken();
+        AtomicInteger runs = new AtomicInteger();
+        token.onCancel(runs::incrementAndGet);
+
+        assertTrue(token.cancel("test"));
+        assertFalse(token.cancel("encore"));
+
+        assertEquals(1, runs.get());
+        assertTrue(token.isCancelled());
+        assertEquals("test", token.reason());
+    }
+
+    @Test
+    void actionRegisteredAfterCancelRunsImmediately() {
+        CancellationToken token = new CancellationToken();
+        token.cancel("test");
+        AtomicInteger runs = new AtomicInteger();
+
+        token.onCancel(runs::incrementAndGet).close();
+
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void closedRegistrationIsNotRun() {
+        CancellationToken token = new CancellationToken();
+        AtomicInteger runs = new AtomicInteger();
+        token.onCancel(runs::incrementAndGet).close();
+
+        token.cancel("test");
+
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void throwIfCancelledThrowsOnlyAfterCancel() {
+        CancellationToken token = new CancellationToken();
+        assertDoesNotThrow(token::throwIfCancelled);
+
+        token.cancel("client déconnecté");
+
+        QueryCancelledException e = assertThrows(QueryCancelledException.class, token::throwIfCancelled);
+        assertTrue(e.getMessage().contains("client déconnecté"));
+    }
+
+    @Test
+    void noneCannotBeCancelled() {
+        assertFalse(CancellationToken.NONE.cancel("test"));
+        assertFalse(CancellationToken.NONE.isCancelled());
+    }
+
+    @Test
+    void bindSetsAndRestoresCurrentToken() {
+        CancellationToken outer = new CancellationToken();
+        CancellationToken inner = new CancellationToken();
+
+        assertSame(CancellationToken.NONE, CancellationToken.current());
+        outer.bind(() -> {
+            assertSame(outer, CancellationToken.current());
+            inner.bind(() -> {
+                assertSame(inner, CancellationToken.current());
+                return null;
+            });
+            assertSame(outer, CancellationToken.current());
+            return null;
+        });
+        assertSame(CancellationToken.NONE, CancellationToken.current());
+    }
+
+    @Test
+    void threadsStartedInsideBindInheritToken() throws Exception {
+        CancellationToken token = new CancellationToken();
+
+        CancellationToken seen = token.bind(() -> {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                return executor.submit(CancellationToken::current).get(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertSame(token, seen);
+    }
+
+    @Test
+    void interruptibleAbortsBlockedCallAndClearsInterrupt() throws Exception {
+        CancellationToken token = new CancellationToken();
+        CountDownLatch started = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> call = executor.submit(() -> {
+                try {
+                    token.interruptible(() -> {
+                        started.countDown();
+                        try {
+                            Thread.sleep(30_000);
+                            return "terminé";
+                        } catch (InterruptedException e) {
+                            throw new IllegalStateException("Appel interrompu", e);
+                        }
+                    });
+                    fail("L'appel aurait dû être annulé");
+                } catch (QueryCancelledException e) {
+                    // attendu
+                }
+                return Thread.currentThread().isInterrupted();
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            token.cancel("test");
+
+            assertFalse(call.get(5, TimeUnit.SECONDS), "le statut d'interruption doit être effacé");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
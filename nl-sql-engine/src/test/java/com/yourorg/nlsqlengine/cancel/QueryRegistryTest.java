@@ -0,0 +1,53 @@
+package com.yourorg.nlsqlengine.cancel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryRegistryTest {
+
+    private final QueryRegistry registry = new QueryRegistry();
+
+    @Test
+    void cancelByIdCancelsRegisteredToken() {
+        CancellationToken token = registry.register("q1", () -> false);
+
+        assertTrue(registry.cancel("q1", "test"));
+
+        assertTrue(token.isCancelled());
+        assertEquals(1, registry.stats().cancelled());
+    }
+
+    @Test
+    void unknownOrFinishedQueryCannotBeCancelled() {
+        CancellationToken token = registry.register("q1", () -> false);
+        registry.unregister("q1", token);
+
+        assertFalse(registry.cancel("q1", "test"));
+        assertFalse(registry.cancel("inconnue", "test"));
+        assertEquals(0, registry.stats().running());
+    }
+
+    @Test
+    void idAlreadyRunningIsRejected() {
+        assertNotNull(registry.register("q1", () -> false));
+
+        assertNull(registry.register("q1", () -> false));
+    }
+
+    @Test
+    void disconnectedClientCancelsQuery() {
+        AtomicBoolean disconnected = new AtomicBoolean();
+        CancellationToken token = registry.register("q1", disconnected::get);
+
+        registry.cancelDisconnected();
+        assertFalse(token.isCancelled());
+
+        disconnected.set(true);
+        registry.cancelDisconnected();
+        assertTrue(token.isCancelled());
+        assertEquals("client déconnecté", token.reason());
+    }
+}
@@ -0,0 +1,128 @@
+package com.yourorg.nlsqlengine.job;
+
+import com.yourorg.nlsqlengine.llm.AnswerMode;
+import com.yourorg.nlsqlengine.orchestration.NlSqlOrchestrator;
+import com.yourorg.nlsqlengine.orchestration.OrchestratorResult;
+import com.yourorg.nlsqlengine.orchestration.PipelineListener;
+import com.yourorg.nlsqlengine.sql.ResultTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryJobServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private QueryJobService service;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void jobCompletesWithResultAndTimings() {
+        service = createService(1, 4, false);
+
+        QueryJob job = service.submit("Combien de films ?", 1L, AnswerMode.TEMPLATE);
+        assertNotNull(service.get(job.id()));
+        assertTrue(job.await(Duration.ofSeconds(5)));
+
+        assertEquals(QueryJob.Status.SUCCEEDED, job.status());
+        assertEquals("SELECT 1", job.result().generatedSql());
+        assertNotNull(job.runMs());
+        assertTrue(job.queueMs() >= 0);
+        assertEquals(1, service.stats().completed());
+    }
+
+    @Test
+    void orchestratorExceptionMarksJobFailed() {
+        service = createService(1, 4, false);
+        service.orchestrator = new NlSqlOrchestrator() {
+            @Override
+            public OrchestratorResult process(String question, Long domainId, AnswerMode answerMode,
+                                              PipelineListener listener) {
+                throw new IllegalStateException("Ollama indisponible");
+            }
+        };
+
+        QueryJob job = service.submit("Combien de films ?", null, null);
+        assertTrue(job.await(Duration.ofSeconds(5)));
+        assertEquals(QueryJob.Status.FAILED, job.status());
+        assertEquals("Ollama indisponible", job.result().error());
+    }
+
+    @Test
+    void fullQueueRejectsSubmission() {
+        service = createService(1, 1, true);
+
+        service.submit("q1", null, null);
+        service.submit("q2", null, null);
+        assertThrows(RejectedExecutionException.class, () -> service.submit("q3", null, null));
+        assertEquals(1, service.stats().rejected());
+        assertEquals(2, service.stats().retained());
+    }
+
+    @Test
+    void subscribersReceivePipelineEvents() throws Exception {
+        service = createService(1, 4, true);
+        List<String> events = new ArrayList<>();
+
+        QueryJob job = service.submit("Combien de films ?", null, null);
+        job.subscribe(new PipelineListener() {
+            @Override
+            public void onSqlGenerated(int attempt, String sql) {
+                events.add(sql);
+            }
+        });
+        release.countDown();
+
+        assertTrue(job.await(Duration.ofSeconds(5)));
+        assertEquals(List.of("SELECT 1"), events);
+    }
+
+    @Test
+    void expiredJobsArePurged() throws Exception {
+        service = createService(1, 4, false);
+        service.retentionMinutes = 0;
+
+        QueryJob job = service.submit("Combien de films ?", null, null);
+        assertTrue(job.await(Duration.ofSeconds(5)));
+        Thread.sleep(10);
+        assertNull(service.get(job.id()));
+    }
+
+    private QueryJobService createService(int workers, int queueCapacity, boolean blockUntilReleased) {
+        QueryJobService jobs = new QueryJobService();
+        jobs.workers = workers;
+        jobs.queueCapacity = queueCapacity;
+        jobs.retentionMinutes = 30;
+        jobs.orchestrator = new NlSqlOrchestrator() {
+            @Override
+            public OrchestratorResult process(String question, Long domainId, AnswerMode answerMode,
+                                              PipelineListener listener) {
+                if (blockUntilReleased) {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                listener.onSqlGenerated(1, "SELECT 1");
+                ResultTable table = new ResultTable(List.of(new ResultTable.Column("count", "int8")),
+                        List.<Object[]>of(new Object[]{6}));
+                return OrchestratorResult.success(question, "SELECT 1", table, "Il y en a 6.");
+            }
+        };
+        jobs.init();
+        return jobs;
+    }
+}
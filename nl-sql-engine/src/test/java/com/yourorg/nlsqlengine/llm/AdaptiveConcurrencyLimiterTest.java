@@ -0,0 +1,204 @@
+package com.yourorg.nlsqlengine.llm;
+
+import com.yourorg.nlsqlengine.cancel.CancellationToken;
+import com.yourorg.nlsqlengine.cancel.QueryCancelledException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void fastSuccessesIncreaseLimit() {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(2, 0, 1000);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("ok", limiter.execute(() -> "ok"));
+        }
+        assertTrue(limiter.stats().limit() > 2);
+        assertEquals(0, limiter.stats().inFlight());
+    }
+
+    @Test
+    void failuresDecreaseLimit() {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(8, 0, 1000);
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IllegalStateException.class, () -> limiter.execute(() -> {
+                throw new IllegalStateException("timeout Ollama");
+            }));
+        }
+        assertTrue(limiter.stats().limit() < 8);
+        assertEquals(0, limiter.stats().inFlight());
+    }
+
+    @Test
+    void cancelledCallsLeaveLimitUnchanged() {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(8, 0, 1000);
+        for (int i = 0; i < 3; i++) {
+            assertThrows(QueryCancelledException.class, () -> limiter.execute(() -> {
+                throw new QueryCancelledException("Requête annulée : test");
+            }));
+        }
+        assertEquals(8, limiter.stats().limit());
+        assertEquals(0, limiter.stats().inFlight());
+    }
+
+    @Test
+    void slowCallsDecreaseLimit() {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(4, 0, 1000);
+        limiter.latencyTargetMs = 0;
+        limiter.execute(() -> {
+            sleep(5);
+            return "lent";
+        });
+        assertEquals(3, limiter.stats().limit());
+    }
+
+    @Test
+    void fullQueueFailsFast() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(1, 0, 5000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> busy = executor.submit(() -> limiter.execute(() -> {
+                started.countDown();
+                await(release);
+                return "ok";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertThrows(LlmOverloadedException.class, () -> limiter.execute(() -> "refusé"));
+            assertEquals(1, limiter.stats().rejected());
+            assertEquals(1, limiter.stats().inFlight());
+
+            release.countDown();
+            assertEquals("ok", busy.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void queuedCallRunsWhenPermitIsReleased() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(1, 4, 5000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            executor.submit(() -> limiter.execute(() -> {
+                started.countDown();
+                await(release);
+                return "premier";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> queued = executor.submit(() -> limiter.execute(() -> "second"));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (limiter.stats().queued() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(1, limiter.stats().queued());
+
+            release.countDown();
+            assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+            assertEquals(0, limiter.stats().queued());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void waitTimeoutFailsFast() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(1, 4, 20);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> limiter.execute(() -> {
+                started.countDown();
+                await(release);
+                return "ok";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertThrows(LlmOverloadedException.class, () -> limiter.execute(() -> "trop tard"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void cancellationWhileQueuedThrowsQueryCancelled() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(1, 4, 5000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            executor.submit(() -> limiter.execute(() -> {
+                started.countDown();
+                await(release);
+                return "premier";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CancellationToken token = new CancellationToken();
+            Future<String> queued = executor.submit(() -> token.bind(() -> {
+                Thread waiter = Thread.currentThread();
+                try (CancellationToken.Registration ignored = token.onCancel(waiter::interrupt)) {
+                    return limiter.execute(() -> "second");
+                }
+            }));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (limiter.stats().queued() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            token.cancel("client déconnecté");
+
+            ExecutionException error = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(QueryCancelledException.class, error.getCause());
+            assertEquals(0, limiter.stats().queued());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static AdaptiveConcurrencyLimiter createLimiter(int initialLimit, int maxQueue, long maxWaitMs) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter();
+        limiter.enabled = true;
+        limiter.initialLimit = initialLimit;
+        limiter.minLimit = 1;
+        limiter.maxLimit = 16;
+        limiter.maxQueue = maxQueue;
+        limiter.maxWaitMs = maxWaitMs;
+        limiter.latencyTargetMs = 60_000;
+        limiter.backoffRatio = 0.75;
+        return limiter;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
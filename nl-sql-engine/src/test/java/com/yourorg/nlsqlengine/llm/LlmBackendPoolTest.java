@@ -0,0 +1,211 @@
+package com.yourorg.nlsqlengine.llm;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LlmBackendPoolTest {
+
+    private final List<HttpServer> servers = new ArrayList<>();
+    private LlmBackendPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new LlmBackendPool();
+        pool.registry = new SimpleMeterRegistry();
+        pool.healthIntervalSeconds = 0;
+        pool.healthTimeoutMs = 1000;
+        pool.ejectAfterFailures = 3;
+        pool.slowCallMs = 60_000;
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+        servers.forEach(server -> server.stop(0));
+    }
+
+    @Test
+    void routesToLeastOutstandingBackend() throws Exception {
+        LlmBackend first = backend("http://a");
+        LlmBackend second = backend("http://b");
+        pool.start(List.of(first, second));
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> pool.execute(backend -> {
+            started.countDown();
+            await(release);
+            return backend.baseUrl();
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        String busyUrl = first.outstanding() == 1 ? "http://a" : "http://b";
+
+        for (int i = 0; i < 4; i++) {
+            assertNotEquals(busyUrl, pool.execute(LlmBackend::baseUrl));
+        }
+        release.countDown();
+        assertEquals(busyUrl, busy.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void spreadsCallsWhenBackendsAreIdle() {
+        LlmBackend first = backend("http://a");
+        LlmBackend second = backend("http://b");
+        pool.start(List.of(first, second));
+
+        for (int i = 0; i < 10; i++) {
+            pool.execute(LlmBackend::baseUrl);
+        }
+
+        assertEquals(5, first.stats().requests());
+        assertEquals(5, second.stats().requests());
+    }
+
+    @Test
+    void ejectsBackendAfterConsecutiveFailures() {
+        LlmBackend failing = backend("http://a");
+        LlmBackend healthy = backend("http://b");
+        pool.start(List.of(failing, healthy));
+
+        for (int i = 0; i < 10 && failing.isHealthy(); i++) {
+            try {
+                pool.execute(backend -> {
+                    if (backend == failing) {
+                        throw new IllegalStateException("connexion refusée");
+                    }
+                    return "ok";
+                });
+            } catch (IllegalStateException expected) {
+                // échec attendu sur le backend défaillant
+            }
+        }
+
+        assertFalse(failing.isHealthy());
+        assertEquals(3, failing.stats().failures());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("http://b", pool.execute(LlmBackend::baseUrl));
+        }
+    }
+
+    @Test
+    void usesAllBackendsWhenNoneIsHealthy() {
+        LlmBackend only = backend("http://a");
+        pool.start(List.of(only));
+        only.markUnhealthy();
+
+        assertEquals("http://a", pool.execute(LlmBackend::baseUrl));
+    }
+
+    @Test
+    void healthProbeEjectsAndReadmitsBackends() throws IOException {
+        LlmBackend up = backend(stubServer(200));
+        LlmBackend down = backend(stubServer(500));
+        LlmBackend unreachable = backend("http://127.0.0.1:1");
+        pool.start(List.of(up, down, unreachable));
+        up.markUnhealthy();
+
+        pool.probeAll();
+
+        assertTrue(up.isHealthy());
+        assertFalse(down.isHealthy());
+        assertFalse(unreachable.isHealthy());
+    }
+
+    @Test
+    void slowBackendAnsweringProbeStaysEjectedUntilCooldown() throws IOException {
+        LlmBackend slow = backend(stubServer(200));
+        LlmBackend fast = backend("http://b");
+        pool.start(List.of(slow, fast));
+        pool.slowCallMs = 20;
+        pool.slowCooldownMs = 300;
+
+        for (int i = 0; i < 10 && slow.isHealthy(); i++) {
+            pool.execute(backend -> {
+                if (backend == slow) {
+                    sleep(40);
+                }
+                return null;
+            });
+        }
+        assertFalse(slow.isHealthy());
+        assertEquals(0, slow.stats().failures());
+
+        pool.probeAll();
+        assertFalse(slow.isHealthy(), "la sonde répond, mais le backend reste écarté pendant la mise à l'écart");
+
+        sleep(350);
+        pool.probeAll();
+        assertTrue(slow.isHealthy());
+    }
+
+    @Test
+    void recordsLatencyPercentiles() {
+        LlmBackend only = backend("http://a");
+        pool.start(List.of(only));
+
+        pool.execute(backend -> {
+            sleep(30);
+            return null;
+        });
+
+        LlmBackendPool.BackendStats stats = pool.stats().get(0);
+        assertEquals(1, stats.requests());
+        assertEquals(0, stats.failures());
+        assertTrue(stats.p50Ms() >= 30 && stats.p50Ms() <= 50, "p50 = " + stats.p50Ms());
+        assertEquals(stats.p50Ms(), stats.p99Ms());
+
+        Timer timer = pool.registry.find("nlsql.llm.backend.latency").tag("backend", "http://a").timer();
+        assertNotNull(timer, "latence exposée sur /q/metrics par backend");
+        assertEquals(1, timer.count());
+    }
+
+    private LlmBackend backend(String url) {
+        return new LlmBackend(url, null, null, pool.latencyTimer(url));
+    }
+
+    private String stubServer(int tagsStatus) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/tags", exchange -> {
+            byte[] body = "{\"models\":[]}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(tagsStatus, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        servers.add(server);
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
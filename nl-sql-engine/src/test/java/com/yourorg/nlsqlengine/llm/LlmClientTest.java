@@ -1,7 +1,32 @@
 package com.yourorg.nlsqlengine.llm;
 
+import com.yourorg.nlsqlengine.cancel.CancellationToken;
+import com.yourorg.nlsqlengine.cancel.QueryCancelledException;
+import com.yourorg.nlsqlengine.metrics.PipelineMetrics;
+import com.yourorg.nlsqlengine.tracing.PipelineTracer;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.PartialResponse;
+import dev.langchain4j.model.chat.response.PartialResponseContext;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.model.chat.response.StreamingHandle;
+import dev.langchain4j.model.output.TokenUsage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class LlmClientTest {
@@ -87,4 +112,176 @@ class LlmClientTest {
         assertEquals("SELECT id FROM people",
                 client.extractSql("Requête : SELECT id FROM people"));
     }
+
+    @Test
+    void cancelledCallKeepsPermitUntilUpstreamReturns() throws Exception {
+        LlmClient client = clientWithLimit(4);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch upstreamDone = new CountDownLatch(1);
+        CancellationToken token = new CancellationToken();
+
+        CompletableFuture<String> caller = CompletableFuture.supplyAsync(() -> token.bind(() ->
+                client.call(Span.getInvalid(), backend -> {
+                    started.countDown();
+                    await(upstreamDone);
+                    return "SELECT 1";
+                })));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        token.cancel("client déconnecté");
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> caller.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(QueryCancelledException.class, error.getCause());
+        // L'échange HTTP continue : créneau et appel en cours restent comptés
+        assertEquals(1, client.limiter.stats().inFlight());
+        assertEquals(1, client.backends.stats().get(0).outstanding());
+
+        upstreamDone.countDown();
+        awaitUntil(() -> client.limiter.stats().inFlight() == 0 && client.backends.stats().get(0).outstanding() == 0);
+        assertEquals(4, client.limiter.stats().limit(), "appel annulé : limite inchangée");
+        assertEquals(0, client.backends.stats().get(0).failures());
+    }
+
+    @Test
+    void callCancelledWhileQueuedNeverReachesUpstream() throws Exception {
+        LlmClient client = clientWithLimit(1);
+        CountDownLatch busy = new CountDownLatch(1);
+        CountDownLatch releaseBusy = new CountDownLatch(1);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> client.call(Span.getInvalid(), backend -> {
+            busy.countDown();
+            await(releaseBusy);
+            return "premier";
+        }));
+        assertTrue(busy.await(5, TimeUnit.SECONDS));
+
+        CancellationToken token = new CancellationToken();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> token.bind(() ->
+                client.call(Span.getInvalid(), backend -> {
+                    upstreamCalls.incrementAndGet();
+                    return "second";
+                })));
+        awaitUntil(() -> client.limiter.stats().queued() == 1);
+        token.cancel("client déconnecté");
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(QueryCancelledException.class, error.getCause());
+        awaitUntil(() -> client.limiter.stats().queued() == 0);
+
+        releaseBusy.countDown();
+        assertEquals("premier", first.get(5, TimeUnit.SECONDS));
+        assertEquals(0, upstreamCalls.get());
+        assertEquals(0, client.limiter.stats().inFlight());
+    }
+
+    @Test
+    void cancelledGenerateSqlClosesStreamAndFreesPermit() throws Exception {
+        CountDownLatch streaming = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        StreamingChatModel model = new StreamingChatModel() {
+            @Override
+            public void doChat(ChatRequest request, StreamingChatResponseHandler handler) {
+                Thread.ofVirtual().start(() -> {
+                    StreamingHandle handle = new StreamingHandle() {
+                        @Override
+                        public void cancel() {
+                            closed.countDown();
+                        }
+
+                        @Override
+                        public boolean isCancelled() {
+                            return closed.getCount() == 0;
+                        }
+                    };
+                    handler.onPartialResponse(new PartialResponse("SELECT"), new PartialResponseContext(handle));
+                    streaming.countDown();
+                    // Génération longue : sans fermeture du flux, l'appel amont ne rendrait la main qu'après 60 s
+                    try {
+                        if (!closed.await(60, TimeUnit.SECONDS)) {
+                            handler.onCompleteResponse(ChatResponse.builder().aiMessage(AiMessage.from("SELECT 1")).build());
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+        };
+        LlmClient client = clientWithLimit(4, model);
+        CancellationToken token = new CancellationToken();
+
+        CompletableFuture<String> caller = CompletableFuture.supplyAsync(() -> token.bind(() ->
+                client.generateSql("Combien de clients ?", "CREATE TABLE clients (id INT);", List.of(), List.of(), null)));
+        assertTrue(streaming.await(5, TimeUnit.SECONDS));
+        assertEquals(1, client.limiter.stats().inFlight());
+        token.cancel("client déconnecté");
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> caller.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(QueryCancelledException.class, error.getCause());
+        assertEquals(0, closed.getCount(), "flux fermé côté Ollama");
+        awaitUntil(() -> client.limiter.stats().inFlight() == 0 && client.backends.stats().get(0).outstanding() == 0);
+        assertEquals(0, client.backends.stats().get(0).failures());
+    }
+
+    private static LlmClient clientWithLimit(int limit) {
+        return clientWithLimit(limit, null);
+    }
+
+    private static LlmClient clientWithLimit(int limit, StreamingChatModel streamingChatModel) {
+        LlmClient client = new LlmClient();
+        client.limiter = new AdaptiveConcurrencyLimiter();
+        client.limiter.enabled = true;
+        client.limiter.initialLimit = limit;
+        client.limiter.minLimit = 1;
+        client.limiter.maxLimit = 16;
+        client.limiter.maxQueue = 4;
+        client.limiter.maxWaitMs = 10_000;
+        client.limiter.latencyTargetMs = 60_000;
+        client.limiter.backoffRatio = 0.75;
+        client.backends = new LlmBackendPool();
+        client.backends.registry = new SimpleMeterRegistry();
+        client.backends.healthIntervalSeconds = 0;
+        client.backends.ejectAfterFailures = 3;
+        client.backends.slowCallMs = 60_000;
+        client.backends.start(List.of(new LlmBackend("http://a", streamingChatModel, null,
+                client.backends.latencyTimer("http://a"))));
+        client.keepAliveSeconds = Optional.empty();
+        client.numCtx = Optional.empty();
+        client.metrics = new PipelineMetrics() {
+            @Override
+            public void recordPromptTokens(int tokens, boolean trimmed) {
+            }
+
+            @Override
+            public void recordTokens(String call, TokenUsage usage) {
+            }
+        };
+        client.promptAssembler = new PromptAssembler();
+        client.promptAssembler.promptBuilder = new PromptBuilder();
+        client.promptAssembler.metrics = client.metrics;
+        client.promptAssembler.charsPerToken = Optional.empty();
+        client.promptAssembler.modelId = "mistral";
+        client.promptAssembler.init();
+        client.tracer = new PipelineTracer() {
+            @Override
+            public <T, E extends Exception> T inSpan(String name, SpanKind kind, SpanBody<T, E> body) throws E {
+                return body.run(Span.getInvalid());
+            }
+        };
+        return client;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException("appel amont interrompu", e);
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition non atteinte");
+            Thread.sleep(10);
+        }
+    }
 }
@@ -0,0 +1,133 @@
+package com.yourorg.nlsqlengine.llm;
+
+import com.yourorg.nlsqlengine.metrics.PipelineMetrics;
+import com.yourorg.nlsqlengine.rag.SchemaSegment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptAssemblerTest {
+
+    private static final List<SchemaSegment> SEGMENTS = List.of(
+            new SchemaSegment("clients", "CREATE TABLE clients (id INT, nom VARCHAR(100));", 0.9),
+            new SchemaSegment("commandes", "CREATE TABLE commandes (id INT, client_id INT, montant NUMERIC);", 0.6),
+            new SchemaSegment("produits", "CREATE TABLE produits (id INT, libelle VARCHAR(200));", 0.8));
+
+    private static final List<Map.Entry<String, String>> EXAMPLES = List.of(
+            Map.entry("Combien de clients ?", "SELECT COUNT(id) AS total FROM clients"),
+            Map.entry("Liste des produits", "SELECT libelle FROM produits"));
+
+    private PromptAssembler assembler;
+    private final List<String> recordedPrompts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        assembler = new PromptAssembler();
+        assembler.promptBuilder = new PromptBuilder();
+        assembler.metrics = new PipelineMetrics() {
+            @Override
+            public void recordPromptTokens(int tokens, boolean trimmed) {
+                recordedPrompts.add(tokens + (trimmed ? "/trimmed" : ""));
+            }
+        };
+        assembler.charsPerToken = Optional.empty();
+        assembler.modelId = "mistral:7b";
+        assembler.init();
+    }
+
+    @Test
+    void estimatorUsesModelFamilyRatio() {
+        assertEquals(3.0, TokenEstimator.forModel("mistral:7b").charsPerToken());
+        assertEquals(3.6, TokenEstimator.forModel("llama3.1:8b").charsPerToken());
+        assertEquals(TokenEstimator.DEFAULT_CHARS_PER_TOKEN, TokenEstimator.forModel("inconnu").charsPerToken());
+        assertEquals(5, TokenEstimator.forModel("mistral").estimate("SELECT 1 FROM"));
+        assertEquals(0, TokenEstimator.forModel("mistral").estimate(null));
+    }
+
+    @Test
+    void keepsEverythingWithinBudget() {
+        assembler.tokenBudget = 100_000;
+
+        PromptAssembler.AssembledPrompt prompt = assembler.assemble("Liste des clients", SEGMENTS, List.of(), EXAMPLES, null);
+
+        assertEquals(0, prompt.droppedExamples());
+        assertEquals(0, prompt.droppedSegments());
+        assertTrue(prompt.user().contains("CREATE TABLE commandes"));
+        assertTrue(prompt.user().contains("Liste des produits"));
+    }
+
+    @Test
+    void dropsFewShotsBeforeSchemaSegments() {
+        int full = fullPromptTokens();
+        assembler.tokenBudget = full - 5;
+
+        PromptAssembler.AssembledPrompt prompt = assembler.assemble("Liste des clients", SEGMENTS, List.of(), EXAMPLES, null);
+
+        assertEquals(1, prompt.droppedExamples());
+        assertEquals(0, prompt.droppedSegments());
+        assertTrue(prompt.user().contains("Combien de clients ?"));
+        assertFalse(prompt.user().contains("Liste des produits"));
+        assertTrue(prompt.estimatedTokens() <= assembler.tokenBudget);
+    }
+
+    @Test
+    void dropsLowestScoreSegmentsButKeepsOne() {
+        assembler.tokenBudget = 1;
+
+        PromptAssembler.AssembledPrompt prompt = assembler.assemble("Liste des clients", SEGMENTS, List.of(), EXAMPLES, null);
+
+        assertEquals(2, prompt.droppedExamples());
+        assertEquals(2, prompt.droppedSegments());
+        assertTrue(prompt.user().contains("CREATE TABLE clients"));
+        assertFalse(prompt.user().contains("CREATE TABLE commandes"));
+        assertEquals(1, assembler.stats().overBudget());
+    }
+
+    @Test
+    void zeroBudgetDisablesTrimming() {
+        assembler.tokenBudget = 0;
+
+        PromptAssembler.AssembledPrompt prompt = assembler.assemble("Liste des clients", SEGMENTS, List.of(), EXAMPLES, null);
+
+        assertEquals(0, prompt.droppedExamples() + prompt.droppedSegments());
+    }
+
+    @Test
+    void recordsTokenStats() {
+        assembler.tokenBudget = 100_000;
+        PromptAssembler.AssembledPrompt first = assembler.assemble("Liste des clients", SEGMENTS, List.of(), EXAMPLES, null);
+        PromptAssembler.AssembledPrompt second = assembler.assemble("Liste des clients", SEGMENTS.subList(0, 1), List.of(), List.of(), null);
+
+        PromptAssembler.PromptStats stats = assembler.stats();
+        assertEquals(2, stats.prompts());
+        assertEquals(first.estimatedTokens(), stats.maxTokens());
+        assertEquals((first.estimatedTokens() + second.estimatedTokens()) / 2, stats.averageTokens());
+        assertEquals(0, stats.trimmed());
+        assertEquals(List.of(String.valueOf(first.estimatedTokens()), String.valueOf(second.estimatedTokens())),
+                recordedPrompts);
+    }
+
+    @Test
+    void trimmedPromptIsRecordedWithItsFinalSize() {
+        assembler.tokenBudget = fullPromptTokens() - 5;
+        recordedPrompts.clear();
+
+        PromptAssembler.AssembledPrompt prompt = assembler.assemble("Liste des clients", SEGMENTS, List.of(), EXAMPLES, null);
+
+        assertEquals(List.of(prompt.estimatedTokens() + "/trimmed"), recordedPrompts);
+    }
+
+    private int fullPromptTokens() {
+        int budget = assembler.tokenBudget;
+        assembler.tokenBudget = 0;
+        int tokens = assembler.assemble("Liste des clients", SEGMENTS, List.of(), EXAMPLES, null).estimatedTokens();
+        assembler.tokenBudget = budget;
+        return tokens;
+    }
+}
@@ -79,4 +79,35 @@ class PromptBuilderTest {
         // L'erreur doit apparaître avant la question
         assertTrue(prompt.indexOf("## Erreur") < prompt.indexOf("## Question"));
     }
+
+    @Test
+    void stableLayoutPutsRulesBeforeSchema() {
+        String prompt = builder.buildUserPrompt("Test", "schema", List.of("règle"),
+                List.of(Map.entry("q", "SELECT 1")), "erreur");
+
+        assertTrue(prompt.indexOf("## Règles métier") < prompt.indexOf("## Schéma"));
+        assertTrue(prompt.indexOf("## Schéma") < prompt.indexOf("## Exemples"));
+        assertTrue(prompt.indexOf("## Exemples") < prompt.indexOf("## Erreur"));
+        assertTrue(prompt.indexOf("## Erreur") < prompt.indexOf("## Question"));
+    }
+
+    @Test
+    void legacyLayoutPutsSchemaFirst() {
+        builder.layout = PromptLayout.LEGACY;
+        String prompt = builder.buildUserPrompt("Test", "schema", List.of("règle"), null, null);
+
+        assertTrue(prompt.startsWith("## Schéma de la base de données"));
+        assertTrue(prompt.indexOf("## Schéma") < prompt.indexOf("## Règles métier"));
+    }
+
+    @Test
+    void stableLayoutSharesPrefixAcrossQuestions() {
+        List<String> rules = List.of("'unknown' signifie absence de données");
+        String first = builder.buildUserPrompt("Qui vient de Tatooine ?", "### people", rules, null, null);
+        String second = builder.buildUserPrompt("Combien de films ?", "### films", rules, null, null);
+
+        String sharedPrefix = "## Règles métier\n- 'unknown' signifie absence de données\n\n## Schéma de la base de données\n### ";
+        assertTrue(first.startsWith(sharedPrefix));
+        assertTrue(second.startsWith(sharedPrefix));
+    }
 }
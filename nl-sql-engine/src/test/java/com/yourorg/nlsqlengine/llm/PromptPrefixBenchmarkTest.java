@@ -0,0 +1,95 @@
+package com.yourorg.nlsqlengine.llm;
+
+import io.restassured.RestAssured;
+import io.restassured.path.json.JsonPath;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mesure du temps d'évaluation du prompt (prompt_eval_duration) économisé par la disposition
+ * stable du prompt : une même série de questions est envoyée à Ollama avec chaque disposition,
+ * et les tokens / la durée d'évaluation du prompt sont relevés dans les réponses.
+ * Avec la disposition stable, le préfixe commun (règles métier, début du schéma) est servi
+ * par le cache KV d'Ollama et n'est plus réévalué.
+ * Nécessite : docker compose up -d (Ollama + Mistral disponible)
+ * Lancer avec : mvn test -Dtest="PromptPrefixBenchmarkTest" -Dgroups="integration"
+ */
+@Tag("integration")
+class PromptPrefixBenchmarkTest {
+
+    private static final Logger LOG = Logger.getLogger(PromptPrefixBenchmarkTest.class);
+
+    private static final List<String> RULES = List.of(
+            "'unknown' et 'n/a' signifient absence de données",
+            "birth_year est au format BBY/ABY",
+            "Utiliser film_characters pour les jointures personnes-films",
+            "Utiliser starship_pilots pour les jointures vaisseaux-pilotes");
+
+    private static final Map<String, String> SEGMENTS = Map.of(
+            "people", "### people\nid, name, height, mass, birth_year, gender, homeworld_id",
+            "planets", "### planets\nid, name, climate, terrain, population",
+            "films", "### films\nid, title, episode_id, director, release_date",
+            "starships", "### starships\nid, name, model, crew, passengers, starship_class");
+
+    private static final List<Map.Entry<String, List<String>>> QUESTIONS = List.of(
+            Map.entry("Quels personnages viennent de Tatooine ?", List.of("planets", "people")),
+            Map.entry("Quels films a réalisé George Lucas ?", List.of("films")),
+            Map.entry("Quels vaisseaux pilote Han Solo ?", List.of("starships", "people")),
+            Map.entry("Quelle est la population de Naboo ?", List.of("planets")),
+            Map.entry("Dans quels films apparaît Leia ?", List.of("people", "films")));
+
+    @Test
+    void stableLayoutReducesPromptEvaluation() {
+        Measure legacy = run(PromptLayout.LEGACY);
+        Measure stable = run(PromptLayout.STABLE);
+
+        LOG.infof("Prompt eval (moyenne par requête) — legacy : %d tokens, %.1f ms ; stable : %d tokens, %.1f ms ; "
+                        + "gain : %.1f ms/requête",
+                legacy.tokens(), legacy.millis(), stable.tokens(), stable.millis(), legacy.millis() - stable.millis());
+        assertTrue(stable.tokens() < legacy.tokens(),
+                "La disposition stable doit réduire le nombre de tokens réévalués");
+    }
+
+    private Measure run(PromptLayout layout) {
+        PromptBuilder builder = new PromptBuilder();
+        builder.layout = layout;
+        long tokens = 0;
+        long nanos = 0;
+        for (var question : QUESTIONS) {
+            // Ordre des segments : par score (variable) en legacy, trié par table en stable
+            List<String> tables = layout == PromptLayout.STABLE
+                    ? question.getValue().stream().sorted().toList()
+                    : question.getValue();
+            String schema = String.join("\n\n", tables.stream().map(SEGMENTS::get).toList());
+            String prompt = builder.buildUserPrompt(question.getKey(), schema, RULES, null, null);
+
+            JsonPath response = RestAssured.given()
+                    .baseUri("http://localhost:11434")
+                    .contentType("application/json")
+                    .body(Map.of(
+                            "model", "mistral",
+                            "stream", false,
+                            "keep_alive", 1800,
+                            "options", Map.of("temperature", 0.0, "num_predict", 1),
+                            "messages", List.of(
+                                    Map.of("role", "system", "content", builder.getSystemPrompt()),
+                                    Map.of("role", "user", "content", prompt))))
+                    .when().post("/api/chat")
+                    .then()
+                    .statusCode(200)
+                    .extract().jsonPath();
+            tokens += response.getLong("prompt_eval_count");
+            nanos += response.getLong("prompt_eval_duration");
+        }
+        return new Measure(tokens / QUESTIONS.size(), nanos / 1e6 / QUESTIONS.size());
+    }
+
+    private record Measure(long tokens, double millis) {
+    }
+}
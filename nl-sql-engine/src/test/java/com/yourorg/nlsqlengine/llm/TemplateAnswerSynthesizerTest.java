@@ -0,0 +1,85 @@
+package com.yourorg.nlsqlengine.llm;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemplateAnswerSynthesizerTest {
+
+    @Test
+    void emptyResults() {
+        assertEquals("Aucun résultat ne correspond à votre question.",
+                TemplateAnswerSynthesizer.synthesize(List.of()));
+    }
+
+    @Test
+    void countScalar() {
+        assertEquals("Il y en a 6.",
+                TemplateAnswerSynthesizer.synthesize(List.of(Map.of("count", 6L))));
+        assertEquals("Il y en a 82.",
+                TemplateAnswerSynthesizer.synthesize(List.of(Map.of("nb_personnages", 82))));
+    }
+
+    @Test
+    void genericScalar() {
+        assertEquals("Le résultat est 172.5.",
+                TemplateAnswerSynthesizer.synthesize(List.of(Map.of("avg", new BigDecimal("172.500")))));
+        assertEquals("Le résultat est Tatooine.",
+                TemplateAnswerSynthesizer.synthesize(List.of(Map.of("name", "Tatooine"))));
+    }
+
+    @Test
+    void nullScalar() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("max", null);
+        assertEquals("Aucune valeur n'a été trouvée.", TemplateAnswerSynthesizer.synthesize(List.of(row)));
+    }
+
+    @Test
+    void singleRow() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("name", "Luke Skywalker");
+        row.put("height", 172);
+        assertEquals("Résultat : name : Luke Skywalker, height : 172.",
+                TemplateAnswerSynthesizer.synthesize(List.of(row)));
+    }
+
+    @Test
+    void listOfNames() {
+        List<Map<String, Object>> rows = List.of(
+                Map.of("name", "Luke Skywalker"),
+                Map.of("name", "C-3PO"),
+                Map.of("name", "Darth Vader"));
+        assertEquals("Les 3 résultats sont : Luke Skywalker, C-3PO et Darth Vader.",
+                TemplateAnswerSynthesizer.synthesize(rows));
+    }
+
+    @Test
+    void richResultsFallBackToLlm() {
+        List<Map<String, Object>> longList = IntStream.range(0, TemplateAnswerSynthesizer.MAX_LISTED_VALUES + 1)
+                .mapToObj(i -> Map.<String, Object>of("name", "p" + i))
+                .toList();
+        assertNull(TemplateAnswerSynthesizer.synthesize(longList));
+
+        List<Map<String, Object>> table = List.of(
+                Map.of("name", "Luke Skywalker", "height", 172),
+                Map.of("name", "C-3PO", "height", 167));
+        assertNull(TemplateAnswerSynthesizer.synthesize(table));
+    }
+
+    @Test
+    void answerModeParsing() {
+        assertEquals(AnswerMode.NONE, AnswerMode.fromValue("none"));
+        assertEquals(AnswerMode.TEMPLATE, AnswerMode.fromValue(" Template "));
+        assertEquals(AnswerMode.LLM, AnswerMode.fromValue("LLM"));
+        assertNull(AnswerMode.fromValue(null));
+        assertThrows(IllegalArgumentException.class, () -> AnswerMode.fromValue("poeme"));
+        assertEquals("template", AnswerMode.TEMPLATE.value());
+    }
+}
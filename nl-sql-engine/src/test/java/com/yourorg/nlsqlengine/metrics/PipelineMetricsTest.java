@@ -0,0 +1,154 @@
+package com.yourorg.nlsqlengine.metrics;
+
+import com.yourorg.nlsqlengine.llm.AdaptiveConcurrencyLimiter;
+import dev.langchain4j.model.output.TokenUsage;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private PipelineMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new PipelineMetrics();
+        metrics.registry = registry;
+    }
+
+    @Test
+    void stageTimerIsTaggedByStageAndDomain() {
+        String result = metrics.withDomain(7L, () -> metrics.time(PipelineMetrics.VALIDATION, () -> "ok"));
+
+        assertEquals("ok", result);
+        assertEquals(1, registry.find("nlsql.pipeline.stage")
+                .tags("stage", "validation", "domain", "7").timer().count());
+    }
+
+    @Test
+    void stageTimerPublishesPercentiles() {
+        metrics.time(PipelineMetrics.GENERATE_SQL, () -> "SELECT 1");
+
+        HistogramSnapshot snapshot = registry.find("nlsql.pipeline.stage").tags("stage", "generate_sql").timer()
+                .takeSnapshot();
+        assertArrayEquals(new double[]{0.5, 0.95, 0.99},
+                Arrays.stream(snapshot.percentileValues()).mapToDouble(ValueAtPercentile::percentile).toArray());
+        assertEquals(1, snapshot.count());
+    }
+
+    @Test
+    void failedStageIsTimedAndRethrown() {
+        assertThrows(SQLException.class, () -> metrics.time(PipelineMetrics.JDBC_EXECUTION, () -> {
+            throw new SQLException("relation \"inconnue\" does not exist");
+        }));
+
+        assertEquals(1, registry.find("nlsql.pipeline.stage")
+                .tags("stage", "jdbc_execution", "domain", PipelineMetrics.NO_DOMAIN).timer().count());
+    }
+
+    @Test
+    void domainIsInheritedByStageThreads() throws Exception {
+        metrics.withDomain(3L, () -> {
+            Thread stage = Thread.ofVirtual().start(() ->
+                    metrics.recordRetry("Exécution SQL : ERROR: column \"nom\" does not exist"));
+            try {
+                stage.join();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return null;
+        });
+
+        assertEquals(1.0, registry.find("nlsql.pipeline.retries")
+                .tags("domain", "3", "error_class", "undefined_column").counter().count());
+        assertEquals(PipelineMetrics.NO_DOMAIN, PipelineMetrics.domain());
+    }
+
+    @Test
+    void tokensAndRowsAreRecorded() {
+        metrics.withDomain(1L, () -> {
+            metrics.recordTokens("sql", new TokenUsage(120, 30));
+            metrics.recordTokens("sql", null);
+            metrics.recordRows(42);
+            return null;
+        });
+
+        assertEquals(120.0, registry.find("nlsql.llm.tokens")
+                .tags("domain", "1", "call", "sql", "type", "prompt").counter().count());
+        assertEquals(30.0, registry.find("nlsql.llm.tokens")
+                .tags("domain", "1", "call", "sql", "type", "completion").counter().count());
+        assertEquals(42.0, registry.find("nlsql.pipeline.rows").tags("domain", "1").summary().totalAmount());
+    }
+
+    @Test
+    void promptTokensAreSummarizedByDomain() {
+        metrics.withDomain(2L, () -> {
+            metrics.recordPromptTokens(1200, false);
+            metrics.recordPromptTokens(1800, false);
+            metrics.recordPromptTokens(3500, true);
+            return null;
+        });
+
+        var untrimmed = registry.find("nlsql.prompt.tokens").tags("domain", "2", "trimmed", "false").summary();
+        assertEquals(2, untrimmed.count());
+        assertEquals(3000.0, untrimmed.totalAmount());
+        assertEquals(3500.0, registry.find("nlsql.prompt.tokens").tags("trimmed", "true").summary().max());
+    }
+
+    @Test
+    void discardedSpeculativeCandidatesAreNotRetries() {
+        metrics.withDomain(2L, () -> {
+            metrics.recordSpeculativeCandidates(1, 2);
+            return null;
+        });
+
+        assertEquals(1.0, registry.find("nlsql.pipeline.speculative.candidates")
+                .tags("domain", "2", "outcome", "won").counter().count());
+        assertEquals(2.0, registry.find("nlsql.pipeline.speculative.candidates")
+                .tags("domain", "2", "outcome", "speculative_discarded").counter().count());
+        assertNull(registry.find("nlsql.pipeline.retries").counter());
+    }
+
+    @Test
+    void limiterGaugesReadCurrentState() {
+        metrics.bindLimiterGauges(new AdaptiveConcurrencyLimiter() {
+            @Override
+            public LimiterStats stats() {
+                return new LimiterStats(6, 4, 2, 10, 1);
+            }
+        });
+
+        assertEquals(6.0, registry.find("nlsql.llm.limiter.limit").gauge().value());
+        assertEquals(4.0, registry.find("nlsql.llm.limiter.in_flight").gauge().value());
+        assertEquals(2.0, registry.find("nlsql.llm.limiter.queued").gauge().value());
+    }
+
+    @Test
+    void errorClassCoversValidatorAndPostgresMessages() {
+        assertEquals("select_star", PipelineMetrics.errorClass(
+                "Validation SQL : SELECT * est interdit, spécifiez les colonnes explicitement"));
+        assertEquals("forbidden", PipelineMetrics.errorClass("Validation SQL : Commande interdite : DROP"));
+        assertEquals("table_not_allowed", PipelineMetrics.errorClass("Validation SQL : Table non autorisée : secrets"));
+        assertEquals("syntax", PipelineMetrics.errorClass("Validation SQL : SQL invalide : Encountered unexpected token"));
+        assertEquals("empty", PipelineMetrics.errorClass("Validation SQL : La requête SQL est vide"));
+        assertEquals("type_mismatch", PipelineMetrics.errorClass(
+                "Exécution SQL : ERROR: operator does not exist: character varying > integer"));
+        assertEquals("undefined_function", PipelineMetrics.errorClass(
+                "Exécution SQL : ERROR: function ifnull(text, unknown) does not exist"));
+        assertEquals("undefined_table", PipelineMetrics.errorClass(
+                "Exécution SQL : ERROR: relation \"clients\" does not exist"));
+        assertEquals("timeout", PipelineMetrics.errorClass(
+                "Exécution SQL : ERROR: canceling statement due to statement timeout"));
+        assertEquals("execution", PipelineMetrics.errorClass("Exécution SQL : connexion perdue"));
+        assertEquals("unknown", PipelineMetrics.errorClass(null));
+    }
+}
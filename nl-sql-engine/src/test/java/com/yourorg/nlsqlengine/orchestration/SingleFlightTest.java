@@ -0,0 +1,104 @@
+package com.yourorg.nlsqlengine.orchestration;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void concurrentCallsWithSameKeyShareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<String>> calls = new ArrayList<>();
+            calls.add(executor.submit(() -> singleFlight.execute("q", () -> {
+                executions.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return "SELECT 1";
+            })));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 4; i++) {
+                calls.add(executor.submit(() -> singleFlight.execute("q", () -> {
+                    executions.incrementAndGet();
+                    return "doublon";
+                })));
+            }
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (singleFlight.coalesced() < 4 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> call : calls) {
+                assertEquals("SELECT 1", call.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+            assertEquals(4, singleFlight.coalesced());
+            assertEquals(0, singleFlight.inFlight());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void sequentialCallsAreNotCached() {
+        assertEquals("a", singleFlight.execute("q", () -> "a"));
+        assertEquals("b", singleFlight.execute("q", () -> "b"));
+        assertEquals(0, singleFlight.coalesced());
+    }
+
+    @Test
+    void leaderExceptionIsPropagatedToWaiters() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("q", () -> {
+                leaderStarted.countDown();
+                await(release);
+                throw new IllegalStateException("Ollama indisponible");
+            }));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+            Future<String> waiter = executor.submit(() -> singleFlight.execute("q", () -> "jamais"));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (singleFlight.coalesced() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            Exception waiterError = assertThrows(Exception.class, () -> waiter.get(5, TimeUnit.SECONDS));
+            assertEquals("Ollama indisponible", leaderError.getCause().getMessage());
+            assertEquals("Ollama indisponible", waiterError.getCause().getMessage());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
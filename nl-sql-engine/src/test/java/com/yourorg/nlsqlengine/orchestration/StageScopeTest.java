@@ -0,0 +1,102 @@
+package com.yourorg.nlsqlengine.orchestration;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StageScopeTest {
+
+    @Test
+    void stagesRunConcurrently() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        try (StageScope scope = new StageScope()) {
+            Future<String> a = scope.fork(() -> {
+                bothStarted.countDown();
+                return bothStarted.await(5, TimeUnit.SECONDS) ? "a" : "timeout";
+            });
+            Future<String> b = scope.fork(() -> {
+                bothStarted.countDown();
+                return bothStarted.await(5, TimeUnit.SECONDS) ? "b" : "timeout";
+            });
+
+            assertEquals("a", scope.join(a, "a", 5000, () -> "fallback"));
+            assertEquals("b", scope.join(b, "b", 5000, () -> "fallback"));
+        }
+    }
+
+    @Test
+    void timedOutStageUsesFallbackAndIsCancelled() {
+        try (StageScope scope = new StageScope()) {
+            Future<List<String>> slow = scope.fork(() -> {
+                Thread.sleep(10_000);
+                return List.of("trop tard");
+            });
+
+            assertEquals(List.of(), scope.join(slow, "lent", 50, List::of));
+            assertTrue(slow.isCancelled());
+        }
+    }
+
+    @Test
+    void failedStageUsesFallback() {
+        try (StageScope scope = new StageScope()) {
+            Future<String> failing = scope.fork(() -> {
+                throw new IllegalStateException("pgvector indisponible");
+            });
+
+            assertEquals("schéma complet", scope.join(failing, "contexte", 1000, () -> "schéma complet"));
+        }
+    }
+
+    @Test
+    void closeCancelsPendingStages() {
+        Future<String> pending;
+        try (StageScope scope = new StageScope()) {
+            pending = scope.fork(() -> {
+                Thread.sleep(10_000);
+                return "jamais";
+            });
+        }
+        assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    void raceReturnsFirstWinnerAndCancelsOthers() throws Exception {
+        CountDownLatch loserStarted = new CountDownLatch(1);
+        List<Callable<String>> tasks = List.of(
+                () -> {
+                    loserStarted.countDown();
+                    Thread.sleep(10_000);
+                    return "lent";
+                },
+                () -> "invalide",
+                () -> {
+                    loserStarted.await(5, TimeUnit.SECONDS);
+                    return "valide";
+                });
+
+        long start = System.nanoTime();
+        try (StageScope scope = new StageScope()) {
+            assertEquals("valide", scope.race(tasks, "valide"::equals));
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+    }
+
+    @Test
+    void raceWithoutWinnerReturnsLastResult() {
+        try (StageScope scope = new StageScope()) {
+            String result = scope.race(List.of(
+                    () -> "invalide",
+                    () -> {
+                        throw new IllegalStateException("LLM indisponible");
+                    }), "valide"::equals);
+            assertEquals("invalide", result);
+        }
+    }
+}
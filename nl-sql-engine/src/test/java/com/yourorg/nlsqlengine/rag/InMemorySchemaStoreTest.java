@@ -0,0 +1,110 @@
+package com.yourorg.nlsqlengine.rag;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemorySchemaStoreTest {
+
+    private InMemorySchemaStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemorySchemaStore();
+        store.replaceAll(
+                List.of("people", "films", "planets", "rules"),
+                List.of(vector(1f, 0f, 0f), vector(0f, 1f, 0f), vector(0.8f, 0.6f, 0f), vector(0f, 0f, 1f)),
+                List.of(segment("### people", "default"), segment("### films", "default"),
+                        segment("### planets", "autre"), TextSegment.from("Règles métier",
+                                Metadata.from("type", "business_rules"))));
+    }
+
+    @Test
+    void searchReturnsBestMatchesInScoreOrder() {
+        List<EmbeddingMatch<TextSegment>> matches = store.search(request(vector(1f, 0.1f, 0f), 2, 0.0, null))
+                .matches();
+
+        assertEquals(List.of("people", "planets"), matches.stream().map(EmbeddingMatch::embeddingId).toList());
+        assertTrue(matches.get(0).score() >= matches.get(1).score());
+        assertEquals("### people", matches.get(0).embedded().text());
+    }
+
+    @Test
+    void domainFilterOnlyScansItsPartition() {
+        List<EmbeddingMatch<TextSegment>> matches = store.search(
+                request(vector(1f, 0.1f, 0f), 5, 0.0, "default")).matches();
+
+        assertEquals(List.of("people", "films"), matches.stream().map(EmbeddingMatch::embeddingId).toList());
+        assertTrue(store.search(request(vector(1f, 0f, 0f), 5, 0.0, "42")).matches().isEmpty());
+    }
+
+    @Test
+    void scoresFollowPgvectorRelevanceConvention() {
+        // cosinus 1 -> 1.0, cosinus 0 -> 0.5, cosinus -1 -> 0.0
+        List<EmbeddingMatch<TextSegment>> matches = store.search(request(vector(1f, 0f, 0f), 5, 0.5, null))
+                .matches();
+
+        assertEquals(1.0, matches.get(0).score(), 1e-6);
+        assertTrue(matches.stream().allMatch(m -> m.score() >= 0.5));
+        assertTrue(store.search(request(vector(-1f, 0f, 0f), 5, 0.6, null)).matches().isEmpty());
+    }
+
+    @Test
+    void ingestAndPurgeKeepIndexInSync() {
+        store.removeAll();
+        assertEquals(0, store.size());
+
+        store.addAll(List.of("starships"), List.of(vector(0f, 1f, 0f)), List.of(segment("### starships", "default")));
+        assertEquals(1, store.size());
+        assertEquals("starships", store.search(request(vector(0f, 1f, 0f), 1, 0.0, "default"))
+                .matches().get(0).embeddingId());
+    }
+
+    @Test
+    void isLoadedOnlyAfterContentIsProvided() {
+        assertFalse(new InMemorySchemaStore().isLoaded());
+        assertTrue(store.isLoaded());
+    }
+
+    @Test
+    void purgeMarksIndexUnloadedUntilNextIngestion() {
+        store.setVersion("h1");
+        store.removeAll();
+
+        assertFalse(store.isLoaded(), "index vide après purge : la recherche doit retomber sur pgvector");
+        assertNull(store.version());
+
+        store.addAll(List.of("starships"), List.of(vector(0f, 1f, 0f)), List.of(segment("### starships", "default")));
+        assertTrue(store.isLoaded());
+    }
+
+    private static EmbeddingSearchRequest request(Embedding query, int maxResults, double minScore, String domain) {
+        EmbeddingSearchRequest.EmbeddingSearchRequestBuilder builder = EmbeddingSearchRequest.builder()
+                .queryEmbedding(query)
+                .maxResults(maxResults)
+                .minScore(minScore);
+        if (domain != null) {
+            builder.filter(metadataKey("domain").isEqualTo(domain));
+        }
+        return builder.build();
+    }
+
+    private static Embedding vector(float... values) {
+        return Embedding.from(values);
+    }
+
+    private static TextSegment segment(String text, String domain) {
+        Metadata metadata = Metadata.from("type", "table_schema");
+        metadata.put("domain", domain);
+        return TextSegment.from(text, metadata);
+    }
+}
@@ -3,6 +3,7 @@ package com.yourorg.nlsqlengine.rag;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Field;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -38,6 +39,45 @@ class SchemaEmbeddingServiceTest {
                 "Le hash doit changer quand le contenu change");
     }
 
+    @Test
+    void parseVectorReadsPgvectorLiteral() {
+        assertArrayEquals(new float[]{0.1f, -2.5f, 3e-4f},
+                SchemaEmbeddingService.parseVector("[0.1,-2.5,0.0003]"));
+    }
+
+    @Test
+    void memoryIndexIsReloadedWhenStoredHashChanges() {
+        String[] storedHash = {"h1"};
+        int[] loads = {0};
+        InMemorySchemaStore memoryStore = new InMemorySchemaStore();
+        SchemaEmbeddingService service = new SchemaEmbeddingService() {
+            @Override
+            public void loadMemoryIndex() {
+                loads[0]++;
+                memoryStore.replaceAll(List.of(), List.of(), List.of());
+                memoryStore.setVersion(storedHash[0]);
+            }
+        };
+        service.memoryStore = memoryStore;
+        service.hashRepository = new EmbeddingHashRepository() {
+            @Override
+            public String getStoredHash() {
+                return storedHash[0];
+            }
+        };
+
+        assertTrue(service.refreshMemoryIndexIfStale(), "index jamais chargé");
+        assertFalse(service.refreshMemoryIndexIfStale(), "hash inchangé");
+
+        storedHash[0] = "h2"; // ré-ingestion par un autre nœud
+        assertTrue(service.refreshMemoryIndexIfStale());
+        assertEquals("h2", memoryStore.version());
+        assertEquals(2, loads[0]);
+
+        memoryStore.removeAll();
+        assertTrue(service.refreshMemoryIndexIfStale(), "index purgé");
+    }
+
     private SchemaEmbeddingService createServiceWithProvider() throws Exception {
         SchemaEmbeddingService service = new SchemaEmbeddingService();
         setField(service, "schemaProvider", new SchemaProvider());
@@ -26,4 +26,13 @@ class SchemaProviderTest {
         assertFalse(rules.isEmpty());
         assertTrue(rules.stream().anyMatch(r -> r.contains("film_characters")));
     }
+
+    @Test
+    void varcharRuleIsDroppedWhenNumericCastingIsEnabled() {
+        assertTrue(provider.getBusinessRules().stream().noneMatch(r -> r.contains("VARCHAR")));
+
+        SchemaProvider withoutCasting = new SchemaProvider();
+        withoutCasting.numericCasting = false;
+        assertTrue(withoutCasting.getBusinessRules().stream().anyMatch(r -> r.contains("VARCHAR")));
+    }
 }
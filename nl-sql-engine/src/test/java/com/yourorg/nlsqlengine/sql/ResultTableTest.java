@@ -0,0 +1,48 @@
+package com.yourorg.nlsqlengine.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultTableTest {
+
+    private static final ResultTable PEOPLE = new ResultTable(
+            List.of(new ResultTable.Column("name", "varchar"), new ResultTable.Column("age", "int4")),
+            List.of(new Object[]{"Luke", 19}, new Object[]{"Leia", null}));
+
+    @Test
+    void asMapsViewsRowsByColumnNameInColumnOrder() {
+        List<Map<String, Object>> rows = PEOPLE.asMaps();
+
+        assertEquals(2, rows.size());
+        assertEquals("Luke", rows.get(0).get("name"));
+        assertEquals(19, rows.get(0).get("age"));
+        assertEquals(List.of("name", "age"), new ArrayList<>(rows.get(0).keySet()));
+        assertTrue(rows.get(1).containsKey("age"));
+        assertNull(rows.get(1).get("age"));
+        assertFalse(rows.get(1).containsKey("planet"));
+        assertEquals(Map.of("name", "Luke", "age", 19), rows.get(0));
+    }
+
+    @Test
+    void asMapsIsReadOnly() {
+        assertThrows(UnsupportedOperationException.class, () -> PEOPLE.asMaps().get(0).put("age", 20));
+    }
+
+    @Test
+    void duplicateColumnNamesKeepTheLastValue() {
+        List<ResultTable.Column> columns = List.of(new ResultTable.Column("name", "varchar"),
+                new ResultTable.Column("id", "int4"), new ResultTable.Column("name", "varchar"));
+        ResultTable table = new ResultTable(columns, List.<Object[]>of(new Object[]{"Luke", 1, "Tatooine"}));
+
+        assertArrayEquals(new boolean[]{true, false, false}, ResultTable.shadowedColumns(columns));
+        Map<String, Object> row = table.asMaps().get(0);
+        assertEquals(2, row.size());
+        assertEquals("Tatooine", row.get("name"));
+        assertEquals(List.of("id", "name"), new ArrayList<>(row.keySet()));
+    }
+}
@@ -0,0 +1,29 @@
+package com.yourorg.nlsqlengine.sql;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaCatalogTest {
+
+    @Test
+    void numericTextIgnoresMissingMarkers() {
+        // height : 80 valeurs numériques, 20 'unknown'
+        assertTrue(SchemaCatalog.isNumericText(100, 80, 20, 0));
+        assertFalse(SchemaCatalog.isNumericText(100, 0, 100, 0), "colonne uniquement 'unknown'");
+    }
+
+    @Test
+    void mostlyNumericTextIsNotEnough() {
+        // L'ancien seuil de 50 % marquait numérique une colonne libre sur deux
+        assertFalse(SchemaCatalog.isNumericText(100, 60, 0, 0));
+        assertTrue(SchemaCatalog.isNumericText(100, 95, 0, 0));
+    }
+
+    @Test
+    void leadingZerosExcludeCodesAndIdentifiers() {
+        // Codes postaux, identifiants '007' : numériques d'apparence, mais pas des nombres
+        assertFalse(SchemaCatalog.isNumericText(100, 100, 0, 12));
+        assertFalse(SchemaCatalog.isNumericText(100, 100, 0, 1));
+    }
+}
@@ -1,6 +1,10 @@
 package com.yourorg.nlsqlengine.sql;
 
+import com.yourorg.nlsqlengine.tracing.PipelineTracer;
 import io.agroal.api.AgroalDataSource;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.data.SpanData;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -23,6 +28,9 @@ class SqlExecutorTest {
     @Inject
     SqlExecutor executor;
 
+    @Inject
+    InMemorySpanExporter spanExporter;
+
     @BeforeEach
     void setUp() throws SQLException {
         try (Connection conn = dataSource.getConnection();
@@ -41,7 +49,7 @@ class SqlExecutorTest {
     @Test
     void executeValidSelect() throws SQLException {
         List<Map<String, Object>> results = executor.execute(
-                "SELECT name, age FROM test_clients ORDER BY name");
+                "SELECT name, age FROM test_clients ORDER BY name").asMaps();
         assertEquals(3, results.size());
         assertEquals("Alice", results.get(0).get("name"));
         assertEquals(30, results.get(0).get("age"));
@@ -50,7 +58,7 @@ class SqlExecutorTest {
     @Test
     void executeWithWhere() throws SQLException {
         List<Map<String, Object>> results = executor.execute(
-                "SELECT name FROM test_clients WHERE age > 28 ORDER BY name");
+                "SELECT name FROM test_clients WHERE age > 28 ORDER BY name").asMaps();
         assertEquals(2, results.size());
         assertEquals("Alice", results.get(0).get("name"));
         assertEquals("Charlie", results.get(1).get("name"));
@@ -59,11 +67,20 @@ class SqlExecutorTest {
     @Test
     void executeCountQuery() throws SQLException {
         List<Map<String, Object>> results = executor.execute(
-                "SELECT COUNT(id) AS total FROM test_clients");
+                "SELECT COUNT(id) AS total FROM test_clients").asMaps();
         assertEquals(1, results.size());
         assertEquals(3L, results.get(0).get("total"));
     }
 
+    @Test
+    void executeReturnsColumnsWithSqlTypes() throws SQLException {
+        ResultTable table = executor.execute("SELECT name, age FROM test_clients ORDER BY name");
+        assertEquals(List.of(new ResultTable.Column("name", "varchar"), new ResultTable.Column("age", "int4")),
+                table.columns());
+        assertEquals(3, table.size());
+        assertArrayEquals(new Object[]{"Alice", 30}, table.rows().get(0));
+    }
+
     @Test
     void executeInvalidSqlThrows() {
         assertThrows(SQLException.class, () -> executor.execute("SELECT FROM"));
@@ -75,4 +92,76 @@ class SqlExecutorTest {
         assertThrows(SQLException.class, () ->
                 executor.execute("INSERT INTO test_clients (name, age) VALUES ('Hacker', 99)"));
     }
+
+    @Test
+    void streamWritesEveryRowAndKeepsTheHead() throws SQLException {
+        List<String> written = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        SqlExecutor.StreamedRows rows = executor.stream("SELECT name, age FROM test_clients ORDER BY name",
+                new RowWriter() {
+                    @Override
+                    public void start(String sql, List<ResultTable.Column> columns) {
+                        assertEquals(List.of("name", "age"), columns.stream().map(ResultTable.Column::name).toList());
+                    }
+
+                    @Override
+                    public void row(Object[] values) {
+                        written.add((String) values[0]);
+                    }
+
+                    @Override
+                    public void end(long rowCount) {
+                        counts.add(rowCount);
+                    }
+                });
+
+        assertEquals(List.of("Alice", "Bob", "Charlie"), written);
+        assertEquals(List.of(3L), counts);
+        assertEquals(3, rows.rowCount());
+        assertEquals(3, rows.head().size());
+        assertEquals(30, rows.head().asMaps().get(0).get("age"));
+        assertEquals("Charlie", rows.head().rows().get(2)[0]);
+    }
+
+    @Test
+    void streamFailureBeforeFirstRowIsPlainSqlException() {
+        assertThrows(SQLException.class, () -> executor.stream("SELECT FROM", new RowWriter() {
+            @Override
+            public void start(String sql, List<ResultTable.Column> columns) {
+                fail("Aucune ligne ne doit être écrite");
+            }
+
+            @Override
+            public void row(Object[] values) {
+            }
+
+            @Override
+            public void end(long rowCount) {
+            }
+        }));
+    }
+
+    @Test
+    void executionSpanCarriesHashedStatement() throws Exception {
+        spanExporter.reset();
+        String sql = "SELECT name FROM test_clients WHERE name = 'Alice'";
+        executor.execute(sql);
+
+        SpanData span = awaitSpan("SqlExecutor.execute");
+        assertEquals(PipelineTracer.hash(sql), span.getAttributes().get(AttributeKey.stringKey("db.statement.sha256")));
+        assertEquals(1L, span.getAttributes().get(AttributeKey.longKey("db.response.returned_rows")));
+        assertFalse(span.getAttributes().toString().contains("Alice"));
+    }
+
+    private SpanData awaitSpan(String name) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            for (SpanData span : spanExporter.getFinishedSpanItems()) {
+                if (span.getName().equals(name)) {
+                    return span;
+                }
+            }
+            Thread.sleep(100);
+        }
+        return fail("Span non exporté : " + name);
+    }
 }
@@ -0,0 +1,122 @@
+package com.yourorg.nlsqlengine.sql;
+
+import com.yourorg.nlsqlengine.metrics.PipelineMetrics;
+import com.yourorg.nlsqlengine.tracing.PipelineTracer;
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Span JDBC de {@link SqlExecutor} sans base de données : le driver est simulé par des proxys
+ * renvoyant une ligne, le span est collecté par un exportateur en mémoire.
+ */
+class SqlExecutorTracingTest {
+
+    private InMemorySpanExporter exporter;
+    private OpenTelemetrySdk openTelemetry;
+    private SqlExecutor executor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        exporter = InMemorySpanExporter.create();
+        openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(SdkTracerProvider.builder()
+                        .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                        .build())
+                .build();
+        PipelineTracer tracer = new PipelineTracer();
+        setField(tracer, "tracer", openTelemetry.getTracer("test"));
+        setField(tracer, "openTelemetry", openTelemetry);
+        PipelineMetrics metrics = new PipelineMetrics();
+        setField(metrics, "registry", new SimpleMeterRegistry());
+
+        executor = new SqlExecutor();
+        executor.tracer = tracer;
+        executor.metrics = metrics;
+        executor.dataSource = stub(AgroalDataSource.class, "getConnection", stub(Connection.class,
+                "prepareStatement", stub(PreparedStatement.class, "executeQuery", oneRow("Alice"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        openTelemetry.close();
+    }
+
+    @Test
+    void executionSpanCarriesHashedStatementAndRowCount() throws Exception {
+        String sql = "SELECT name FROM clients WHERE name = 'Alice'";
+
+        ResultTable table = executor.execute(sql);
+
+        assertEquals(1, table.size());
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertEquals(1, spans.size());
+        SpanData span = spans.get(0);
+        assertEquals("SqlExecutor.execute", span.getName());
+        assertEquals(SpanKind.CLIENT, span.getKind());
+        assertEquals("postgresql", span.getAttributes().get(AttributeKey.stringKey("db.system")));
+        assertEquals(PipelineTracer.hash(sql), span.getAttributes().get(AttributeKey.stringKey("db.statement.sha256")));
+        assertEquals(1L, span.getAttributes().get(AttributeKey.longKey("db.response.returned_rows")));
+        assertFalse(span.getAttributes().toString().contains("Alice"), "le texte SQL n'est jamais exporté");
+    }
+
+    private static ResultSet oneRow(String name) {
+        ResultSetMetaData meta = (ResultSetMetaData) Proxy.newProxyInstance(
+                SqlExecutorTracingTest.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getColumnCount" -> 1;
+                    case "getColumnLabel" -> "name";
+                    case "getColumnTypeName" -> "varchar";
+                    default -> null;
+                });
+        int[] cursor = {0};
+        return (ResultSet) Proxy.newProxyInstance(SqlExecutorTracingTest.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getMetaData" -> meta;
+                    case "next" -> cursor[0]++ == 0;
+                    case "getObject" -> name;
+                    default -> null;
+                });
+    }
+
+    /**
+     * Proxy JDBC dont la méthode {@code method} renvoie {@code result} ; les autres méthodes
+     * (réglages, fermeture, rollback) sont sans effet.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, String method, Object result) {
+        return (T) Proxy.newProxyInstance(SqlExecutorTracingTest.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, invoked, args) -> {
+                    if (invoked.getName().equals(method)) {
+                        return result;
+                    }
+                    Class<?> returnType = invoked.getReturnType();
+                    return returnType == boolean.class ? false : returnType == int.class ? 0 : null;
+                });
+    }
+
+    private static void setField(Object target, String fieldName, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
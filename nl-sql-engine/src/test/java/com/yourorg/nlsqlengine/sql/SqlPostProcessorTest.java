@@ -0,0 +1,128 @@
+package com.yourorg.nlsqlengine.sql;
+
+import com.yourorg.nlsqlengine.rag.SchemaProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlPostProcessorTest {
+
+    private static final String GUARD = " ~ '^[0-9]+(\\.[0-9]+)?$'";
+
+    private SqlPostProcessor processor;
+    private SchemaCatalog catalog;
+    private final SqlValidator validator = new SqlValidator();
+
+    @BeforeEach
+    void setUp() {
+        catalog = new SchemaCatalog();
+        catalog.load(Map.of(
+                "starships", List.of(column("id", "integer", false), column("name", "character varying", false),
+                        column("crew", "character varying", true), column("cargo_capacity", "character varying", true)),
+                "people", List.of(column("id", "integer", false), column("name", "character varying", false),
+                        column("mass", "character varying", true))));
+        processor = new SqlPostProcessor();
+        processor.catalog = catalog;
+        processor.schemaProvider = new SchemaProvider();
+    }
+
+    @Test
+    void castsComparisonWithoutExtraGuard() {
+        String sql = processor.process("SELECT s.name FROM starships s WHERE s.crew > 10");
+
+        // La valeur non numérique vaut NULL : la comparaison écarte déjà la ligne
+        assertEquals("SELECT s.name FROM starships s WHERE CAST(CASE WHEN s.crew" + GUARD
+                + " THEN s.crew END AS NUMERIC) > 10", sql);
+        assertTrue(validator.validate(sql).valid());
+    }
+
+    @Test
+    void orBranchesKeepTheirPrecedence() {
+        String sql = processor.process("SELECT name FROM starships WHERE crew > 10 OR name = 'X-wing'");
+
+        assertEquals("SELECT name FROM starships WHERE CAST(CASE WHEN crew" + GUARD
+                + " THEN crew END AS NUMERIC) > 10 OR name = 'X-wing'", sql);
+        assertTrue(validator.validate(sql).valid());
+    }
+
+    @Test
+    void nestedOrIsRewrittenInPlace() {
+        String sql = processor.process(
+                "SELECT name FROM starships WHERE id > 3 AND (crew > 10 OR cargo_capacity < 500 OR name LIKE 'X%')");
+
+        assertEquals("SELECT name FROM starships WHERE id > 3 AND (CAST(CASE WHEN crew" + GUARD
+                + " THEN crew END AS NUMERIC) > 10 OR CAST(CASE WHEN cargo_capacity" + GUARD
+                + " THEN cargo_capacity END AS NUMERIC) < 500 OR name LIKE 'X%')", sql);
+        assertTrue(validator.validate(sql).valid());
+    }
+
+    @Test
+    void castsArithmeticOrderByAndAggregates() {
+        String sql = processor.process("SELECT name, cargo_capacity - crew AS marge FROM starships ORDER BY crew DESC");
+        assertEquals("SELECT name, CAST(CASE WHEN cargo_capacity" + GUARD + " THEN cargo_capacity END AS NUMERIC) - "
+                + "CAST(CASE WHEN crew" + GUARD + " THEN crew END AS NUMERIC) AS marge FROM starships "
+                + "ORDER BY CAST(CASE WHEN crew" + GUARD + " THEN crew END AS NUMERIC) DESC", sql);
+
+        String aggregate = processor.process("SELECT AVG(p.mass) AS masse_moyenne, COUNT(p.mass) FROM people p");
+        assertEquals("SELECT AVG(CAST(CASE WHEN p.mass" + GUARD + " THEN p.mass END AS NUMERIC)) AS masse_moyenne, "
+                + "COUNT(p.mass) FROM people p", aggregate);
+    }
+
+    @Test
+    void makesExistingCastsSafeWithoutDoubleCasting() {
+        String sql = processor.process("SELECT name FROM starships ORDER BY CAST(crew AS INTEGER) DESC");
+
+        assertEquals("SELECT name FROM starships ORDER BY CAST(CASE WHEN crew" + GUARD + " THEN crew END AS INTEGER) DESC", sql);
+        assertEquals(sql, processor.process(sql));
+    }
+
+    @Test
+    void leavesTextComparisonsAndOtherColumnsUntouched() {
+        String sql = "SELECT name, crew FROM starships WHERE crew <> 'unknown' AND id > 3 ORDER BY name";
+
+        assertSame(sql, processor.process(sql));
+    }
+
+    @Test
+    void resolvesAliasesPerTable() {
+        // name n'est numérique dans aucune table ; mass seulement dans people
+        String sql = processor.process("SELECT p.name FROM people p JOIN starships s ON s.id = p.id WHERE p.mass > 80 AND s.id > 1");
+
+        assertTrue(sql.contains("THEN p.mass END AS NUMERIC) > 80"), sql);
+        assertTrue(sql.contains("s.id > 1"), sql);
+        assertFalse(sql.contains("WHERE p.mass" + GUARD), sql);
+    }
+
+    @Test
+    void keepsGuardWrittenByModel() {
+        String sql = processor.process("SELECT name FROM starships WHERE crew" + GUARD + " AND crew > 10");
+
+        assertEquals(1, sql.split("AND").length - 1, sql);
+    }
+
+    @Test
+    void fallsBackToSchemaProviderColumnsWithoutCatalog() {
+        catalog.load(Map.of());
+
+        String sql = processor.process("SELECT name FROM planets WHERE population > 1000000");
+
+        assertTrue(sql.contains("CAST(CASE WHEN population" + GUARD + " THEN population END AS NUMERIC) > 1000000"), sql);
+    }
+
+    @Test
+    void disabledCastingReturnsSqlUnchanged() {
+        processor.numericCasting = false;
+        String sql = "SELECT name FROM starships WHERE crew > 10";
+
+        assertSame(sql, processor.process(sql));
+        assertEquals(0, processor.stats().processed());
+    }
+
+    private static SchemaCatalog.ColumnInfo column(String name, String type, boolean numericText) {
+        return new SchemaCatalog.ColumnInfo(name, type, numericText);
+    }
+}
@@ -0,0 +1,150 @@
+package com.yourorg.nlsqlengine.sql;
+
+import com.yourorg.nlsqlengine.rag.SchemaProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlRepairerTest {
+
+    private SqlRepairer repairer;
+    private final SqlValidator validator = new SqlValidator();
+
+    @BeforeEach
+    void setUp() {
+        SchemaCatalog catalog = new SchemaCatalog();
+        catalog.load(Map.of(
+                "planets", List.of(column("id", "integer"), column("name", "character varying"),
+                        numericText("population")),
+                "people", List.of(column("id", "integer"), column("name", "character varying"),
+                        numericText("height"), column("homeworld_id", "integer"))));
+        SqlPostProcessor postProcessor = new SqlPostProcessor();
+        postProcessor.catalog = catalog;
+        postProcessor.schemaProvider = new SchemaProvider();
+        repairer = new SqlRepairer();
+        repairer.catalog = catalog;
+        repairer.postProcessor = postProcessor;
+    }
+
+    @Test
+    void castsVarcharNumericColumnsOnOperatorError() {
+        String repaired = repairer.repair("SELECT name FROM people WHERE height > 180 ORDER BY name",
+                "Exécution SQL : ERROR: operator does not exist: character varying > integer");
+
+        assertEquals("SELECT name FROM people WHERE "
+                        + "CAST(CASE WHEN height ~ '^[0-9]+(\\.[0-9]+)?$' THEN height END AS NUMERIC) > 180 ORDER BY name",
+                repaired);
+        assertTrue(validator.validate(repaired).valid());
+    }
+
+    @Test
+    void castsArithmeticOnQualifiedColumnsAndKeepsStringComparisons() {
+        String repaired = repairer.repair(
+                "SELECT p.name, p.height - 10 AS delta FROM people p WHERE p.height > 100 AND p.height <> 'unknown'",
+                "ERROR: operator does not exist: character varying - integer");
+
+        assertTrue(repaired.contains("THEN p.height END AS NUMERIC) - 10 AS delta"), repaired);
+        assertTrue(repaired.contains("THEN p.height END AS NUMERIC) > 100"), repaired);
+        assertTrue(repaired.contains("p.height <> 'unknown'"), repaired);
+        assertTrue(repaired.contains("FROM people p WHERE CAST(CASE WHEN p.height ~ "), repaired);
+    }
+
+    @Test
+    void leavesNumericColumnsAloneForOtherErrors() {
+        assertNull(repairer.repair("SELECT name FROM people WHERE height > 180",
+                "ERROR: relation \"peoples\" does not exist"));
+    }
+
+    @Test
+    void convertsMysqlFunctionsAndLimit() {
+        String repaired = repairer.repair(
+                "SELECT p.name, IFNULL(p.height, 'n/a') AS taille FROM people p ORDER BY p.name LIMIT 10, 5",
+                "ERROR: LIMIT #,# syntax is not supported");
+
+        assertEquals("SELECT p.name, COALESCE(p.height, 'n/a') AS taille FROM people p ORDER BY p.name LIMIT 5 OFFSET 10",
+                repaired);
+    }
+
+    @Test
+    void convertsGroupConcatToStringAgg() {
+        String repaired = repairer.repair(
+                "SELECT pl.name, GROUP_CONCAT(DISTINCT p.name ORDER BY p.name SEPARATOR ', ') AS habitants "
+                        + "FROM planets pl JOIN people p ON p.homeworld_id = pl.id GROUP BY pl.name",
+                "ERROR: function group_concat(character varying) does not exist");
+
+        assertEquals("SELECT pl.name, STRING_AGG(DISTINCT CAST(p.name AS TEXT), ', ' ORDER BY p.name) AS habitants "
+                + "FROM planets pl JOIN people p ON p.homeworld_id = pl.id GROUP BY pl.name", repaired);
+    }
+
+    @Test
+    void expandsSelectStarFromCatalog() {
+        String repaired = repairer.repair("SELECT * FROM planets WHERE name = 'Tatooine'",
+                "Validation SQL : SELECT * est interdit, spécifiez les colonnes explicitement");
+
+        assertEquals("SELECT id, name, population FROM planets WHERE name = 'Tatooine'", repaired);
+        assertTrue(validator.validate(repaired).valid());
+    }
+
+    @Test
+    void expandsSelectStarOverJoinWithUniqueLabels() {
+        String repaired = repairer.repair("SELECT p.*, pl.name FROM people p JOIN planets pl ON p.homeworld_id = pl.id",
+                "Validation SQL : SELECT * est interdit");
+
+        assertEquals("SELECT p.id, p.name, p.height, p.homeworld_id, pl.name FROM people p JOIN planets pl ON p.homeworld_id = pl.id",
+                repaired);
+
+        String both = repairer.repair("SELECT * FROM people p JOIN planets pl ON p.homeworld_id = pl.id", null);
+        assertTrue(both.contains("pl.name AS planets_name"), both);
+    }
+
+    @Test
+    void selectStarOnUnknownTableIsNotRepaired() {
+        assertNull(repairer.repair("SELECT * FROM vehicles", "Validation SQL : SELECT * est interdit"));
+    }
+
+    @Test
+    void dropsTrailingExplanationAndDanglingClause() {
+        assertEquals("SELECT name FROM people WHERE id = 1",
+                repairer.repair("SELECT name FROM people WHERE id = 1\nCette requête liste les personnages.", "SQL invalide"));
+        assertEquals("SELECT name FROM people WHERE id = 1",
+                repairer.repair("SELECT name FROM people WHERE id = 1 AND", "SQL invalide"));
+        assertEquals("SELECT name FROM people ORDER BY name",
+                repairer.repair("SELECT name FROM people ORDER BY name,", "SQL invalide"));
+    }
+
+    @Test
+    void returnsNullWhenNothingApplies() {
+        assertNull(repairer.repair("SELECT name FROM people", "ERROR: permission denied"));
+        assertNull(repairer.repair("ceci n'est pas du SQL", "SQL invalide"));
+        assertNull(repairer.repair("DELETE FROM people", "Commande interdite : DELETE"));
+    }
+
+    @Test
+    void rewritesSubqueriesAndCountsSavedRetries() {
+        String repaired = repairer.repair(
+                "SELECT name FROM planets WHERE id IN (SELECT homeworld_id FROM people WHERE height > 200)",
+                "ERROR: operator does not exist: character varying > integer");
+
+        assertTrue(repaired.contains("(SELECT homeworld_id FROM people WHERE CAST(CASE WHEN height ~ "), repaired);
+        assertTrue(repaired.contains("THEN height END AS NUMERIC) > 200"), repaired);
+
+        repairer.recordOutcome(true);
+        repairer.recordOutcome(false);
+        SqlRepairer.RepairStats stats = repairer.stats();
+        assertEquals(1, stats.attempts());
+        assertEquals(1, stats.repaired());
+        assertEquals(1, stats.retriesSaved());
+    }
+
+    private static SchemaCatalog.ColumnInfo column(String name, String type) {
+        return new SchemaCatalog.ColumnInfo(name, type, false);
+    }
+
+    private static SchemaCatalog.ColumnInfo numericText(String name) {
+        return new SchemaCatalog.ColumnInfo(name, "character varying", true);
+    }
+}
@@ -0,0 +1,20 @@
+package com.yourorg.nlsqlengine.tracing;
+
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+/**
+ * Exportateur de spans en mémoire pour les tests @QuarkusTest : les spans terminés
+ * y sont collectés au lieu d'être envoyés au collecteur OTLP.
+ */
+@ApplicationScoped
+public class InMemorySpanExporterProducer {
+
+    @Produces
+    @Singleton
+    InMemorySpanExporter inMemorySpanExporter() {
+        return InMemorySpanExporter.create();
+    }
+}
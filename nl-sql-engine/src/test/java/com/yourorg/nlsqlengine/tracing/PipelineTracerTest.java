@@ -0,0 +1,101 @@
+package com.yourorg.nlsqlengine.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineTracerTest {
+
+    private InMemorySpanExporter exporter;
+    private OpenTelemetrySdk openTelemetry;
+    private PipelineTracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        exporter = InMemorySpanExporter.create();
+        openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(SdkTracerProvider.builder()
+                        .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                        .build())
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+        tracer = new PipelineTracer();
+        tracer.tracer = openTelemetry.getTracer("test");
+        tracer.openTelemetry = openTelemetry;
+    }
+
+    @AfterEach
+    void tearDown() {
+        openTelemetry.close();
+    }
+
+    @Test
+    void nestedSpansShareTheTrace() {
+        String result = tracer.inSpan("parent", parent -> tracer.inSpan("child", SpanKind.CLIENT, child -> {
+            child.setAttribute("nlsql.attempt", 2);
+            return "ok";
+        }));
+
+        assertEquals("ok", result);
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertEquals(2, spans.size());
+        SpanData child = spans.get(0);
+        SpanData parent = spans.get(1);
+        assertEquals("child", child.getName());
+        assertEquals(SpanKind.CLIENT, child.getKind());
+        assertEquals(parent.getTraceId(), child.getTraceId());
+        assertEquals(parent.getSpanId(), child.getParentSpanId());
+        assertEquals(2L, child.getAttributes().get(AttributeKey.longKey("nlsql.attempt")));
+    }
+
+    @Test
+    void failureIsRecordedAndRethrown() {
+        SQLException thrown = assertThrows(SQLException.class, () -> tracer.inSpan("SqlExecutor.execute", span -> {
+            throw new SQLException("relation \"inconnue\" does not exist");
+        }));
+
+        assertEquals("relation \"inconnue\" does not exist", thrown.getMessage());
+        SpanData span = exporter.getFinishedSpanItems().get(0);
+        assertEquals(StatusCode.ERROR, span.getStatus().getStatusCode());
+        assertEquals(1, span.getEvents().size());
+    }
+
+    @Test
+    void outgoingRequestCarriesTraceparent() {
+        HttpRequest request = tracer.inSpan("VoiceResource.piper", SpanKind.CLIENT, span -> {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://piper:5000/synthesize"));
+            tracer.injectHeaders(builder);
+            return builder.build();
+        });
+
+        String traceparent = request.headers().firstValue("traceparent").orElseThrow();
+        assertTrue(traceparent.contains(exporter.getFinishedSpanItems().get(0).getTraceId()));
+    }
+
+    @Test
+    void statementHashIsStableAndOpaque() {
+        String sql = "SELECT nom FROM clients WHERE email = 'alice@example.com'";
+
+        assertEquals(PipelineTracer.hash(sql), PipelineTracer.hash(sql));
+        assertEquals(64, PipelineTracer.hash(sql).length());
+        assertNotEquals(PipelineTracer.hash(sql), PipelineTracer.hash(sql + " "));
+        assertFalse(PipelineTracer.hash(sql).contains("alice"));
+    }
+}
@@ -0,0 +1,31 @@
+package com.yourorg.nlsqlengine.warmup;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class StartupWarmupTest {
+
+    @Inject
+    StartupWarmup warmup;
+
+    @Test
+    void readinessIsUpOnceWarmupCompletes() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!warmup.isComplete() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(warmup.isComplete());
+
+        // Les autres sondes (Ollama, absent en test) peuvent être DOWN : seule celle du préchauffage est vérifiée
+        RestAssured.given()
+                .when().get("/q/health/ready")
+                .then()
+                .body("checks.find { it.name == 'nlsql-warmup' }.status", is("UP"));
+    }
+}
@@ -0,0 +1,20 @@
+package com.yourorg.nlsqlengine.warmup;
+
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WarmupReadinessCheckTest {
+
+    @Test
+    void readinessIsDownWhileWarmupIsIncomplete() {
+        WarmupReadinessCheck check = new WarmupReadinessCheck();
+        check.warmup = new StartupWarmup();
+
+        HealthCheckResponse response = check.call();
+
+        assertEquals("nlsql-warmup", response.getName());
+        assertEquals(HealthCheckResponse.Status.DOWN, response.getStatus());
+    }
+}